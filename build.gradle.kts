@@ -3,6 +3,7 @@ plugins {
     id("org.springframework.boot") version "3.2.5"
     id("io.spring.dependency-management") version "1.1.4"
     id("com.diffplug.spotless") version "6.25.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.tipico"
@@ -23,22 +24,45 @@ repositories {
 }
 
 dependencies {
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-web")
+    implementation("org.springframework.boot:spring-boot-starter-webflux")
+    implementation("org.springframework.boot:spring-boot-starter-data-r2dbc")
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.5.0")
+    implementation("com.github.ben-manes.caffeine:caffeine")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
+    implementation("org.flywaydb:flyway-core")
 
     runtimeOnly("com.h2database:h2")
+    runtimeOnly("io.r2dbc:r2dbc-h2")
+    runtimeOnly("org.hibernate.orm:hibernate-jcache")
+    runtimeOnly("org.hibernate.orm:hibernate-micrometer")
+    runtimeOnly("org.ehcache:ehcache::jakarta")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 
     annotationProcessor("org.projectlombok:lombok")
     compileOnly("org.projectlombok:lombok")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testImplementation("io.projectreactor:reactor-test")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+tasks.register<JavaExec>("auditReplay") {
+    description = "Replays an eligibility audit log against the current campaign conditions"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.tipico.audit.AuditReplayTool")
+}
+
+jmh {
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
+
 spotless {
     java {
         importOrder()
@@ -0,0 +1,72 @@
+package com.tipico.benchmark;
+
+import com.tipico.model.Campaign;
+import com.tipico.model.condition.*;
+import com.tipico.service.engine.CompiledCatalog;
+import com.tipico.service.engine.EligibilityQuery;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Evaluates a synthetic campaign set against one request, without any database access. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConditionEvaluationBenchmark {
+
+    private static final String[] COUNTRIES = {"POLAND", "GERMANY", "AUSTRIA", "MALTA", "SWEDEN"};
+
+    private static final LocalDateTime REGISTRATION_BASE =
+            LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay();
+
+    private static final LocalDateTime NOW = LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+
+    @Param({"10", "1000", "100000"})
+    private int conditionCount;
+
+    private CompiledCatalog catalog;
+
+    private EligibilityQuery query;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        var campaigns = new ArrayList<Campaign>();
+        var remaining = conditionCount;
+        for (long id = 1; remaining > 0; id++) {
+            var conditions = new ArrayList<Condition>();
+            for (int i = 0; i < 4 && remaining > 0; i++, remaining--) {
+                conditions.add(
+                        switch (i) {
+                            case 0 -> new CountryCondition(COUNTRIES[random.nextInt(COUNTRIES.length)]);
+                            case 1 -> new RegistrationDateCondition(REGISTRATION_BASE.plusDays(random.nextInt(1000)));
+                            case 2 -> new MinimumDepositAmountCondition(random.nextInt(200));
+                            default -> new IsFirstDepositCondition(true);
+                        });
+            }
+            var campaign = new Campaign();
+            campaign.setId(id);
+            campaign.setStartDate(NOW.minusDays(1));
+            campaign.setEndDate(NOW.plusDays(1));
+            campaign.setConditions(conditions);
+            campaigns.add(campaign);
+        }
+        catalog = CompiledCatalog.compile(campaigns, 0, 0, NOW);
+        query = catalog.prepare("poland", REGISTRATION_BASE.plusDays(500), 100, true);
+    }
+
+    @Benchmark
+    public void matchEachCampaign(Blackhole blackhole) {
+        for (int index = 0; index < catalog.size(); index++) {
+            blackhole.consume(catalog.matches(index, query));
+        }
+    }
+}
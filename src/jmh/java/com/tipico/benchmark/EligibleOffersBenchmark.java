@@ -0,0 +1,118 @@
+package com.tipico.benchmark;
+
+import com.tipico.CampaignApplication;
+import com.tipico.dto.OfferDto;
+import com.tipico.model.Campaign;
+import com.tipico.model.Offer;
+import com.tipico.model.condition.CountryCondition;
+import com.tipico.model.condition.IsFirstDepositCondition;
+import com.tipico.model.condition.MinimumDepositAmountCondition;
+import com.tipico.model.condition.RegistrationDateCondition;
+import com.tipico.repository.CampaignRepository;
+import com.tipico.repository.ConditionRepository;
+import com.tipico.repository.OfferRepository;
+import com.tipico.service.CampaignService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/** End-to-end {@link CampaignService#getEligibleOffers} against a seeded in-memory H2 database. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EligibleOffersBenchmark {
+
+    private static final UUID CUSTOMER_UUID = UUID.fromString("00000000-0000-0000-0000-00000000be4c");
+
+    private static final LocalDateTime REGISTRATION_DATE =
+            LocalDate.of(2022, Month.JANUARY, 1).atStartOfDay();
+
+    @Param({"1", "50"})
+    private int offersPerCustomer;
+
+    @Param({"IN_MEMORY", "DATABASE"})
+    private String queryMode;
+
+    private ConfigurableApplicationContext context;
+
+    private CampaignService campaignService;
+
+    @Setup
+    public void setUp() {
+        var application = new SpringApplication(CampaignApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark",
+                "--logging.level.com.tipico=WARN",
+                "--campaign.eligibility.query-mode=" + queryMode,
+                // Measures the offer lookup and evaluation of every call, not the caches, logs and gates around it
+                "--campaign.offer-cache.enabled=false",
+                "--campaign.audit.enabled=false",
+                "--campaign.warm-up.enabled=false",
+                "--campaign.admission.enabled=false");
+        campaignService = context.getBean(CampaignService.class);
+        seed(
+                context.getBean(CampaignRepository.class),
+                context.getBean(ConditionRepository.class),
+                context.getBean(OfferRepository.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OfferDto> getEligibleOffers() {
+        return campaignService.getEligibleOffers(CUSTOMER_UUID, "POLAND", REGISTRATION_DATE, 100, true);
+    }
+
+    private void seed(
+            CampaignRepository campaignRepository,
+            ConditionRepository conditionRepository,
+            OfferRepository offerRepository) {
+        var offers = new ArrayList<Offer>();
+        for (int i = 0; i < offersPerCustomer; i++) {
+            var campaign = new Campaign();
+            campaign.setUuid(UUID.randomUUID());
+            campaign.setName("Benchmark Campaign " + i);
+            campaign.setStartDate(LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay());
+            campaign.setEndDate(LocalDate.of(2099, Month.DECEMBER, 31).atStartOfDay());
+            campaign = campaignRepository.save(campaign);
+
+            var countryCondition = new CountryCondition(i % 2 == 0 ? "POLAND" : "SWEDEN");
+            countryCondition.setCampaign(campaign);
+            var registrationDateCondition = new RegistrationDateCondition(
+                    LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay());
+            registrationDateCondition.setCampaign(campaign);
+            var minimumDepositAmountCondition = new MinimumDepositAmountCondition(50);
+            minimumDepositAmountCondition.setCampaign(campaign);
+            var isFirstDepositCondition = new IsFirstDepositCondition(true);
+            isFirstDepositCondition.setCampaign(campaign);
+            conditionRepository.saveAll(List.of(
+                    countryCondition,
+                    registrationDateCondition,
+                    minimumDepositAmountCondition,
+                    isFirstDepositCondition));
+
+            var offer = new Offer();
+            offer.setUuid(UUID.randomUUID());
+            offer.setCustomerUuid(CUSTOMER_UUID);
+            offer.setExpirationDate(LocalDate.of(2099, Month.JANUARY, 1).atStartOfDay());
+            offer.setCampaign(campaign);
+            offers.add(offer);
+        }
+        offerRepository.saveAll(offers);
+    }
+}
@@ -0,0 +1,87 @@
+package com.tipico.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tipico.codec.OfferListHttpMessageConverter;
+import com.tipico.codec.OfferPayloadCache;
+import com.tipico.config.CampaignProperties;
+import com.tipico.dto.OfferDto;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serialization of the eligibility response body, using an object mapper configured the way Spring MVC does, compared
+ * with the formats of {@link OfferListHttpMessageConverter} assembled from cached per-offer payloads. The response
+ * size of each format is printed once per offer count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OfferDtoSerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int offerCount;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectMapper cborMapper;
+
+    private OfferListHttpMessageConverter converter;
+
+    private List<OfferDto> offers;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+        var properties = new Binder(new MapConfigurationPropertySource(Map.of()))
+                .bindOrCreate("campaign", CampaignProperties.class);
+        converter = new OfferListHttpMessageConverter(new OfferPayloadCache(objectMapper, properties));
+        var random = new Random(42);
+        offers = IntStream.range(0, offerCount)
+                .mapToObj(i -> new OfferDto(new UUID(random.nextLong(), random.nextLong())))
+                .toList();
+        System.out.printf(
+                "%n%d offers: JSON %d bytes, CBOR %d bytes, uuids %d bytes%n",
+                offerCount,
+                serialize().length,
+                precomputedCbor().length,
+                uuids().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(offers);
+    }
+
+    @Benchmark
+    public byte[] serializeCbor() throws JsonProcessingException {
+        return cborMapper.writeValueAsBytes(offers);
+    }
+
+    @Benchmark
+    public byte[] precomputedJson() {
+        return converter.jsonArray(offers);
+    }
+
+    @Benchmark
+    public byte[] precomputedCbor() {
+        return converter.cborArray(offers);
+    }
+
+    @Benchmark
+    public byte[] uuids() {
+        return OfferListHttpMessageConverter.uuids(offers);
+    }
+}
@@ -0,0 +1,98 @@
+package com.tipico.benchmark;
+
+import com.tipico.config.CampaignProperties;
+import com.tipico.identity.UuidGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Inserts offer identifiers into an indexed {@code BINARY(16)} column of a file-backed H2 database, comparing random
+ * (v4) with time-ordered (v7) UUIDs. Each invocation loads {@code rows} identifiers into an empty table; the resulting
+ * table and index size is reported as the {@code diskSpaceUsed} counter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class UuidInsertBenchmark {
+
+    private static final int BATCH_SIZE = 5000;
+
+    @Param({"V4", "V7"})
+    private CampaignProperties.UuidVersion uuidVersion;
+
+    @Param("10000000")
+    private int rows;
+
+    private UuidGenerator uuidGenerator;
+
+    private Path directory;
+
+    private Connection connection;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class IndexSize {
+
+        public long diskSpaceUsed;
+    }
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        uuidGenerator = new UuidGenerator(uuidVersion, Clock.systemUTC());
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("uuid-insert-benchmark");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("db"), "sa", "");
+        connection.setAutoCommit(false);
+        try (var statement = connection.createStatement()) {
+            statement.execute("create table offer (id bigint primary key, uuid binary(16) not null)");
+            statement.execute("create unique index idx_offer_uuid on offer (uuid)");
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws IOException, SQLException {
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void insert(IndexSize indexSize) throws SQLException {
+        try (var insert = connection.prepareStatement("insert into offer (id, uuid) values (?, ?)")) {
+            for (int id = 1; id <= rows; id++) {
+                insert.setLong(1, id);
+                insert.setBytes(2, UuidGenerator.toBytes(uuidGenerator.next()));
+                insert.addBatch();
+                if (id % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        try (var statement = connection.createStatement();
+                var result = statement.executeQuery("call disk_space_used('offer')")) {
+            result.next();
+            indexSize.diskSpaceUsed = result.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.tipico.admission;
+
+import com.tipico.config.CampaignProperties;
+import com.tipico.config.CampaignProperties.CallerPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows the observed latency: additive increase while requests are fast and the limit is in
+ * use, multiplicative decrease after a request slower than {@code campaign.admission.latency-threshold}. When the
+ * database slows down, fewer requests are let through, so those admitted finish instead of all of them timing out
+ * together. The limit decreases at most once per limit's worth of completed requests, as the requests admitted under
+ * the previous limit are still slow and would otherwise collapse it to {@code min-limit} within one round trip.
+ *
+ * <p>Requests over the limit wait in a bounded queue for at most {@code campaign.admission.max-queue-wait}. Waiting
+ * requests are admitted by priority, then in arrival order; a request finding the queue full takes the place of the
+ * latest waiting request of the lowest lower priority, if any.
+ */
+public class AdaptiveLimiter {
+
+    public enum Outcome {
+        ADMITTED,
+        QUEUE_FULL,
+        TIMED_OUT,
+        EVICTED
+    }
+
+    private enum State {
+        WAITING,
+        ADMITTED,
+        EVICTED
+    }
+
+    private final CampaignProperties.Admission properties;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Waiting requests per priority, in arrival order. */
+    private final ArrayDeque<Waiter>[] waiters;
+
+    private final Counter[][] outcomes;
+
+    private volatile double limit;
+
+    /** Requests completed since the limit last decreased, counting up to {@code max-limit}. */
+    private int completedSinceBackoff;
+
+    private volatile int inFlight;
+
+    private volatile int queued;
+
+    @SuppressWarnings("unchecked")
+    public AdaptiveLimiter(CampaignProperties properties, MeterRegistry registry) {
+        this.properties = properties.admission();
+        this.limit = Math.clamp(this.properties.initialLimit(), this.properties.minLimit(), this.properties.maxLimit());
+        this.completedSinceBackoff = this.properties.maxLimit();
+        var priorities = CallerPriority.values();
+        this.waiters = new ArrayDeque[priorities.length];
+        this.outcomes = new Counter[priorities.length][Outcome.values().length];
+        for (var priority : priorities) {
+            waiters[priority.ordinal()] = new ArrayDeque<>();
+            for (var outcome : Outcome.values()) {
+                outcomes[priority.ordinal()][outcome.ordinal()] = Counter.builder("admission.requests")
+                        .description("Eligibility requests by admission outcome")
+                        .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                        .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                        .register(registry);
+            }
+        }
+        Gauge.builder("admission.limit", this, AdaptiveLimiter::limit)
+                .description("Current concurrency limit of eligibility requests")
+                .register(registry);
+        Gauge.builder("admission.in_flight", this, AdaptiveLimiter::inFlight)
+                .description("Admitted eligibility requests not finished yet")
+                .register(registry);
+        Gauge.builder("admission.queue.size", this, AdaptiveLimiter::queued)
+                .description("Eligibility requests waiting for admission")
+                .register(registry);
+    }
+
+    /**
+     * Admits a request, waiting while the limit is reached. Unless the outcome is {@link Outcome#ADMITTED}, the
+     * request must be rejected; otherwise {@link #release} must be called once it is done.
+     */
+    public Outcome acquire(CallerPriority priority) throws InterruptedException {
+        var outcome = tryAcquire(priority);
+        outcomes[priority.ordinal()][outcome.ordinal()].increment();
+        return outcome;
+    }
+
+    private Outcome tryAcquire(CallerPriority priority) throws InterruptedException {
+        lock.lock();
+        try {
+            if (queued == 0 && inFlight < (int) limit) {
+                inFlight++;
+                return Outcome.ADMITTED;
+            }
+            if (queued >= properties.queueCapacity() && !evictLowerThan(priority)) {
+                return Outcome.QUEUE_FULL;
+            }
+            var waiter = new Waiter(lock.newCondition());
+            waiters[priority.ordinal()].addLast(waiter);
+            queued++;
+            var remainingNanos = properties.maxQueueWait().toNanos();
+            try {
+                while (waiter.state == State.WAITING) {
+                    if (remainingNanos <= 0) {
+                        waiters[priority.ordinal()].remove(waiter);
+                        queued--;
+                        return Outcome.TIMED_OUT;
+                    }
+                    remainingNanos = waiter.condition.awaitNanos(remainingNanos);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.state == State.ADMITTED) {
+                    inFlight--;
+                    admitWaiting();
+                } else if (waiter.state == State.WAITING) {
+                    waiters[priority.ordinal()].remove(waiter);
+                    queued--;
+                }
+                throw e;
+            }
+            return waiter.state == State.ADMITTED ? Outcome.ADMITTED : Outcome.EVICTED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Ends an admitted request, adapting the limit to how long it took. */
+    public void release(long latencyNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            completedSinceBackoff = Math.min(properties.maxLimit(), completedSinceBackoff + 1);
+            if (latencyNanos > properties.latencyThreshold().toNanos()) {
+                if (completedSinceBackoff >= limit) {
+                    limit = Math.max(properties.minLimit(), limit * properties.backoffRatio());
+                    completedSinceBackoff = 0;
+                }
+            } else if (inFlight * 2 >= limit) {
+                // Grows by about one per limit's worth of fast requests, unless the load does not need the limit
+                limit = Math.min(properties.maxLimit(), limit + 1 / limit);
+            }
+            admitWaiting();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Ends an admitted request whose duration says nothing about the load, leaving the limit as it is. */
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            admitWaiting();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight;
+    }
+
+    public int queued() {
+        return queued;
+    }
+
+    private void admitWaiting() {
+        while (queued > 0 && inFlight < (int) limit) {
+            var waiter = pollHighestPriority();
+            waiter.state = State.ADMITTED;
+            inFlight++;
+            waiter.condition.signal();
+        }
+    }
+
+    private Waiter pollHighestPriority() {
+        for (var queue : waiters) {
+            var waiter = queue.pollFirst();
+            if (waiter != null) {
+                queued--;
+                return waiter;
+            }
+        }
+        throw new IllegalStateException("No waiting request");
+    }
+
+    private boolean evictLowerThan(CallerPriority priority) {
+        for (int ordinal = waiters.length - 1; ordinal > priority.ordinal(); ordinal--) {
+            var waiter = waiters[ordinal].pollLast();
+            if (waiter != null) {
+                queued--;
+                waiter.state = State.EVICTED;
+                waiter.condition.signal();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Waiter {
+
+        private final Condition condition;
+
+        private State state = State.WAITING;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.tipico.admission;
+
+import com.tipico.config.CampaignProperties;
+import com.tipico.config.CampaignProperties.CallerPriority;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Puts requests through the {@link AdaptiveLimiter} before they reach a controller, answering those it does not admit
+ * with {@code 503 Service Unavailable} and a {@code Retry-After} header. The caller is named by a request header and
+ * mapped to its priority by {@code campaign.admission.callers}.
+ *
+ * <p>Streamed responses hold their admission until the asynchronous response completes. How long that takes depends
+ * on the page size and the client, so it does not adapt the limit. Neither do batch requests, whose duration grows
+ * with the number of customers in them.
+ */
+@Slf4j
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final String BATCH_SUFFIX = ":batch";
+
+    private final AdaptiveLimiter limiter;
+
+    private final CampaignProperties.Admission properties;
+
+    private final String retryAfterSeconds;
+
+    public AdmissionFilter(AdaptiveLimiter limiter, CampaignProperties properties) {
+        this.limiter = limiter;
+        this.properties = properties.admission();
+        this.retryAfterSeconds = Long.toString(Math.max(1, this.properties.retryAfter().toSeconds()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var priority = priority(request);
+        AdaptiveLimiter.Outcome outcome;
+        try {
+            outcome = limiter.acquire(priority);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = AdaptiveLimiter.Outcome.TIMED_OUT;
+        }
+        if (outcome != AdaptiveLimiter.Outcome.ADMITTED) {
+            log.debug("Rejected {} request to {}: {}", priority, request.getRequestURI(), outcome);
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Over capacity, retry later");
+            return;
+        }
+
+        var start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener());
+            } else if (request.getRequestURI().endsWith(BATCH_SUFFIX)) {
+                limiter.release();
+            } else {
+                limiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private CallerPriority priority(HttpServletRequest request) {
+        var caller = request.getHeader(properties.callerHeader());
+        var priority = caller == null ? null : properties.callers().get(caller);
+        return priority == null ? CallerPriority.NORMAL : priority;
+    }
+
+    /** Releases the admission once a streamed response completed, also after an error or timeout. */
+    private final class ReleasingListener implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {}
+
+        @Override
+        public void onError(AsyncEvent event) {}
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {}
+    }
+}
@@ -0,0 +1,242 @@
+package com.tipico.audit;
+
+import com.tipico.config.CampaignProperties;
+import com.tipico.service.engine.CompiledCatalog;
+import com.tipico.service.engine.EligibilityQuery;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Append-only binary log of eligibility decisions.
+ *
+ * <p>Request threads hand records to a bounded queue and never wait: when the queue is full the record is dropped
+ * and counted. A single writer thread encodes records into memory-mapped segment files of
+ * {@code campaign.audit.segment-size} bytes, starting a new segment when the current one is full, and forces the
+ * mapped pages to disk every {@code campaign.audit.flush-interval}. Segments are never rewritten; see
+ * {@link AuditLogReader} for reading them back.
+ */
+@Slf4j
+@Component
+public class AuditLog implements SmartLifecycle {
+
+    /** Decisions per record; longer evaluations, e.g. streamed pages, are split into several records. */
+    static final int MAX_DECISIONS_PER_RECORD = 1024;
+
+    private final CampaignProperties.Audit properties;
+
+    private final int segmentSize;
+
+    private final BlockingQueue<AuditRecord> queue;
+
+    private final Counter written;
+
+    private final Counter dropped;
+
+    private final CRC32 crc = new CRC32();
+
+    private ByteBuffer scratch = ByteBuffer.allocate(64 * 1024);
+
+    private MappedByteBuffer segment;
+
+    private long nextSequence;
+
+    private final ThreadLocal<Boolean> suppressed = ThreadLocal.withInitial(() -> false);
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public AuditLog(CampaignProperties properties, MeterRegistry registry) {
+        this.properties = properties.audit();
+        var segmentBytes = this.properties.segmentSize().toBytes();
+        if (segmentBytes <= 0 || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("campaign.audit.segment-size must be positive and less than 2GB");
+        }
+        this.segmentSize = (int) segmentBytes;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, this.properties.queueCapacity()));
+        this.written = Counter.builder("audit.records")
+                .description("Eligibility decisions records handled by the audit log")
+                .tag("outcome", "written")
+                .register(registry);
+        this.dropped = Counter.builder("audit.records")
+                .description("Eligibility decisions records handled by the audit log")
+                .tag("outcome", "dropped")
+                .register(registry);
+        Gauge.builder("audit.queue.size", queue, BlockingQueue::size)
+                .description("Records waiting to be written to the audit log")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Starts collecting the decisions of one evaluation. The returned recorder is a shared no-op when auditing is
+     * disabled, so callers need no checks of their own.
+     */
+    public DecisionRecorder recorder(
+            UUID customerUuid, CompiledCatalog catalog, EligibilityQuery query, LocalDateTime evaluatedAt) {
+        if (!isEnabled() || suppressed.get()) {
+            return DecisionRecorder.NONE;
+        }
+        return new DecisionRecorder(this, customerUuid, catalog.version(), query, evaluatedAt);
+    }
+
+    /** Runs {@code action} without recording the evaluations it makes on the current thread, e.g. synthetic ones. */
+    public void withoutRecording(Runnable action) {
+        suppressed.set(true);
+        try {
+            action.run();
+        } finally {
+            suppressed.remove();
+        }
+    }
+
+    /** Queues the record without blocking; returns {@code false} if it was dropped. */
+    public boolean record(AuditRecord record) {
+        if (!running || !queue.offer(record)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        var directory = properties.directory();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        var existing = AuditSegments.list(directory);
+        nextSequence = existing.isEmpty() ? 0 : AuditSegments.sequence(existing.getLast()) + 1;
+        running = true;
+        writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::writeLoop);
+        log.info("Writing eligibility audit log to {}", directory.toAbsolutePath());
+    }
+
+    @Override
+    public synchronized void stop() {
+        var thread = writer;
+        if (thread == null) {
+            return;
+        }
+        writer = null;
+        // Not interrupting the writer: an interrupt closes the file channel it may be mapping
+        running = false;
+        try {
+            thread.join(properties.flushInterval().plusSeconds(10).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void writeLoop() {
+        var flushIntervalNanos = properties.flushInterval().toNanos();
+        var lastFlush = System.nanoTime();
+        var unflushed = false;
+        try {
+            while (running) {
+                var record = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (record != null && write(record)) {
+                    unflushed = true;
+                }
+                if (unflushed && System.nanoTime() - lastFlush >= flushIntervalNanos) {
+                    segment.force();
+                    lastFlush = System.nanoTime();
+                    unflushed = false;
+                }
+            }
+            drainAndClose();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Audit log writer failed; further records are dropped", e);
+            running = false;
+        }
+    }
+
+    private void drainAndClose() {
+        var remaining = new ArrayList<AuditRecord>();
+        queue.drainTo(remaining);
+        try {
+            for (var record : remaining) {
+                write(record);
+            }
+        } finally {
+            if (segment != null) {
+                segment.force();
+                segment = null;
+            }
+        }
+    }
+
+    /** Appends the record to the current segment; returns {@code false} if it was dropped as larger than a segment. */
+    private boolean write(AuditRecord record) {
+        var maxSize = AuditRecordCodec.maxEncodedSize(record);
+        if (AuditSegments.HEADER_BYTES + AuditSegments.FRAME_BYTES + maxSize > segmentSize) {
+            log.warn("Dropping audit record of {} decisions larger than a segment", record.decisions().size());
+            dropped.increment();
+            return false;
+        }
+        if (scratch.capacity() < maxSize) {
+            scratch = ByteBuffer.allocate(Integer.highestOneBit(maxSize) << 1);
+        }
+        scratch.clear();
+        AuditRecordCodec.encode(record, scratch);
+        scratch.flip();
+        crc.reset();
+        crc.update(scratch.duplicate());
+
+        if (segment == null || segment.remaining() < AuditSegments.FRAME_BYTES + scratch.remaining()) {
+            rotate();
+        }
+        segment.putInt(scratch.remaining()).putInt((int) crc.getValue()).put(scratch);
+        written.increment();
+        return true;
+    }
+
+    private void rotate() {
+        if (segment != null) {
+            segment.force();
+        }
+        var path = AuditSegments.segment(properties.directory(), nextSequence++);
+        try (var channel = FileChannel.open(
+                path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segment.putInt(AuditSegments.MAGIC).putInt(AuditSegments.VERSION);
+    }
+}
@@ -0,0 +1,75 @@
+package com.tipico.audit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads the records of an audit log directory in the order they were written. A segment is read up to its unused
+ * tail; a record that was cut short by a crash or whose checksum does not match ends the segment.
+ */
+@Slf4j
+public final class AuditLogReader {
+
+    private AuditLogReader() {}
+
+    /** Passes every readable record to {@code consumer} and returns how many there were. */
+    public static long read(Path directory, Consumer<AuditRecord> consumer) {
+        var count = 0L;
+        for (var segment : AuditSegments.list(directory)) {
+            count += readSegment(segment, consumer);
+        }
+        return count;
+    }
+
+    private static long readSegment(Path segment, Consumer<AuditRecord> consumer) {
+        ByteBuffer buffer;
+        try (var channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (buffer.remaining() < AuditSegments.HEADER_BYTES
+                || buffer.getInt() != AuditSegments.MAGIC
+                || buffer.getInt() != AuditSegments.VERSION) {
+            log.warn("Skipping {}: not an audit segment of version {}", segment, AuditSegments.VERSION);
+            return 0;
+        }
+        var crc = new CRC32();
+        var count = 0L;
+        while (buffer.remaining() >= AuditSegments.FRAME_BYTES) {
+            var length = buffer.getInt();
+            var checksum = buffer.getInt();
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || length > buffer.remaining()) {
+                log.warn("Truncated record at offset {} of {}", buffer.position() - AuditSegments.FRAME_BYTES, segment);
+                break;
+            }
+            var payload = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Corrupt record at offset {} of {}", buffer.position() - AuditSegments.FRAME_BYTES, segment);
+                break;
+            }
+            try {
+                consumer.accept(AuditRecordCodec.decode(payload));
+            } catch (BufferUnderflowException e) {
+                log.warn("Malformed record at offset {} of {}", buffer.position() - AuditSegments.FRAME_BYTES, segment);
+                break;
+            }
+            buffer.position(buffer.position() + length);
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,16 @@
+package com.tipico.audit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/** The inputs and per-offer outcome of one eligibility evaluation. */
+public record AuditRecord(
+        LocalDateTime evaluatedAt,
+        long catalogVersion,
+        UUID customerUuid,
+        String country,
+        LocalDateTime registrationDate,
+        int depositAmount,
+        boolean isFirstDeposit,
+        List<OfferDecision> decisions) {}
@@ -0,0 +1,122 @@
+package com.tipico.audit;
+
+import com.tipico.service.engine.ConditionType;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.UUID;
+
+/**
+ * Binary form of an {@link AuditRecord}. Timestamps are stored as UTC epoch seconds and nanos, UUIDs as two longs and
+ * the outcome of each offer as one byte: the ordinal of the failing {@link ConditionType}, {@link #ELIGIBLE} or
+ * {@link #CAMPAIGN_NOT_RUNNING}.
+ */
+final class AuditRecordCodec {
+
+    static final byte ELIGIBLE = -1;
+
+    static final byte CAMPAIGN_NOT_RUNNING = -2;
+
+    private static final int NULL_DATE = -1;
+
+    private static final int DECISION_BYTES = 2 * Long.BYTES + Long.BYTES + 1;
+
+    private AuditRecordCodec() {}
+
+    static int maxEncodedSize(AuditRecord record) {
+        var country = record.country() == null ? 0 : record.country().length() * 3;
+        return 128 + country + record.decisions().size() * DECISION_BYTES;
+    }
+
+    static void encode(AuditRecord record, ByteBuffer buffer) {
+        putDate(buffer, record.evaluatedAt());
+        buffer.putLong(record.catalogVersion());
+        putUuid(buffer, record.customerUuid());
+        if (record.country() == null) {
+            buffer.putShort((short) -1);
+        } else {
+            var country = record.country().getBytes(StandardCharsets.UTF_8);
+            var length = Math.min(country.length, Short.MAX_VALUE);
+            buffer.putShort((short) length).put(country, 0, length);
+        }
+        putDate(buffer, record.registrationDate());
+        buffer.putInt(record.depositAmount());
+        buffer.put((byte) (record.isFirstDeposit() ? 1 : 0));
+        buffer.putInt(record.decisions().size());
+        for (var decision : record.decisions()) {
+            putUuid(buffer, decision.offerUuid());
+            buffer.putLong(decision.campaignId());
+            buffer.put(outcome(decision));
+        }
+    }
+
+    /** Decodes one record; throws {@link BufferUnderflowException} if the buffer ends inside it. */
+    static AuditRecord decode(ByteBuffer buffer) {
+        var evaluatedAt = getDate(buffer);
+        var catalogVersion = buffer.getLong();
+        var customerUuid = getUuid(buffer);
+        var countryLength = buffer.getShort();
+        String country = null;
+        if (countryLength >= 0) {
+            var bytes = new byte[countryLength];
+            buffer.get(bytes);
+            country = new String(bytes, StandardCharsets.UTF_8);
+        }
+        var registrationDate = getDate(buffer);
+        var depositAmount = buffer.getInt();
+        var isFirstDeposit = buffer.get() == 1;
+        var decisionCount = buffer.getInt();
+        var decisions = new ArrayList<OfferDecision>(decisionCount);
+        for (int i = 0; i < decisionCount; i++) {
+            var offerUuid = getUuid(buffer);
+            var campaignId = buffer.getLong();
+            var outcome = buffer.get();
+            decisions.add(new OfferDecision(
+                    offerUuid,
+                    campaignId,
+                    outcome != CAMPAIGN_NOT_RUNNING,
+                    outcome >= 0 ? ConditionType.values()[outcome] : null));
+        }
+        return new AuditRecord(
+                evaluatedAt,
+                catalogVersion,
+                customerUuid,
+                country,
+                registrationDate,
+                depositAmount,
+                isFirstDeposit,
+                decisions);
+    }
+
+    private static byte outcome(OfferDecision decision) {
+        if (!decision.campaignRunning()) {
+            return CAMPAIGN_NOT_RUNNING;
+        }
+        return decision.failingCondition() == null ? ELIGIBLE : (byte) decision.failingCondition().ordinal();
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static void putDate(ByteBuffer buffer, LocalDateTime date) {
+        if (date == null) {
+            buffer.putLong(0).putInt(NULL_DATE);
+        } else {
+            buffer.putLong(date.toEpochSecond(ZoneOffset.UTC)).putInt(date.getNano());
+        }
+    }
+
+    private static LocalDateTime getDate(ByteBuffer buffer) {
+        var seconds = buffer.getLong();
+        var nanos = buffer.getInt();
+        return nanos == NULL_DATE ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,64 @@
+package com.tipico.audit;
+
+import com.tipico.CampaignApplication;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Offline replay of an audit log: {@code AuditReplayTool <audit directory> [--spring.datasource.url=...]}.
+ *
+ * <p>Starts the application without the web server, auditing, archiving, data seeding and warm-up, replays the log
+ * against the campaign conditions of the configured database and prints the changed decisions. Exits with status 1 if
+ * any decision changed.
+ */
+public final class AuditReplayTool {
+
+    private AuditReplayTool() {}
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: AuditReplayTool <audit directory> [--property=value ...]");
+            System.exit(2);
+        }
+        var directory = Path.of(args[0]);
+        var springArgs = new ArrayList<>(Arrays.asList(args).subList(1, args.length));
+        springArgs.add("--campaign.audit.enabled=false");
+        springArgs.add("--campaign.archive.enabled=false");
+        springArgs.add("--campaign.seed.mode=NONE");
+        springArgs.add("--campaign.warm-up.enabled=false");
+
+        var context = new SpringApplicationBuilder(CampaignApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(springArgs.toArray(String[]::new));
+        var report = context.getBean(AuditReplayer.class).replay(directory);
+
+        for (var change : report.changed()) {
+            var record = change.record();
+            System.out.printf(
+                    "%s customer=%s offer=%s campaign=%d logged=%s replayed=%s%n",
+                    record.evaluatedAt(),
+                    record.customerUuid(),
+                    change.expected().offerUuid(),
+                    change.expected().campaignId(),
+                    describe(change.expected()),
+                    describe(change.actual()));
+        }
+        System.out.printf(
+                "Replayed %d records with %d decisions, %d changed%n",
+                report.records(), report.decisions(), report.changed().size());
+
+        var status = report.changed().isEmpty() ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> status));
+    }
+
+    private static String describe(OfferDecision decision) {
+        if (!decision.campaignRunning()) {
+            return "NOT_RUNNING";
+        }
+        return decision.isEligible() ? "ELIGIBLE" : decision.failingCondition().name();
+    }
+}
@@ -0,0 +1,71 @@
+package com.tipico.audit;
+
+import com.tipico.repository.CampaignRepository;
+import com.tipico.service.engine.CompiledCatalog;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Re-evaluates logged requests against the current campaign conditions and reports the offers whose outcome differs
+ * from the logged one. Each record is evaluated at its original moment, so only condition changes show up, not
+ * campaigns that have since started or ended on schedule. The catalog is therefore compiled from all campaigns,
+ * unlike the one serving requests, which leaves out the ended ones.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditReplayer {
+
+    private final CampaignRepository campaignRepository;
+
+    /**
+     * @param expected the logged decision
+     * @param actual the decision with the current conditions; its campaign is not running if it no longer exists
+     */
+    public record ChangedDecision(AuditRecord record, OfferDecision expected, OfferDecision actual) {}
+
+    /** Totals of a replay run and the changed decisions, in log order. */
+    public record Report(long records, long decisions, List<ChangedDecision> changed) {}
+
+    public Report replay(Path directory) {
+        var latestCampaignId = campaignRepository.findLatestId();
+        // Each record derives the campaigns running at its own moment, so the moment compiled for does not matter
+        var catalog = CompiledCatalog.compile(
+                campaignRepository.findAllWithConditions(),
+                0,
+                latestCampaignId == null ? 0 : latestCampaignId,
+                LocalDateTime.MIN);
+        var changed = new ArrayList<ChangedDecision>();
+        var decisions = new long[1];
+        var records = AuditLogReader.read(directory, record -> {
+            decisions[0] += record.decisions().size();
+            replay(catalog, record, changed);
+        });
+        return new Report(records, decisions[0], changed);
+    }
+
+    static void replay(CompiledCatalog catalog, AuditRecord record, List<ChangedDecision> changed) {
+        if (record.decisions().isEmpty() || record.registrationDate() == null) {
+            return;
+        }
+        var atEvaluation = catalog.activeAt(record.evaluatedAt());
+        var query = atEvaluation.prepare(
+                record.country(), record.registrationDate(), record.depositAmount(), record.isFirstDeposit());
+        for (var expected : record.decisions()) {
+            var index = atEvaluation.indexOf(expected.campaignId());
+            var actual = index < 0 || !atEvaluation.isActive(index)
+                    ? new OfferDecision(expected.offerUuid(), expected.campaignId(), false, null)
+                    : new OfferDecision(
+                            expected.offerUuid(),
+                            expected.campaignId(),
+                            true,
+                            atEvaluation.firstFailingCondition(index, query));
+            if (!actual.equals(expected)) {
+                changed.add(new ChangedDecision(record, expected, actual));
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.tipico.audit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Layout of the audit log on disk: numbered segment files of a fixed size, each starting with {@link #MAGIC} and
+ * {@link #VERSION} and followed by records framed as {@code [int length][int crc32][payload]}. A zero length marks the
+ * unused tail of a segment.
+ */
+final class AuditSegments {
+
+    static final int MAGIC = 0x43415544;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    static final int FRAME_BYTES = 2 * Integer.BYTES;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("audit-(\\d{20})\\.log");
+
+    private AuditSegments() {}
+
+    static Path segment(Path directory, long sequence) {
+        return directory.resolve("audit-%020d.log".formatted(sequence));
+    }
+
+    /** Existing segments of the directory, oldest first. */
+    static List<Path> list(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> SEGMENT_NAME
+                            .matcher(file.getFileName().toString())
+                            .matches())
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static long sequence(Path segment) {
+        var matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not an audit segment: " + segment);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+}
@@ -0,0 +1,88 @@
+package com.tipico.audit;
+
+import com.tipico.service.engine.ConditionType;
+import com.tipico.service.engine.EligibilityQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Collects the decisions of one evaluation and hands them to the {@link AuditLog}. Not thread-safe; each evaluation
+ * uses its own recorder and calls {@link #finish()} once done.
+ */
+public class DecisionRecorder {
+
+    /** Records nothing, used when auditing is disabled. */
+    public static final DecisionRecorder NONE = new DecisionRecorder(null, null, 0, null, null);
+
+    private final AuditLog auditLog;
+
+    private final UUID customerUuid;
+
+    private final long catalogVersion;
+
+    private final EligibilityQuery query;
+
+    private final LocalDateTime evaluatedAt;
+
+    private List<OfferDecision> decisions = new ArrayList<>();
+
+    private boolean submitted;
+
+    DecisionRecorder(
+            AuditLog auditLog,
+            UUID customerUuid,
+            long catalogVersion,
+            EligibilityQuery query,
+            LocalDateTime evaluatedAt) {
+        this.auditLog = auditLog;
+        this.customerUuid = customerUuid;
+        this.catalogVersion = catalogVersion;
+        this.query = query;
+        this.evaluatedAt = evaluatedAt;
+    }
+
+    /** Records an offer of a running campaign together with the first condition it failed, if any. */
+    public void evaluated(UUID offerUuid, long campaignId, ConditionType failingCondition) {
+        add(new OfferDecision(offerUuid, campaignId, true, failingCondition));
+    }
+
+    /** Records an offer whose campaign was not running, so its conditions were not evaluated. */
+    public void notRunning(UUID offerUuid, long campaignId) {
+        add(new OfferDecision(offerUuid, campaignId, false, null));
+    }
+
+    /** Submits the decisions collected since the last submission. Evaluations without candidates are logged too. */
+    public void finish() {
+        if (auditLog == null || (submitted && decisions.isEmpty())) {
+            return;
+        }
+        submit();
+        decisions = new ArrayList<>();
+    }
+
+    private void add(OfferDecision decision) {
+        if (auditLog == null) {
+            return;
+        }
+        decisions.add(decision);
+        if (decisions.size() == AuditLog.MAX_DECISIONS_PER_RECORD) {
+            submit();
+            decisions = new ArrayList<>();
+        }
+    }
+
+    private void submit() {
+        auditLog.record(new AuditRecord(
+                evaluatedAt,
+                catalogVersion,
+                customerUuid,
+                query.country(),
+                query.registrationDate(),
+                query.depositAmount(),
+                query.isFirstDeposit(),
+                List.copyOf(decisions)));
+        submitted = true;
+    }
+}
@@ -0,0 +1,19 @@
+package com.tipico.audit;
+
+import com.tipico.service.engine.ConditionType;
+import java.util.UUID;
+
+/**
+ * Why a candidate offer was or was not shown.
+ *
+ * @param campaignRunning whether the offer's campaign was running at evaluation time; conditions are only evaluated
+ *     for running campaigns
+ * @param failingCondition the first condition the request did not satisfy, or {@code null} when the offer was
+ *     eligible or its campaign was not running
+ */
+public record OfferDecision(UUID offerUuid, long campaignId, boolean campaignRunning, ConditionType failingCondition) {
+
+    public boolean isEligible() {
+        return campaignRunning && failingCondition == null;
+    }
+}
@@ -0,0 +1,155 @@
+package com.tipico.codec;
+
+import com.tipico.dto.OfferDto;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes lists of offers by concatenating the cached payloads of {@link OfferPayloadCache}, without serializing the
+ * list through Jackson. Besides JSON it offers CBOR, with the offer uuids as 16-byte strings, and
+ * {@value #OFFER_UUIDS_VALUE}: the offer uuids as consecutive 16-byte big-endian values, nothing else.
+ *
+ * <p>Registered ahead of the Jackson converters; other types, including the batch response, are left to them.
+ */
+@Component
+public class OfferListHttpMessageConverter extends AbstractGenericHttpMessageConverter<List<OfferDto>> {
+
+    public static final String OFFER_UUIDS_VALUE = "application/vnd.tipico.offer-uuids";
+
+    public static final MediaType OFFER_UUIDS = MediaType.parseMediaType(OFFER_UUIDS_VALUE);
+
+    private static final int UUID_BYTES = 16;
+
+    private final OfferPayloadCache payloads;
+
+    public OfferListHttpMessageConverter(OfferPayloadCache payloads) {
+        super(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, OFFER_UUIDS);
+        this.payloads = payloads;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    /** The element type is unknown here, so only the generic variant below decides. */
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        var elementType = ResolvableType.forType(type).asCollection().resolveGeneric(0);
+        return List.class.isAssignableFrom(clazz) && elementType == OfferDto.class && canWrite(mediaType);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected void writeInternal(List<OfferDto> offers, Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        var contentType = outputMessage.getHeaders().getContentType();
+        byte[] body;
+        if (contentType != null && contentType.isCompatibleWith(OFFER_UUIDS)) {
+            body = uuids(offers);
+        } else if (contentType != null && contentType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+            body = cborArray(offers);
+        } else {
+            body = jsonArray(offers);
+        }
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+
+    @Override
+    protected List<OfferDto> readInternal(Class<? extends List<OfferDto>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Offer lists are not read", inputMessage);
+    }
+
+    @Override
+    public List<OfferDto> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Offer lists are not read", inputMessage);
+    }
+
+    /** Encodes the offer uuids as consecutive 16-byte big-endian values. */
+    public static byte[] uuids(List<OfferDto> offers) {
+        var buffer = ByteBuffer.allocate(offers.size() * UUID_BYTES);
+        for (var offer : offers) {
+            buffer.putLong(offer.uuid().getMostSignificantBits()).putLong(offer.uuid().getLeastSignificantBits());
+        }
+        return buffer.array();
+    }
+
+    /** Encodes the offers as a JSON array of their cached payloads. */
+    public byte[] jsonArray(List<OfferDto> offers) {
+        var elements = new byte[offers.size()][];
+        var length = 2 + Math.max(0, offers.size() - 1);
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = payloads.json(offers.get(i).uuid());
+            length += elements[i].length;
+        }
+        var body = new byte[length];
+        var position = 0;
+        body[position++] = '[';
+        for (int i = 0; i < elements.length; i++) {
+            if (i > 0) {
+                body[position++] = ',';
+            }
+            System.arraycopy(elements[i], 0, body, position, elements[i].length);
+            position += elements[i].length;
+        }
+        body[position] = ']';
+        return body;
+    }
+
+    /** Encodes the offers as a definite-length CBOR array of their cached payloads. */
+    public byte[] cborArray(List<OfferDto> offers) {
+        var elements = new byte[offers.size()][];
+        var header = cborArrayHeader(offers.size());
+        var length = header.length;
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = payloads.cbor(offers.get(i).uuid());
+            length += elements[i].length;
+        }
+        var body = new byte[length];
+        System.arraycopy(header, 0, body, 0, header.length);
+        var position = header.length;
+        for (var element : elements) {
+            System.arraycopy(element, 0, body, position, element.length);
+            position += element.length;
+        }
+        return body;
+    }
+
+    /** Major type 4 (array) with the smallest encoding of the element count, see RFC 8949 section 3. */
+    private static byte[] cborArrayHeader(int size) {
+        if (size < 24) {
+            return new byte[] {(byte) (0x80 | size)};
+        }
+        if (size < 0x100) {
+            return new byte[] {(byte) 0x98, (byte) size};
+        }
+        if (size < 0x10000) {
+            return new byte[] {(byte) 0x99, (byte) (size >>> 8), (byte) size};
+        }
+        return ByteBuffer.allocate(5).put((byte) 0x9a).putInt(size).array();
+    }
+}
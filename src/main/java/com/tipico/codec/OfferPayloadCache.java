@@ -0,0 +1,64 @@
+package com.tipico.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tipico.config.CampaignProperties;
+import com.tipico.dto.OfferDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serialized form of single offers, as written by Jackson, kept per offer so responses are assembled from cached
+ * bytes. An offer's payload depends on its uuid only and never changes, so entries are only evicted by size.
+ */
+@Component
+public class OfferPayloadCache implements MeterBinder {
+
+    private final ObjectMapper jsonMapper;
+
+    private final ObjectMapper cborMapper;
+
+    private final Cache<UUID, byte[]> json;
+
+    private final Cache<UUID, byte[]> cbor;
+
+    /** @param objectMapper the mapper of the JSON message converter, so cached payloads match uncached ones */
+    public OfferPayloadCache(ObjectMapper objectMapper, CampaignProperties properties) {
+        this.jsonMapper = objectMapper;
+        this.cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+        var maximumSize = properties.offerPayloads().maximumSize();
+        this.json = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+        this.cbor = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    /** The offer as a JSON object. */
+    public byte[] json(UUID offerUuid) {
+        return json.get(offerUuid, key -> serialize(jsonMapper, key));
+    }
+
+    /** The offer as a CBOR map. */
+    public byte[] cbor(UUID offerUuid) {
+        return cbor.get(offerUuid, key -> serialize(cborMapper, key));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, json, "offer-payloads", "format", "json");
+        CaffeineCacheMetrics.monitor(registry, cbor, "offer-payloads", "format", "cbor");
+    }
+
+    private static byte[] serialize(ObjectMapper mapper, UUID offerUuid) {
+        try {
+            return mapper.writeValueAsBytes(new OfferDto(offerUuid));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
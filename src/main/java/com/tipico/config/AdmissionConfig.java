@@ -0,0 +1,32 @@
+package com.tipico.config;
+
+import com.tipico.admission.AdaptiveLimiter;
+import com.tipico.admission.AdmissionFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Admission control of the eligibility endpoints of the servlet stack; the admin endpoints are not limited, and the
+ * {@code reactive} profile does not park requests on threads in the first place.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "campaign.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    AdaptiveLimiter adaptiveLimiter(CampaignProperties properties, MeterRegistry registry) {
+        return new AdaptiveLimiter(properties, registry);
+    }
+
+    @Bean
+    FilterRegistrationBean<AdmissionFilter> admissionFilter(AdaptiveLimiter limiter, CampaignProperties properties) {
+        var registration = new FilterRegistrationBean<>(new AdmissionFilter(limiter, properties));
+        registration.addUrlPatterns("/campaigns/*");
+        return registration;
+    }
+}
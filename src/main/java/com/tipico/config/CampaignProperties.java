@@ -0,0 +1,231 @@
+package com.tipico.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "campaign")
+public record CampaignProperties(
+        @DefaultValue Eligibility eligibility,
+        @DefaultValue OfferCache offerCache,
+        @DefaultValue EligibilityProfiles eligibilityProfiles,
+        @DefaultValue OfferIndex offerIndex,
+        @DefaultValue OfferPayloads offerPayloads,
+        @DefaultValue ConditionalGet conditionalGet,
+        @DefaultValue VirtualThreads virtualThreads,
+        @DefaultValue Seed seed,
+        @DefaultValue Identifiers identifiers,
+        @DefaultValue Archive archive,
+        @DefaultValue Audit audit,
+        @DefaultValue Assignment assignment,
+        @DefaultValue WarmUp warmUp,
+        @DefaultValue Admission admission) {
+
+    /**
+     * @param queryMode where offer conditions are evaluated: {@code IN_MEMORY} against the compiled catalog, or
+     *     {@code DATABASE} pushed down into the offer query so only eligible offers leave the database
+     * @param maxBatchSize maximum number of customers accepted by one batch eligibility request
+     * @param maxPageSize maximum number of offers in one page of the streamed eligibility response
+     * @param coalesceLoads whether concurrent requests for the same customer share one offer load
+     * @param coalescingMaxWait how long a request waits for a concurrent load before loading on its own
+     */
+    public record Eligibility(
+            @DefaultValue("IN_MEMORY") QueryMode queryMode,
+            @DefaultValue("10000") int maxBatchSize,
+            @DefaultValue("1000") int maxPageSize,
+            @DefaultValue("true") boolean coalesceLoads,
+            @DefaultValue("500ms") Duration coalescingMaxWait) {}
+
+    /**
+     * @param enabled whether candidate offers are cached per customer
+     * @param maximumSize maximum number of customers kept in the cache
+     * @param timeToLive upper bound for how long an entry is kept; entries are evicted earlier at the first expiration
+     *     among their offers
+     */
+    public record OfferCache(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("100000") long maximumSize,
+            @DefaultValue("10m") Duration timeToLive) {}
+
+    /**
+     * @param enabled whether in-memory evaluation keeps a precomputed profile per customer, answering repeated requests
+     *     that differ only in the deposit amount without re-evaluating the other conditions
+     * @param maximumSize maximum number of customers with a profile
+     */
+    public record EligibilityProfiles(
+            @DefaultValue("false") boolean enabled, @DefaultValue("100000") long maximumSize) {}
+
+    /**
+     * @param enabled whether candidate offers are read from a memory-mapped index file rebuilt in the background
+     * @param directory where the index file is kept across restarts
+     * @param rebuildInterval how often the index is rebuilt from the offer table
+     * @param maxAge an index file built longer ago than this is not used after a restart
+     * @param maxChangedCustomers customers with offers written since the build that are read from the database;
+     *     further changes set the index aside until the next build
+     */
+    public record OfferIndex(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("offer-index") Path directory,
+            @DefaultValue("1h") Duration rebuildInterval,
+            @DefaultValue("6h") Duration maxAge,
+            @DefaultValue("100000") int maxChangedCustomers) {}
+
+    /**
+     * @param maximumSize maximum number of offers whose serialized form is kept per response format
+     */
+    public record OfferPayloads(@DefaultValue("100000") long maximumSize) {}
+
+    /**
+     * @param enabled whether eligible offers carry an ETag and requests repeating it in {@code If-None-Match} are
+     *     answered with 304 while the offers cannot have changed
+     * @param expiryBucket granularity of the validity encoded into ETags, which is rounded down to it
+     */
+    public record ConditionalGet(@DefaultValue("true") boolean enabled, @DefaultValue("1s") Duration expiryBucket) {}
+
+    /**
+     * @param pinningThreshold minimum time a virtual thread must stay pinned to its carrier thread to be reported
+     */
+    public record VirtualThreads(@DefaultValue("20ms") Duration pinningThreshold) {}
+
+    /**
+     * @param mode which data is loaded at startup
+     * @param campaigns number of generated campaigns
+     * @param customers number of generated customers
+     * @param offersPerCustomer number of generated offers per customer, each for a random campaign
+     * @param conditionMix probability of a generated campaign having each condition type
+     * @param randomSeed seed making generated data reproducible
+     * @param batchSize rows per JDBC batch insert
+     * @param importDirectory directory holding {@code campaigns}, {@code conditions} and {@code offers} files, each
+     *     either {@code .ndjson} or {@code .csv}
+     */
+    public record Seed(
+            @DefaultValue("DEMO") SeedMode mode,
+            @DefaultValue("100") int campaigns,
+            @DefaultValue("10000") int customers,
+            @DefaultValue("10") int offersPerCustomer,
+            @DefaultValue ConditionMix conditionMix,
+            @DefaultValue("42") long randomSeed,
+            @DefaultValue("5000") int batchSize,
+            Path importDirectory) {}
+
+    public record ConditionMix(
+            @DefaultValue("0.8") double country,
+            @DefaultValue("0.5") double registrationDate,
+            @DefaultValue("0.7") double minimumDepositAmount,
+            @DefaultValue("0.3") double isFirstDeposit) {}
+
+    /** @param uuidVersion version of the UUIDs generated for new campaigns and offers */
+    public record Identifiers(@DefaultValue("V7") UuidVersion uuidVersion) {}
+
+    /**
+     * @param enabled whether expired offers are moved to {@code offer_archive} in the background
+     * @param interval delay between the end of one archiving run and the start of the next
+     * @param batchSize offers moved per transaction
+     * @param maxRowsPerSecond upper bound on the archiving rate, so runs do not compete with request traffic
+     * @param maxRowsPerRun upper bound on the offers moved by one run; the rest is left for the next run
+     */
+    public record Archive(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("1h") Duration interval,
+            @DefaultValue("1000") int batchSize,
+            @DefaultValue("10000") int maxRowsPerSecond,
+            @DefaultValue("1000000") int maxRowsPerRun) {}
+
+    /**
+     * @param enabled whether eligibility decisions are recorded to the audit log
+     * @param directory where the audit log segments are written
+     * @param segmentSize size of one memory-mapped segment file, less than 2GB
+     * @param queueCapacity records buffered for the writer; further records are dropped until it catches up
+     * @param flushInterval how often written records are forced to disk
+     */
+    public record Audit(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("audit") Path directory,
+            @DefaultValue("64MB") DataSize segmentSize,
+            @DefaultValue("65536") int queueCapacity,
+            @DefaultValue("1s") Duration flushInterval) {}
+
+    /**
+     * @param batchSize offers inserted per JDBC batch by an assignment job
+     * @param concurrentJobs assignment jobs running at the same time; further jobs wait in submission order
+     * @param retainedJobs finished jobs kept for status queries; older ones are forgotten
+     * @param spoolDirectory where uploaded customer lists are kept until their job ends, the system temporary
+     *     directory if not set
+     */
+    public record Assignment(
+            @DefaultValue("5000") int batchSize,
+            @DefaultValue("1") int concurrentJobs,
+            @DefaultValue("100") int retainedJobs,
+            Path spoolDirectory) {}
+
+    /**
+     * @param enabled whether startup waits for the warm-up before reporting ready
+     * @param connections connections opened at once to fill the connection pool
+     * @param customers customers with offers whose eligibility is evaluated with synthetic requests
+     * @param requestsPerRound synthetic requests per round; latency percentiles are measured per round
+     * @param targetLatency the warm-up ends after the first round whose 99th percentile latency is within this target
+     * @param maxDuration the warm-up ends after this time even if the target was not met
+     */
+    public record WarmUp(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("10") int connections,
+            @DefaultValue("100") int customers,
+            @DefaultValue("200") int requestsPerRound,
+            @DefaultValue("10ms") Duration targetLatency,
+            @DefaultValue("30s") Duration maxDuration) {}
+
+    /**
+     * @param enabled whether eligibility requests pass through adaptive admission control
+     * @param initialLimit concurrent requests admitted before any latency was observed
+     * @param minLimit lower bound of the concurrency limit
+     * @param maxLimit upper bound of the concurrency limit
+     * @param latencyThreshold a request slower than this shrinks the limit; faster requests grow it while the limit is
+     *     in use
+     * @param backoffRatio factor the limit is multiplied with after a slow request
+     * @param queueCapacity requests waiting for admission; a request finding the queue full is rejected, unless it
+     *     takes the place of a waiting request of lower priority
+     * @param maxQueueWait how long a request waits for admission before it is rejected
+     * @param retryAfter value of the {@code Retry-After} header of rejected requests
+     * @param callerHeader request header naming the caller
+     * @param callers priority per caller name; other callers are admitted with {@code NORMAL} priority
+     */
+    public record Admission(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("20") int initialLimit,
+            @DefaultValue("4") int minLimit,
+            @DefaultValue("200") int maxLimit,
+            @DefaultValue("100ms") Duration latencyThreshold,
+            @DefaultValue("0.9") double backoffRatio,
+            @DefaultValue("100") int queueCapacity,
+            @DefaultValue("50ms") Duration maxQueueWait,
+            @DefaultValue("1s") Duration retryAfter,
+            @DefaultValue("X-Caller") String callerHeader,
+            @DefaultValue Map<String, CallerPriority> callers) {}
+
+    /** Order in which waiting requests are admitted, highest first. */
+    public enum CallerPriority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    public enum UuidVersion {
+        V4,
+        V7
+    }
+
+    public enum SeedMode {
+        NONE,
+        DEMO,
+        SYNTHETIC,
+        IMPORT
+    }
+
+    public enum QueryMode {
+        IN_MEMORY,
+        DATABASE
+    }
+}
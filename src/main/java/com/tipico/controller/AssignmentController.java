@@ -0,0 +1,82 @@
+package com.tipico.controller;
+
+import com.tipico.dto.AssignmentJobDto;
+import com.tipico.dto.CampaignDefinition;
+import com.tipico.service.AssignmentJob;
+import com.tipico.service.AssignmentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/admin/assignments")
+@RequiredArgsConstructor
+public class AssignmentController {
+
+    private final AssignmentService assignmentService;
+
+    @Operation(
+            summary = "Create a campaign and assign it to many customers",
+            description = "Accepts the campaign definition and a file with one customer UUID per line. The offers"
+                    + " are inserted in the background and become visible to eligibility reads when the job commits.")
+    @ApiResponse(responseCode = "202", description = "Job queued; its progress is available at the Location header")
+    @ApiResponse(responseCode = "400", description = "Invalid campaign definition")
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AssignmentJobDto> submit(
+            @RequestPart("campaign") CampaignDefinition campaign,
+            @Parameter(description = "One customer UUID per line") @RequestPart("customers") MultipartFile customers) {
+        AssignmentJob job;
+        try {
+            job = assignmentService.submit(campaign, customers.getInputStream());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/admin/assignments/" + job.id()))
+                .body(job.toDto());
+    }
+
+    @Operation(summary = "List assignment jobs, most recent first")
+    @GetMapping
+    public List<AssignmentJobDto> jobs() {
+        return assignmentService.jobs().stream().map(AssignmentJob::toDto).toList();
+    }
+
+    @Operation(summary = "Get the progress of an assignment job")
+    @ApiResponse(responseCode = "404", description = "Unknown or forgotten job")
+    @GetMapping("/{id}")
+    public AssignmentJobDto job(@PathVariable UUID id) {
+        return assignmentService.job(id).map(AssignmentJob::toDto).orElseThrow(() -> notFound(id));
+    }
+
+    @Operation(
+            summary = "Cancel an assignment job",
+            description = "The job stops at its next batch and rolls back every offer it inserted.")
+    @ApiResponse(responseCode = "202", description = "Cancellation requested")
+    @ApiResponse(responseCode = "404", description = "Unknown or forgotten job")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<AssignmentJobDto> cancel(@PathVariable UUID id) {
+        var job = assignmentService.cancel(id).orElseThrow(() -> notFound(id));
+        return ResponseEntity.accepted().body(job.toDto());
+    }
+
+    private static ResponseStatusException notFound(UUID id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Assignment job " + id + " not found");
+    }
+}
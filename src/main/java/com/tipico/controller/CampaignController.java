@@ -1,32 +1,83 @@
 package com.tipico.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tipico.codec.OfferListHttpMessageConverter;
+import com.tipico.codec.OfferPayloadCache;
+import com.tipico.config.CampaignProperties;
+import com.tipico.dto.EligibilityBatchRequest;
+import com.tipico.dto.EligibilityRequest;
+import com.tipico.dto.NextCursorDto;
 import com.tipico.dto.OfferDto;
+import com.tipico.etag.EligibilityETags;
 import com.tipico.service.CampaignService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/campaigns")
 @RequiredArgsConstructor
 public class CampaignController {
 
+    private static final int FLUSH_EVERY = 256;
+
     private final CampaignService campaignService;
 
-    @Operation(summary = "Get eligible offers for a customer")
+    private final CampaignProperties properties;
+
+    private final ObjectMapper objectMapper;
+
+    private final OfferPayloadCache offerPayloadCache;
+
+    private final EligibilityETags eligibilityETags;
+
+    @Operation(
+            summary = "Get eligible offers for a customer",
+            description = "Responds with JSON, CBOR or, for " + OfferListHttpMessageConverter.OFFER_UUIDS_VALUE
+                    + ", the offer uuids as consecutive 16-byte big-endian values, as negotiated by Accept. Responses"
+                    + " carry an ETag; repeating it in If-None-Match gets 304 while the offers cannot have changed.")
     @ApiResponse(
             responseCode = "200",
             description = "List of eligible offers",
-            content = @Content(mediaType = "application/json", schema = @Schema(implementation = OfferDto.class)))
-    @GetMapping("/eligible-offers")
+            content = {
+                @Content(
+                        mediaType = MediaType.APPLICATION_JSON_VALUE,
+                        schema = @Schema(implementation = OfferDto.class)),
+                @Content(
+                        mediaType = MediaType.APPLICATION_CBOR_VALUE,
+                        schema = @Schema(implementation = OfferDto.class)),
+                @Content(mediaType = OfferListHttpMessageConverter.OFFER_UUIDS_VALUE)
+            })
+    @GetMapping(
+            path = "/eligible-offers",
+            produces = {
+                MediaType.APPLICATION_JSON_VALUE,
+                MediaType.APPLICATION_CBOR_VALUE,
+                OfferListHttpMessageConverter.OFFER_UUIDS_VALUE
+            })
+    @ApiResponse(responseCode = "304", description = "The offers did not change since the ETag in If-None-Match")
     public ResponseEntity<List<OfferDto>> getEligibleOffers(
             @Parameter(description = "Customer UUID", example = "9e61690f-28d7-45ee-a200-2aeea6c4969d") @RequestParam
                     UUID customerUuid,
@@ -34,10 +85,166 @@ public class CampaignController {
             @Parameter(description = "Registration Date", example = "2024-01-13T17:09:42.411") @RequestParam
                     LocalDateTime registrationDate,
             @Parameter(description = "Deposit Amount in Euros", example = "100") @RequestParam int depositAmount,
-            @Parameter(description = "Is First Deposit", example = "true") @RequestParam boolean isFirstDeposit) {
+            @Parameter(description = "Is First Deposit", example = "true") @RequestParam boolean isFirstDeposit,
+            @Parameter(description = "ETag of a previous response")
+                    @RequestHeader(required = false, name = HttpHeaders.IF_NONE_MATCH)
+                    String ifNoneMatch,
+            @Parameter(hidden = true) @RequestHeader(required = false, name = HttpHeaders.ACCEPT) String accept) {
+        if (!eligibilityETags.isEnabled()) {
+            return ResponseEntity.ok(campaignService.getEligibleOffers(
+                    customerUuid, country, registrationDate, depositAmount, isFirstDeposit));
+        }
+        var request = new EligibilityRequest(customerUuid, country, registrationDate, depositAmount, isFirstDeposit);
+        var stamp = eligibilityETags.stamp(request, accept);
+        var unchangedTag = eligibilityETags.unchangedTag(stamp, ifNoneMatch);
+        if (unchangedTag != null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(unchangedTag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
         var eligibleOffers = campaignService.getEligibleOffers(
                 customerUuid, country, registrationDate, depositAmount, isFirstDeposit);
 
-        return ResponseEntity.ok(eligibleOffers);
+        var response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        var eTag = eligibilityETags.eTag(stamp);
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(eligibleOffers);
+    }
+
+    @Operation(
+            summary = "Stream eligible offers for a customer page by page",
+            description = "Writes one offer per line as soon as it is found. When the page is full, the last line is a"
+                    + " {\"nextCursor\": ...} object whose value requests the following page.")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Newline-delimited eligible offers",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = OfferDto.class)))
+    @ApiResponse(responseCode = "400", description = "Malformed cursor or limit out of range")
+    @GetMapping(path = "/eligible-offers:stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEligibleOffers(
+            @Parameter(description = "Customer UUID", example = "9e61690f-28d7-45ee-a200-2aeea6c4969d") @RequestParam
+                    UUID customerUuid,
+            @Parameter(description = "Country", example = "POLAND") @RequestParam String country,
+            @Parameter(description = "Registration Date", example = "2024-01-13T17:09:42.411") @RequestParam
+                    LocalDateTime registrationDate,
+            @Parameter(description = "Deposit Amount in Euros", example = "100") @RequestParam int depositAmount,
+            @Parameter(description = "Is First Deposit", example = "true") @RequestParam boolean isFirstDeposit,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false)
+                    String cursor,
+            @Parameter(description = "Maximum number of offers in the page") @RequestParam(required = false)
+                    Integer limit) {
+        var maxPageSize = properties.eligibility().maxPageSize();
+        var pageSize = limit == null ? maxPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + maxPageSize);
+        }
+        var afterOfferId = cursor == null ? 0L : decodeCursor(cursor);
+
+        StreamingResponseBody body = outputStream -> {
+            var written = new int[1];
+            var lastOfferId = campaignService.streamEligibleOffers(
+                    customerUuid,
+                    country,
+                    registrationDate,
+                    depositAmount,
+                    isFirstDeposit,
+                    afterOfferId,
+                    pageSize,
+                    offer -> {
+                        writeLine(outputStream, offerPayloadCache.json(offer.uuid()));
+                        if (written[0]++ % FLUSH_EVERY == 0) {
+                            flush(outputStream);
+                        }
+                    });
+            if (lastOfferId != null) {
+                writeLine(outputStream, new NextCursorDto(encodeCursor(lastOfferId)));
+            }
+            outputStream.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @Operation(summary = "Get eligible offers for many customers in one call")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Eligible offers keyed by customer UUID",
+            content = @Content(mediaType = "application/json"))
+    @ApiResponse(
+            responseCode = "400",
+            description = "Batch too large, customer UUID repeated or an item without customer, country or registration"
+                    + " date")
+    @PostMapping("/eligible-offers:batch")
+    public ResponseEntity<Map<UUID, List<OfferDto>>> getEligibleOffersBatch(
+            @RequestBody EligibilityBatchRequest batch) {
+        var requests = batch.requests() == null ? List.<EligibilityRequest>of() : batch.requests();
+        if (requests.size() > properties.eligibility().maxBatchSize()) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Batch exceeds " + properties.eligibility().maxBatchSize() + " customers");
+        }
+        var customerUuids = new HashSet<UUID>();
+        for (var request : requests) {
+            if (request == null
+                    || request.customerUuid() == null
+                    || request.country() == null
+                    || request.registrationDate() == null) {
+                throw new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST,
+                        "Every batch item requires customerUuid, country and registrationDate");
+            }
+            if (!customerUuids.add(request.customerUuid())) {
+                throw new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST, "Customer " + request.customerUuid() + " is repeated in the batch");
+            }
+        }
+
+        return ResponseEntity.ok(campaignService.getEligibleOffers(requests));
+    }
+
+    private void writeLine(OutputStream outputStream, Object value) {
+        try {
+            writeLine(outputStream, objectMapper.writeValueAsBytes(value));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeLine(OutputStream outputStream, byte[] line) {
+        try {
+            outputStream.write(line);
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void flush(OutputStream outputStream) {
+        try {
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Cursors are the opaque, URL-safe encoding of the id of the last offer of a page. */
+    private static String encodeCursor(long offerId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(offerId).array());
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            var bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length == Long.BYTES) {
+                return ByteBuffer.wrap(bytes).getLong();
+            }
+        } catch (IllegalArgumentException e) {
+            // reported below
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed cursor");
     }
 }
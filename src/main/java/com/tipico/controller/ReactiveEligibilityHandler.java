@@ -0,0 +1,56 @@
+package com.tipico.controller;
+
+import com.tipico.dto.OfferDto;
+import com.tipico.service.ReactiveCampaignService;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux handler serving {@code GET /campaigns/eligible-offers} in the {@code reactive} profile, with the parameters
+ * of {@link CampaignController#getEligibleOffers}. The offers are written as they are evaluated: as a JSON array, or
+ * one per line when the client asks for {@code application/x-ndjson} explicitly.
+ */
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveEligibilityHandler {
+
+    private final ReactiveCampaignService campaignService;
+
+    public Mono<ServerResponse> getEligibleOffers(ServerRequest request) {
+        var streaming =
+                request.headers().accept().stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        return ServerResponse.ok()
+                .contentType(streaming ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(eligibleOffers(request), OfferDto.class);
+    }
+
+    private Flux<OfferDto> eligibleOffers(ServerRequest request) {
+        return campaignService.getEligibleOffers(
+                param(request, "customerUuid", UUID::fromString),
+                param(request, "country", Function.identity()),
+                param(request, "registrationDate", LocalDateTime::parse),
+                param(request, "depositAmount", Integer::parseInt),
+                param(request, "isFirstDeposit", Boolean::parseBoolean));
+    }
+
+    private static <T> T param(ServerRequest request, String name, Function<String, T> parser) {
+        var value = request.queryParam(name)
+                .orElseThrow(() -> new ServerWebInputException("Required parameter '" + name + "' is not present"));
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new ServerWebInputException("Malformed parameter '" + name + "'", null, e);
+        }
+    }
+}
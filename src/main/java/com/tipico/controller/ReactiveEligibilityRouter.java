@@ -0,0 +1,21 @@
+package com.tipico.controller;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/** Routes of the {@code reactive} profile, which replace the MVC controllers. */
+@Configuration
+@Profile("reactive")
+public class ReactiveEligibilityRouter {
+
+    @Bean
+    RouterFunction<ServerResponse> eligibilityRoutes(ReactiveEligibilityHandler handler) {
+        return RouterFunctions.route()
+                .GET("/campaigns/eligible-offers", handler::getEligibleOffers)
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.tipico.dataseed;
+
+import com.tipico.config.CampaignProperties;
+import com.tipico.event.CatalogChangedEvent;
+import com.tipico.identity.UuidGenerator;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streams rows into the {@code campaign}, {@code condition} and {@code offer} tables with JDBC batch inserts.
+ *
+ * <p>Identity columns force Hibernate to insert entities one statement at a time, since each generated id has to be
+ * read back. The loader instead assigns ids itself from a block starting after the current maximum and moves the
+ * identity past the block once the rows are written, so later inserts through JPA do not collide with them.
+ *
+ * <p>Rows are written outside Hibernate and its entity listeners, so {@link #finish} clears the second-level cache and
+ * publishes a catalog change to drop whatever the campaign catalog and offer cache have already loaded.
+ */
+@Slf4j
+@Component
+public class BulkLoader {
+
+    static final String CAMPAIGN = "campaign";
+
+    static final String CONDITION = "condition";
+
+    static final String OFFER = "offer";
+
+    private static final String INSERT_CAMPAIGN =
+            "insert into campaign (id, uuid, name, start_date, end_date, amount) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_CONDITION =
+            "insert into condition (id, campaign_id, type, data) values (?, ?, ?, ?)";
+
+    private static final String INSERT_OFFER =
+            "insert into offer (id, uuid, customer_uuid, campaign_id, expiration_date) values (?, ?, ?, ?, ?)";
+
+    private static final String NEXT_OFFER_ID = """
+            select greatest(coalesce(max(id), 0), (select coalesce(max(original_id), 0) from offer_archive)) + 1
+            from offer
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final int batchSize;
+
+    public BulkLoader(
+            JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher,
+            EntityManagerFactory entityManagerFactory,
+            CampaignProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.entityManagerFactory = entityManagerFactory;
+        this.batchSize = Math.max(1, properties.seed().batchSize());
+    }
+
+    /**
+     * Returns the first id of the block the loader writes to {@code table}. Offer ids continue after archived offers
+     * as well, so an id never refers to two offers.
+     */
+    public long nextId(String table) {
+        var sql = OFFER.equals(table) ? NEXT_OFFER_ID : "select coalesce(max(id), 0) + 1 from " + table;
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    public long insertCampaigns(Stream<CampaignRow> campaigns) {
+        return insert(INSERT_CAMPAIGN, campaigns, campaign -> new Object[] {
+            campaign.id(),
+            UuidGenerator.toBytes(campaign.uuid()),
+            campaign.name(),
+            campaign.startDate(),
+            campaign.endDate(),
+            campaign.amount()
+        });
+    }
+
+    public long insertConditions(Stream<ConditionRow> conditions) {
+        var ids = new IdBlock(nextId(CONDITION));
+        return insert(INSERT_CONDITION, conditions, condition -> new Object[] {
+            ids.next(), condition.campaignId(), condition.type().discriminatorValue(), condition.data()
+        });
+    }
+
+    public long insertOffers(Stream<OfferRow> offers) {
+        var ids = new IdBlock(nextId(OFFER));
+        return insert(INSERT_OFFER, offers, offer -> new Object[] {
+            ids.next(),
+            UuidGenerator.toBytes(offer.uuid()),
+            UuidGenerator.toBytes(offer.customerUuid()),
+            offer.campaignId(),
+            offer.expirationDate()
+        });
+    }
+
+    /** Moves every identity past the written ids and tells caches that campaign and offer data changed. */
+    public void finish() {
+        for (var table : List.of(CAMPAIGN, CONDITION, OFFER)) {
+            jdbcTemplate.execute("alter table " + table + " alter column id restart with " + nextId(table));
+        }
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        eventPublisher.publishEvent(new CatalogChangedEvent(null));
+    }
+
+    private <T> long insert(String sql, Stream<T> rows, Function<T, Object[]> toArguments) {
+        var started = System.nanoTime();
+        var batch = new ArrayList<Object[]>(batchSize);
+        long count = 0;
+        try (rows) {
+            var iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                batch.add(toArguments.apply(iterator.next()));
+                if (batch.size() == batchSize) {
+                    count += flush(sql, batch);
+                }
+            }
+            count += flush(sql, batch);
+        }
+        log.info("Inserted {} rows with '{}' in {} ms", count, sql, (System.nanoTime() - started) / 1_000_000);
+        return count;
+    }
+
+    private int flush(String sql, List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(sql, batch);
+        var size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    private static final class IdBlock {
+
+        private long next;
+
+        private IdBlock(long first) {
+            this.next = first;
+        }
+
+        private long next() {
+            return next++;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.tipico.dataseed;
 
+import com.tipico.config.CampaignProperties;
+import com.tipico.identity.UuidGenerator;
 import com.tipico.model.Campaign;
 import com.tipico.model.Offer;
 import com.tipico.model.condition.CountryCondition;
@@ -15,9 +17,17 @@ import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+/**
+ * Loads data at startup according to {@code campaign.seed.mode}: the single demo campaign used by the API examples,
+ * generated data for load testing, or data imported from files. Runs before the other startup runners, so that the
+ * warm-up sees the loaded data.
+ */
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
 @RequiredArgsConstructor
 public class CampaignDataSeeder implements CommandLineRunner {
 
@@ -27,14 +37,33 @@ public class CampaignDataSeeder implements CommandLineRunner {
 
     private final ConditionRepository conditionRepository;
 
+    private final SyntheticDataGenerator syntheticDataGenerator;
+
+    private final DataImporter dataImporter;
+
+    private final CampaignProperties properties;
+
+    private final UuidGenerator uuidGenerator;
+
     @Override
     public void run(String... args) {
-        loadCampaignData();
+        var seed = properties.seed();
+        switch (seed.mode()) {
+            case NONE -> {}
+            case DEMO -> loadCampaignData();
+            case SYNTHETIC -> syntheticDataGenerator.generate(seed);
+            case IMPORT -> {
+                if (seed.importDirectory() == null) {
+                    throw new IllegalStateException("campaign.seed.import-directory is required in IMPORT mode");
+                }
+                dataImporter.importFrom(seed.importDirectory());
+            }
+        }
     }
 
     private void loadCampaignData() {
         var campaign = new Campaign();
-        campaign.setUuid(UUID.randomUUID());
+        campaign.setUuid(uuidGenerator.next());
         campaign.setAmount(123);
         campaign.setName("Superb Campaign");
         campaign.setStartDate(LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay());
@@ -42,7 +71,7 @@ public class CampaignDataSeeder implements CommandLineRunner {
         campaign = campaignRepository.save(campaign);
 
         var offer = new Offer();
-        offer.setUuid(UUID.randomUUID());
+        offer.setUuid(uuidGenerator.next());
         offer.setCustomerUuid(UUID.fromString("9e61690f-28d7-45ee-a200-2aeea6c4969d"));
         offer.setExpirationDate(LocalDate.of(2025, Month.JANUARY, 1).atStartOfDay());
         offer.setCampaign(campaign);
@@ -0,0 +1,8 @@
+package com.tipico.dataseed;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** A campaign written by {@link BulkLoader}, with an id reserved through {@link BulkLoader#nextId}. */
+public record CampaignRow(
+        long id, UUID uuid, String name, LocalDateTime startDate, LocalDateTime endDate, int amount) {}
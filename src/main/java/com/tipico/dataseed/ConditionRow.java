@@ -0,0 +1,9 @@
+package com.tipico.dataseed;
+
+import com.tipico.service.engine.ConditionType;
+
+/**
+ * A condition written by {@link BulkLoader}. The data is bound as the Java type of the condition entity's field, so
+ * it is stored exactly as Hibernate would store it.
+ */
+public record ConditionRow(long campaignId, ConditionType type, Object data) {}
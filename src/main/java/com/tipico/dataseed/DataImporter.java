@@ -0,0 +1,135 @@
+package com.tipico.dataseed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tipico.service.engine.ConditionType;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imports campaigns, conditions and offers from {@code campaigns}, {@code conditions} and {@code offers} files in a
+ * directory. Each file is either newline-delimited JSON ({@code .ndjson}) or comma-separated values with a header line
+ * ({@code .csv}, no quoting), with the fields of {@link ImportedCampaign}, {@link ImportedCondition} and
+ * {@link ImportedOffer}. Conditions and offers refer to campaigns by uuid. Files are streamed line by line; only the
+ * campaign uuid to id mapping is held in memory.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataImporter {
+
+    private final BulkLoader bulkLoader;
+
+    private final ObjectMapper objectMapper;
+
+    public record ImportedCampaign(
+            UUID uuid, String name, LocalDateTime startDate, LocalDateTime endDate, int amount) {}
+
+    public record ImportedCondition(UUID campaignUuid, String type, String data) {}
+
+    public record ImportedOffer(UUID uuid, UUID customerUuid, UUID campaignUuid, LocalDateTime expirationDate) {}
+
+    public void importFrom(Path directory) {
+        var campaignIds = new HashMap<UUID, Long>();
+        var nextCampaignId = new AtomicLong(bulkLoader.nextId(BulkLoader.CAMPAIGN));
+        bulkLoader.insertCampaigns(read(directory, "campaigns", ImportedCampaign.class)
+                .map(campaign -> {
+                    var id = nextCampaignId.getAndIncrement();
+                    campaignIds.put(campaign.uuid(), id);
+                    return new CampaignRow(
+                            id,
+                            campaign.uuid(),
+                            campaign.name(),
+                            campaign.startDate(),
+                            campaign.endDate(),
+                            campaign.amount());
+                }));
+        Function<UUID, Long> campaignId = uuid -> {
+            var id = campaignIds.get(uuid);
+            if (id == null) {
+                throw new IllegalArgumentException("Unknown campaign " + uuid);
+            }
+            return id;
+        };
+        bulkLoader.insertConditions(read(directory, "conditions", ImportedCondition.class)
+                .map(condition -> {
+                    var type = ConditionType.fromDiscriminatorValue(condition.type());
+                    return new ConditionRow(
+                            campaignId.apply(condition.campaignUuid()), type, conditionData(type, condition.data()));
+                }));
+        bulkLoader.insertOffers(read(directory, "offers", ImportedOffer.class)
+                .map(offer -> new OfferRow(
+                        offer.uuid(),
+                        offer.customerUuid(),
+                        campaignId.apply(offer.campaignUuid()),
+                        offer.expirationDate())));
+        bulkLoader.finish();
+    }
+
+    private static Object conditionData(ConditionType type, String data) {
+        return switch (type) {
+            case COUNTRY -> data;
+            case REGISTRATION_DATE -> LocalDateTime.parse(data);
+            case MINIMUM_DEPOSIT_AMOUNT -> Integer.parseInt(data);
+            case IS_FIRST_DEPOSIT -> Boolean.parseBoolean(data);
+        };
+    }
+
+    private <T> Stream<T> read(Path directory, String name, Class<T> type) {
+        var ndjson = directory.resolve(name + ".ndjson");
+        if (Files.exists(ndjson)) {
+            return lines(ndjson).filter(line -> !line.isBlank()).map(line -> parse(line, type));
+        }
+        var csv = directory.resolve(name + ".csv");
+        if (Files.exists(csv)) {
+            return readCsv(csv, type);
+        }
+        return Stream.empty();
+    }
+
+    private <T> Stream<T> readCsv(Path file, Class<T> type) {
+        String[] header;
+        try (var reader = Files.newBufferedReader(file)) {
+            var firstLine = reader.readLine();
+            if (firstLine == null) {
+                return Stream.empty();
+            }
+            header = firstLine.split(",");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines(file).skip(1).filter(line -> !line.isBlank()).map(line -> {
+            var values = line.split(",", -1);
+            var fields = new HashMap<String, String>();
+            for (int column = 0; column < header.length && column < values.length; column++) {
+                fields.put(header[column].strip(), values[column].strip());
+            }
+            return objectMapper.convertValue(fields, type);
+        });
+    }
+
+    private <T> T parse(String line, Class<T> type) {
+        try {
+            return objectMapper.readValue(line, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed line: " + line, e);
+        }
+    }
+
+    private static Stream<String> lines(Path file) {
+        try {
+            return Files.lines(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
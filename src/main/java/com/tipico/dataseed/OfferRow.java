@@ -0,0 +1,7 @@
+package com.tipico.dataseed;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** An offer written by {@link BulkLoader}. */
+public record OfferRow(UUID uuid, UUID customerUuid, long campaignId, LocalDateTime expirationDate) {}
@@ -0,0 +1,107 @@
+package com.tipico.dataseed;
+
+import com.tipico.config.CampaignProperties;
+import com.tipico.identity.UuidGenerator;
+import com.tipico.service.engine.ConditionType;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.stream.LongStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates campaigns, their conditions and offers for load testing. The same settings and clock always produce the
+ * same customers, campaigns and assignments, while campaign and offer uuids come from the configured
+ * {@link UuidGenerator} as they would in production. Offers are generated while they are written, so the number of
+ * customers is not bounded by memory.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SyntheticDataGenerator {
+
+    private static final List<String> COUNTRIES = List.of("POLAND", "GERMANY", "AUSTRIA", "MALTA", "CROATIA");
+
+    private final BulkLoader bulkLoader;
+
+    private final UuidGenerator uuidGenerator;
+
+    private final Clock clock;
+
+    public void generate(CampaignProperties.Seed seed) {
+        var now = LocalDateTime.now(clock).truncatedTo(ChronoUnit.DAYS);
+        var random = new SplittableRandom(seed.randomSeed());
+        var campaignRandom = random.split();
+        var conditionRandom = random.split();
+        var offerRandom = random.split();
+
+        var firstCampaignId = bulkLoader.nextId(BulkLoader.CAMPAIGN);
+        var campaignCount = seed.campaigns();
+        bulkLoader.insertCampaigns(LongStream.range(firstCampaignId, firstCampaignId + campaignCount)
+                .mapToObj(id -> campaign(id, campaignRandom, now)));
+        bulkLoader.insertConditions(LongStream.range(firstCampaignId, firstCampaignId + campaignCount)
+                .boxed()
+                .flatMap(id -> conditions(id, seed.conditionMix(), conditionRandom, now).stream()));
+        if (campaignCount > 0) {
+            bulkLoader.insertOffers(LongStream.range(0, seed.customers())
+                    .mapToObj(customer -> randomUuid(offerRandom))
+                    .flatMap(customerUuid -> LongStream.range(0, seed.offersPerCustomer())
+                            .mapToObj(offer -> {
+                                var campaignId = firstCampaignId + offerRandom.nextInt(campaignCount);
+                                return offer(customerUuid, campaignId, offerRandom, now);
+                            })));
+        }
+        bulkLoader.finish();
+        log.info(
+                "Generated {} campaigns and {} offers for {} customers",
+                campaignCount,
+                campaignCount > 0 ? (long) seed.customers() * seed.offersPerCustomer() : 0,
+                seed.customers());
+    }
+
+    private CampaignRow campaign(long id, SplittableRandom random, LocalDateTime now) {
+        var startDate = now.minusDays(random.nextInt(365));
+        var endDate = startDate.plusDays(30 + random.nextInt(700));
+        return new CampaignRow(
+                id, uuidGenerator.next(), "Campaign " + id, startDate, endDate, 10 + random.nextInt(990));
+    }
+
+    private static List<ConditionRow> conditions(
+            long campaignId, CampaignProperties.ConditionMix mix, SplittableRandom random, LocalDateTime now) {
+        var conditions = new ArrayList<ConditionRow>(4);
+        if (random.nextDouble() < mix.country()) {
+            conditions.add(new ConditionRow(
+                    campaignId, ConditionType.COUNTRY, COUNTRIES.get(random.nextInt(COUNTRIES.size()))));
+        }
+        if (random.nextDouble() < mix.registrationDate()) {
+            conditions.add(new ConditionRow(
+                    campaignId, ConditionType.REGISTRATION_DATE, now.minusDays(random.nextInt(5 * 365))));
+        }
+        if (random.nextDouble() < mix.minimumDepositAmount()) {
+            conditions.add(new ConditionRow(
+                    campaignId, ConditionType.MINIMUM_DEPOSIT_AMOUNT, 10 * (1 + random.nextInt(50))));
+        }
+        if (random.nextDouble() < mix.isFirstDeposit()) {
+            conditions.add(new ConditionRow(campaignId, ConditionType.IS_FIRST_DEPOSIT, true));
+        }
+        return conditions;
+    }
+
+    private OfferRow offer(UUID customerUuid, long campaignId, SplittableRandom random, LocalDateTime now) {
+        return new OfferRow(
+                uuidGenerator.next(), customerUuid, campaignId, now.plusDays(random.nextInt(-30, 365)));
+    }
+
+    /** A version 4 UUID drawn from the seeded generator rather than from {@link UUID#randomUUID()}. */
+    private static UUID randomUuid(SplittableRandom random) {
+        var mostSignificantBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        var leastSignificantBits = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
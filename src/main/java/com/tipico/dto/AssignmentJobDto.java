@@ -0,0 +1,23 @@
+package com.tipico.dto;
+
+import com.tipico.service.AssignmentJob.Status;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of a campaign assignment job. Offers counted in {@code offersInserted} are only visible to eligibility
+ * reads once the job is {@code COMMITTED}.
+ *
+ * @param campaignUuid the created campaign, {@code null} until the job started
+ * @param offersPerSecond average insert rate since the job started
+ */
+public record AssignmentJobDto(
+        UUID id,
+        Status status,
+        UUID campaignUuid,
+        long offersInserted,
+        double offersPerSecond,
+        LocalDateTime submittedAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        String error) {}
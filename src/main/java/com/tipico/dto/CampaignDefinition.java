@@ -0,0 +1,24 @@
+package com.tipico.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A campaign to create together with its offers.
+ *
+ * @param offerExpirationDate when the assigned offers expire, the end of the campaign if not set
+ */
+public record CampaignDefinition(
+        String name,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        int amount,
+        LocalDateTime offerExpirationDate,
+        List<ConditionDefinition> conditions) {
+
+    /**
+     * @param type the condition type as stored in the {@code condition} table, e.g. {@code country}
+     * @param data the condition value in its text form, e.g. {@code POLAND} or {@code 2024-01-01T00:00}
+     */
+    public record ConditionDefinition(String type, String data) {}
+}
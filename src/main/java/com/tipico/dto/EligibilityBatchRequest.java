@@ -0,0 +1,5 @@
+package com.tipico.dto;
+
+import java.util.List;
+
+public record EligibilityBatchRequest(List<EligibilityRequest> requests) {}
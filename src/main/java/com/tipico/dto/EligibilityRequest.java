@@ -0,0 +1,7 @@
+package com.tipico.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record EligibilityRequest(
+        UUID customerUuid, String country, LocalDateTime registrationDate, int depositAmount, boolean isFirstDeposit) {}
@@ -0,0 +1,4 @@
+package com.tipico.dto;
+
+/** Last line of a streamed offer page that may be followed by another page. */
+public record NextCursorDto(String nextCursor) {}
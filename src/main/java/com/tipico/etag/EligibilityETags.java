@@ -0,0 +1,186 @@
+package com.tipico.etag;
+
+import com.tipico.config.CampaignProperties;
+import com.tipico.dto.EligibilityRequest;
+import com.tipico.event.CatalogChangedEvent;
+import com.tipico.event.OfferChangedEvent;
+import com.tipico.service.OfferCandidateCache;
+import com.tipico.service.engine.ConditionEngine;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * ETags of eligible offer responses, letting pollers revalidate without the offers being read.
+ *
+ * <p>A tag covers the request parameters, the {@code Accept} header, a catalog version bumped by every committed write
+ * to campaigns and conditions, and a version of the customer's offers. Customers share their version with the others
+ * of the same stripe, so the counters take fixed memory; a write to one customer's offers only costs the others of the
+ * stripe a full response. The tag also carries the time until which the response cannot change by itself: the next
+ * expiration among the customer's offers or the next start or end of a campaign. Checking a tag thus needs neither
+ * the database nor any per-customer state. Responses are tagged only while the customer's candidate offers are cached,
+ * which the in-memory query mode does with the offer cache enabled; other responses go without a tag.
+ *
+ * <p>Versions are per process and start over on restart; a random epoch makes tags of other processes never match.
+ */
+@Component
+public class EligibilityETags {
+
+    private static final int STRIPES = 1 << 16;
+
+    private static final int HASH_BYTES = 12;
+
+    private final OfferCandidateCache offerCandidateCache;
+
+    private final ConditionEngine conditionEngine;
+
+    private final Clock clock;
+
+    private final boolean enabled;
+
+    private final long bucketSeconds;
+
+    private final long epoch = new SecureRandom().nextLong();
+
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    private final AtomicLongArray customerVersions = new AtomicLongArray(STRIPES);
+
+    public EligibilityETags(
+            OfferCandidateCache offerCandidateCache,
+            ConditionEngine conditionEngine,
+            CampaignProperties properties,
+            Clock clock) {
+        this.offerCandidateCache = offerCandidateCache;
+        this.conditionEngine = conditionEngine;
+        this.clock = clock;
+        this.enabled = properties.conditionalGet().enabled();
+        this.bucketSeconds = Math.max(1, properties.conditionalGet().expiryBucket().toSeconds());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Captures the versions the response is going to be evaluated at. Call it before evaluating. */
+    public Stamp stamp(EligibilityRequest request, String accept) {
+        return new Stamp(
+                request,
+                accept == null ? "" : accept,
+                catalogVersion.get(),
+                customerVersions.get(stripe(request.customerUuid())));
+    }
+
+    /**
+     * Returns the tag of an {@code If-None-Match} header that still describes the response, or {@code null} if none
+     * does and the offers have to be evaluated.
+     */
+    public String unchangedTag(Stamp stamp, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        var now = epochSecond(LocalDateTime.now(clock));
+        for (var entityTag : ifNoneMatch.split(",")) {
+            var tag = unquote(entityTag.strip());
+            var separator = tag.indexOf('-');
+            if (separator < 0) {
+                continue;
+            }
+            long validUntil;
+            try {
+                validUntil = Long.parseLong(tag, 0, separator, 10);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (now < validUntil && tag.substring(separator + 1).equals(hash(stamp, validUntil))) {
+                return "\"" + tag + "\"";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The tag of a response evaluated after {@code stamp} was taken, or {@code null} if the customer's candidate offers
+     * are not cached: reading them again only to tag the response would double the database work it is meant to save.
+     */
+    public String eTag(Stamp stamp) {
+        var firstExpiration = offerCandidateCache.cachedFirstExpiration(stamp.request().customerUuid());
+        if (firstExpiration == null) {
+            return null;
+        }
+        var validUntil = conditionEngine.catalog().activeUntil();
+        if (!firstExpiration.equals(LocalDateTime.MAX) && firstExpiration.plusNanos(1).isBefore(validUntil)) {
+            validUntil = firstExpiration.plusNanos(1);
+        }
+        var bucket = Math.floorDiv(epochSecond(validUntil), bucketSeconds) * bucketSeconds;
+        return "\"" + bucket + "-" + hash(stamp, bucket) + "\"";
+    }
+
+    /**
+     * Runs after the caches dropped the customer's entries on commit, so a response stamped with the new version is
+     * never evaluated from outdated candidates or profiles.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onOfferChanged(OfferChangedEvent event) {
+        customerVersions.incrementAndGet(stripe(event.customerUuid()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        catalogVersion.incrementAndGet();
+    }
+
+    private String hash(Stamp stamp, long validUntil) {
+        var request = stamp.request();
+        var key = String.join(
+                "|",
+                Long.toString(epoch),
+                Long.toString(stamp.catalogVersion()),
+                Long.toString(stamp.customerVersion()),
+                Long.toString(validUntil),
+                request.customerUuid().toString(),
+                request.country(),
+                request.registrationDate().toString(),
+                Integer.toString(request.depositAmount()),
+                Boolean.toString(request.isFirstDeposit()),
+                stamp.accept());
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, HASH_BYTES));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int stripe(UUID customerUuid) {
+        var hash = customerUuid.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static String unquote(String entityTag) {
+        var tag = entityTag.startsWith("W/") ? entityTag.substring(2) : entityTag;
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            return tag.substring(1, tag.length() - 1);
+        }
+        return tag;
+    }
+
+    /** Versions and inputs of one response. */
+    public record Stamp(EligibilityRequest request, String accept, long catalogVersion, long customerVersion) {}
+}
@@ -0,0 +1,4 @@
+package com.tipico.event;
+
+/** Published whenever a campaign or one of its conditions is written. */
+public record CatalogChangedEvent(Long campaignId) {}
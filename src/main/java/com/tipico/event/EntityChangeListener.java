@@ -0,0 +1,37 @@
+package com.tipico.event;
+
+import com.tipico.model.Campaign;
+import com.tipico.model.Offer;
+import com.tipico.model.condition.Condition;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener translating writes to campaigns, conditions and offers into application events. Instantiated
+ * by Hibernate through Spring's bean container, so the publisher is injected.
+ */
+@RequiredArgsConstructor
+public class EntityChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(Object entity) {
+        switch (entity) {
+            case Campaign campaign -> eventPublisher.publishEvent(new CatalogChangedEvent(campaign.getId()));
+            case Condition condition -> eventPublisher.publishEvent(
+                    new CatalogChangedEvent(campaignId(condition.getCampaign())));
+            case Offer offer -> eventPublisher.publishEvent(new OfferChangedEvent(offer.getCustomerUuid()));
+            default -> {}
+        }
+    }
+
+    private static Long campaignId(Campaign campaign) {
+        return campaign == null ? null : campaign.getId();
+    }
+}
@@ -0,0 +1,6 @@
+package com.tipico.event;
+
+import java.util.UUID;
+
+/** Published whenever an offer of the customer is written. */
+public record OfferChangedEvent(UUID customerUuid) {}
@@ -0,0 +1,66 @@
+package com.tipico.identity;
+
+import com.tipico.config.CampaignProperties;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates the identifiers of new campaigns and offers.
+ *
+ * <p>Version 7 UUIDs start with the Unix time in milliseconds followed by a 12-bit counter, so identifiers generated
+ * one after another sort one after another and land on the same index pages. Within a millisecond the counter keeps
+ * them monotonic; once it overflows the identifiers borrow from the next millisecond. The remaining 62 bits are random.
+ */
+@Component
+public class UuidGenerator {
+
+    private static final int COUNTER_BITS = 12;
+
+    private final CampaignProperties.UuidVersion version;
+
+    private final Clock clock;
+
+    /** The last issued timestamp and counter, as {@code millis << COUNTER_BITS | counter}. */
+    private final AtomicLong lastTimestamp = new AtomicLong();
+
+    public UuidGenerator(CampaignProperties properties, Clock clock) {
+        this(properties.identifiers().uuidVersion(), clock);
+    }
+
+    public UuidGenerator(CampaignProperties.UuidVersion version, Clock clock) {
+        this.version = version;
+        this.clock = clock;
+    }
+
+    public UUID next() {
+        return switch (version) {
+            case V4 -> UUID.randomUUID();
+            case V7 -> nextV7();
+        };
+    }
+
+    private UUID nextV7() {
+        var millis = clock.millis();
+        var timestamp = lastTimestamp.updateAndGet(last -> Math.max(last + 1, millis << COUNTER_BITS));
+        var mostSignificantBits = (timestamp >>> COUNTER_BITS) << 16 | 0x7000L | (timestamp & 0xFFFL);
+        var leastSignificantBits = ThreadLocalRandom.current().nextLong() >>> 2 | 0x8000_0000_0000_0000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /** The 16-byte big-endian form stored in {@code BINARY(16)} columns, matching Hibernate's binary UUID mapping. */
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        var buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
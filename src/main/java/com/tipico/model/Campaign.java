@@ -1,13 +1,21 @@
 package com.tipico.model;
 
+import com.tipico.event.EntityChangeListener;
 import com.tipico.model.condition.Condition;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 @Entity
+@EntityListeners(EntityChangeListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 public class Campaign {
@@ -17,6 +25,7 @@ public class Campaign {
     private Long id;
 
     @Column(unique = true)
+    @JdbcTypeCode(SqlTypes.BINARY)
     private UUID uuid;
 
     private String name;
@@ -31,5 +40,6 @@ public class Campaign {
     private List<Offer> offers;
 
     @OneToMany(mappedBy = "campaign", fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Condition> conditions;
 }
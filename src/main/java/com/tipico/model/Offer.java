@@ -1,12 +1,24 @@
 package com.tipico.model;
 
+import com.tipico.event.EntityChangeListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.UUID;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 @Entity
+@EntityListeners(EntityChangeListener.class)
+@Table(
+        indexes = {
+            @Index(
+                    name = "idx_offer_customer_expiration_campaign",
+                    columnList = "customer_uuid, expiration_date, campaign_id"),
+            @Index(name = "idx_offer_campaign", columnList = "campaign_id"),
+            @Index(name = "idx_offer_customer_id", columnList = "customer_uuid, id")
+        })
 @Getter
 @Setter
 public class Offer {
@@ -15,8 +27,10 @@ public class Offer {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @JdbcTypeCode(SqlTypes.BINARY)
     private UUID uuid;
 
+    @JdbcTypeCode(SqlTypes.BINARY)
     private UUID customerUuid;
 
     @ManyToOne(fetch = FetchType.EAGER)
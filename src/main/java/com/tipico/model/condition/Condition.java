@@ -1,12 +1,19 @@
 package com.tipico.model.condition;
 
+import com.tipico.event.EntityChangeListener;
 import com.tipico.model.Campaign;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Proxy;
 
 @Entity
+@EntityListeners(EntityChangeListener.class)
+@Table(indexes = @Index(name = "idx_condition_campaign_type", columnList = "campaign_id, type"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "type")
 @Proxy(lazy = false)
@@ -0,0 +1,83 @@
+package com.tipico.monitoring;
+
+import com.tipico.config.CampaignProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, e.g. while blocking inside a {@code synchronized}
+ * block of the JDBC driver or of a logging appender. Pinned events are streamed from JFR, counted and logged with the
+ * frame that caused the pinning.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final CampaignProperties properties;
+
+    private final Counter pinnedCounter;
+
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(CampaignProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier longer than the reporting threshold")
+                .register(registry);
+    }
+
+    @Override
+    public synchronized void start() {
+        recordingStream = new RecordingStream();
+        recordingStream
+                .enable(PINNED_EVENT)
+                .withThreshold(properties.virtualThreads().pinningThreshold())
+                .withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        log.info(
+                "Reporting virtual threads pinned for longer than {}",
+                properties.virtualThreads().pinningThreshold());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        log.warn(
+                "Virtual thread {} pinned for {} at {}",
+                event.getThread() == null ? "unknown" : event.getThread().getJavaName(),
+                event.getDuration(),
+                topFrame(event));
+    }
+
+    private static String topFrame(RecordedEvent event) {
+        var stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown frame";
+        }
+        var method = stackTrace.getFrames().getFirst().getMethod();
+        return method.getType().getName() + "." + method.getName();
+    }
+}
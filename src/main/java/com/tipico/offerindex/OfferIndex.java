@@ -0,0 +1,339 @@
+package com.tipico.offerindex;
+
+import com.tipico.config.CampaignProperties;
+import com.tipico.event.CatalogChangedEvent;
+import com.tipico.event.OfferChangedEvent;
+import com.tipico.repository.projection.OfferCandidate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Serves candidate offers from an {@link OfferIndexFile} instead of the database, so no in-memory view of all offers
+ * has to be built at startup.
+ *
+ * <p>The file is rebuilt from the {@code offer} table every {@code campaign.offer-index.rebuild-interval} in the
+ * background, written next to the current one and atomically moved over it. A restarted instance maps the existing
+ * file in a few milliseconds, unless it is older than {@code max-age} or offers or campaigns were inserted after it
+ * was built.
+ *
+ * <p>Customers whose offers are written after a build are read from the database until the next build. The whole
+ * index is set aside, and rebuilt once the write is committed, after bulk loads, after a campaign is created (its
+ * offers may be inserted without per-customer events), or once more than {@code max-changed-customers} customers
+ * changed. Changes are applied when written and again after the commit, as a build may read the offers in between.
+ * Writes of other instances are not seen, as for the other caches; they are picked up by the next build.
+ */
+@Slf4j
+@Component
+public class OfferIndex implements SmartLifecycle {
+
+    private static final String FILE_NAME = "offers.idx";
+
+    private static final String SELECT_OFFERS = """
+            select customer_uuid, uuid, campaign_id, expiration_date
+            from offer
+            where customer_uuid is not null
+              and expiration_date >= ?
+            order by customer_uuid
+            """;
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CampaignProperties.OfferIndex properties;
+
+    private final Clock clock;
+
+    private final Counter hits;
+
+    private final Counter fallbacks;
+
+    private final Timer buildTimer;
+
+    private final AtomicReference<Generation> current = new AtomicReference<>();
+
+    /** The generation being built, collecting the changes made while its offers are read. */
+    private volatile Generation building;
+
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    private ScheduledExecutorService scheduler;
+
+    public OfferIndex(
+            JdbcTemplate jdbcTemplate, CampaignProperties properties, Clock clock, MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties.offerIndex();
+        this.clock = clock;
+        this.hits = Counter.builder("offer.index.lookups")
+                .description("Candidate lookups by whether the offer index could answer them")
+                .tag("outcome", "hit")
+                .register(registry);
+        this.fallbacks = Counter.builder("offer.index.lookups")
+                .description("Candidate lookups by whether the offer index could answer them")
+                .tag("outcome", "fallback")
+                .register(registry);
+        this.buildTimer = Timer.builder("offer.index.build.duration")
+                .description("Duration of an offer index build")
+                .register(registry);
+    }
+
+    /**
+     * Returns the customer's offers unexpired at {@code now} from the index, or {@code null} if they have to be read
+     * from the database.
+     */
+    public List<OfferCandidate> candidates(UUID customerUuid, LocalDateTime now) {
+        var generation = current.get();
+        if (generation == null || !generation.covers(customerUuid)) {
+            fallbacks.increment();
+            return null;
+        }
+        hits.increment();
+        return generation.file.candidates(customerUuid, now);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("offer-index").daemon().factory());
+        var interval = properties.rebuildInterval().toMillis();
+        var initialDelay = openExisting() ? interval : 0;
+        scheduler.scheduleWithFixedDelay(this::rebuildSafely, initialDelay, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /** Builds a new index from the offer table and makes it the current one. */
+    public void rebuild() throws IOException {
+        rebuildRequested.set(false);
+        var started = System.nanoTime();
+        var now = LocalDateTime.now(clock);
+        var maxCampaignId = maxId("campaign");
+        var maxOfferId = maxId("offer");
+        var next = new Generation(maxCampaignId, properties.maxChangedCustomers());
+        building = next;
+        try {
+            Files.createDirectories(properties.directory());
+            var file = properties.directory().resolve(FILE_NAME);
+            var written = properties.directory().resolve(FILE_NAME + ".tmp");
+            try (var writer = OfferIndexFile.create(written, now, maxOfferId, maxCampaignId)) {
+                jdbcTemplate.query(
+                        connection -> {
+                            var statement = connection.prepareStatement(SELECT_OFFERS);
+                            statement.setFetchSize(FETCH_SIZE);
+                            statement.setObject(1, now);
+                            return statement;
+                        },
+                        (RowCallbackHandler) row -> add(writer, row));
+                writer.finish();
+            }
+            Files.move(written, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            next.file = OfferIndexFile.open(file);
+            buildTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            if (next.isStale()) {
+                log.info("Offer index built at {} is outdated already, keeping the previous one", now);
+                return;
+            }
+            // Swapped while the generation still receives changes as the one being built, so none is missed
+            current.set(next);
+        } finally {
+            building = null;
+        }
+        log.info(
+                "Built offer index of {} offers of {} customers in {} ms",
+                next.file.offers(),
+                next.file.customers(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /** Marks the customer as changed from the write on, so the index stops answering for it before the commit. */
+    @EventListener
+    public void onOfferChanged(OfferChangedEvent event) {
+        forEachGeneration(generation -> generation.offerChanged(event.customerUuid()));
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        forEachGeneration(generation -> generation.catalogChanged(event.campaignId()));
+    }
+
+    /**
+     * Marks the customer again once the write is visible, as a build that started after the write but read the
+     * offers before the commit has not seen it, and rebuilds if the generations became unusable.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOfferCommitted(OfferChangedEvent event) {
+        if (forEachGeneration(generation -> generation.offerChanged(event.customerUuid()))) {
+            requestRebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogCommitted(CatalogChangedEvent event) {
+        if (forEachGeneration(generation -> generation.catalogChanged(event.campaignId()))) {
+            requestRebuild();
+        }
+    }
+
+    private boolean openExisting() {
+        var file = properties.directory().resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return false;
+        }
+        var started = System.nanoTime();
+        try {
+            var opened = OfferIndexFile.open(file);
+            if (opened.builtAt().plus(properties.maxAge()).isBefore(LocalDateTime.now(clock))) {
+                log.info("Offer index built at {} is too old, rebuilding it", opened.builtAt());
+                return false;
+            }
+            if (maxId("offer") > opened.maxOfferId() || maxId("campaign") > opened.maxCampaignId()) {
+                log.info("Offers were added since the offer index was built at {}, rebuilding it", opened.builtAt());
+                return false;
+            }
+            var generation = new Generation(opened.maxCampaignId(), properties.maxChangedCustomers());
+            generation.file = opened;
+            current.set(generation);
+            log.info(
+                    "Opened offer index of {} offers of {} customers built at {} in {} ms",
+                    opened.offers(),
+                    opened.customers(),
+                    opened.builtAt(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not open offer index {}, rebuilding it", file, e);
+            return false;
+        }
+    }
+
+    private long maxId(String table) {
+        var maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        return maxId == null ? 0 : maxId;
+    }
+
+    private static void add(OfferIndexFile.Writer writer, ResultSet row) {
+        try {
+            writer.add(
+                    row.getBytes(1),
+                    row.getBytes(2),
+                    row.getObject(3, Long.class),
+                    row.getObject(4, LocalDateTime.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Applies the change to the current generation and the one being built; returns whether either is unusable. */
+    private boolean forEachGeneration(Predicate<Generation> change) {
+        var stale = false;
+        // The generation being built is read first: once it is cleared, it has already been made the current one
+        for (var generation : new Generation[] {building, current.get()}) {
+            if (generation != null && change.test(generation)) {
+                stale = true;
+            }
+        }
+        return stale;
+    }
+
+    private void requestRebuild() {
+        var scheduler = this.scheduler;
+        if (scheduler != null && rebuildRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::rebuildSafely);
+        }
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (IOException | RuntimeException e) {
+            log.error("Building the offer index failed", e);
+        }
+    }
+
+    /** An index file together with the changes made since its offers were read. */
+    private static final class Generation {
+
+        private final long maxCampaignId;
+
+        private final int maxChangedCustomers;
+
+        private final Set<UUID> changedCustomers = ConcurrentHashMap.newKeySet();
+
+        private volatile OfferIndexFile file;
+
+        private volatile boolean stale;
+
+        private Generation(long maxCampaignId, int maxChangedCustomers) {
+            this.maxCampaignId = maxCampaignId;
+            this.maxChangedCustomers = maxChangedCustomers;
+        }
+
+        private boolean covers(UUID customerUuid) {
+            return file != null && !stale && !changedCustomers.contains(customerUuid);
+        }
+
+        private boolean isStale() {
+            return stale;
+        }
+
+        /** Returns whether the generation is unusable after the change. */
+        private boolean offerChanged(UUID customerUuid) {
+            if (!stale) {
+                changedCustomers.add(customerUuid);
+                stale = changedCustomers.size() > maxChangedCustomers;
+            }
+            return stale;
+        }
+
+        /** Returns whether the generation is unusable after the change. */
+        private boolean catalogChanged(Long campaignId) {
+            // Bulk loads and new campaigns insert offers without per-customer events
+            if (campaignId == null || campaignId > maxCampaignId) {
+                stale = true;
+            }
+            return stale;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.tipico.offerindex;
+
+import com.tipico.repository.projection.OfferCandidate;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Memory-mapped file holding the unexpired offers of all customers, keyed by customer uuid.
+ *
+ * <p>Layout: a {@value #HEADER_BYTES}-byte header, the offers grouped by customer as fixed-width records
+ * {@code [offer uuid msb][offer uuid lsb][campaign id][expiration]}, then an open-addressing table with linear probing
+ * of slots {@code [customer uuid msb][customer uuid lsb][first offer][offer count]}, an offer count of 0 marking an
+ * empty slot. All values are big-endian longs; expirations are microseconds since the epoch of the local date-time.
+ * The table is at most half full.
+ *
+ * <p>Opening maps the file without reading it, so it costs the same for any size; lookups touch one or a few table
+ * slots and the customer's records, which the operating system pages in on demand.
+ */
+public final class OfferIndexFile {
+
+    static final int MAGIC = 0x4f494458;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 64;
+
+    static final int RECORD_BYTES = 32;
+
+    static final int SLOT_BYTES = 32;
+
+    private static final int CHUNK_SHIFT = 30;
+
+    private static final long NO_CAMPAIGN = 0;
+
+    private final MappedByteBuffer[] chunks;
+
+    private final long offers;
+
+    private final long customers;
+
+    private final long tableOffset;
+
+    private final long mask;
+
+    private final LocalDateTime builtAt;
+
+    private final long maxOfferId;
+
+    private final long maxCampaignId;
+
+    private OfferIndexFile(MappedByteBuffer[] chunks) {
+        this.chunks = chunks;
+        var header = chunks[0];
+        if (header.capacity() < HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not an offer index of version " + VERSION);
+        }
+        this.offers = header.getLong(8);
+        this.customers = header.getLong(16);
+        var capacity = header.getLong(24);
+        this.builtAt = fromMicros(header.getLong(32));
+        this.maxOfferId = header.getLong(40);
+        this.maxCampaignId = header.getLong(48);
+        this.tableOffset = HEADER_BYTES + offers * RECORD_BYTES;
+        this.mask = capacity - 1;
+        if (Long.bitCount(capacity) != 1 || length(chunks) != tableOffset + capacity * SLOT_BYTES) {
+            throw new IllegalStateException("Truncated offer index");
+        }
+    }
+
+    /** Maps an index file written by {@link Writer}. */
+    public static OfferIndexFile open(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new OfferIndexFile(map(channel, FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /** Starts writing an index file; offers have to be added grouped by customer. */
+    public static Writer create(Path file, LocalDateTime builtAt, long maxOfferId, long maxCampaignId)
+            throws IOException {
+        return new Writer(file, builtAt, maxOfferId, maxCampaignId);
+    }
+
+    /** Returns the offers of the customer unexpired at {@code now}, an empty list if the customer has none. */
+    public List<OfferCandidate> candidates(UUID customerUuid, LocalDateTime now) {
+        var msb = customerUuid.getMostSignificantBits();
+        var lsb = customerUuid.getLeastSignificantBits();
+        for (var slot = hash(msb, lsb) & mask; ; slot = (slot + 1) & mask) {
+            var position = tableOffset + slot * SLOT_BYTES;
+            var count = getLong(position + 24);
+            if (count == 0) {
+                return List.of();
+            }
+            if (getLong(position) == msb && getLong(position + 8) == lsb) {
+                return candidates(customerUuid, getLong(position + 16), count, now);
+            }
+        }
+    }
+
+    public long offers() {
+        return offers;
+    }
+
+    public long customers() {
+        return customers;
+    }
+
+    /** Time the offers were read at; offers expired by then are not in the index. */
+    public LocalDateTime builtAt() {
+        return builtAt;
+    }
+
+    /** Highest offer id before the offers were read. Offers with higher ids may be missing. */
+    public long maxOfferId() {
+        return maxOfferId;
+    }
+
+    /** Highest campaign id before the offers were read. Offers of campaigns with higher ids may be missing. */
+    public long maxCampaignId() {
+        return maxCampaignId;
+    }
+
+    private List<OfferCandidate> candidates(UUID customerUuid, long first, long count, LocalDateTime now) {
+        var candidates = new ArrayList<OfferCandidate>((int) count);
+        for (var record = first; record < first + count; record++) {
+            var position = HEADER_BYTES + record * RECORD_BYTES;
+            var expirationDate = fromMicros(getLong(position + 24));
+            if (expirationDate.isBefore(now)) {
+                continue;
+            }
+            var campaignId = getLong(position + 16);
+            candidates.add(new OfferCandidate(
+                    customerUuid,
+                    new UUID(getLong(position), getLong(position + 8)),
+                    campaignId == NO_CAMPAIGN ? null : campaignId,
+                    expirationDate));
+        }
+        return candidates;
+    }
+
+    private long getLong(long position) {
+        return chunks[(int) (position >>> CHUNK_SHIFT)].getLong((int) (position & ((1L << CHUNK_SHIFT) - 1)));
+    }
+
+    /** Maps a region in chunks of 1 GiB, the most a buffer can address. Longs at aligned positions never straddle. */
+    private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long position, long size)
+            throws IOException {
+        var chunks = new MappedByteBuffer[(int) Math.max(1, (size + (1L << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < chunks.length; i++) {
+            var offset = (long) i << CHUNK_SHIFT;
+            chunks[i] = channel.map(mode, position + offset, Math.min(1L << CHUNK_SHIFT, size - offset));
+        }
+        return chunks;
+    }
+
+    private static long length(MappedByteBuffer[] chunks) {
+        long length = 0;
+        for (var chunk : chunks) {
+            length += chunk.capacity();
+        }
+        return length;
+    }
+
+    /** The finalizer of MurmurHash3 over both halves; random (v4) and time-ordered (v7) uuids spread alike. */
+    private static long hash(long msb, long lsb) {
+        var hash = msb * 31 + lsb;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), 1_000_000L), time.getNano() / 1000);
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Writes the records while offers are added and keeps the customers in a side file, so the table is sized to the
+     * exact customer count once all offers are known. Nothing is held in memory per customer or offer.
+     */
+    public static final class Writer implements AutoCloseable {
+
+        private static final int BUFFER_BYTES = 1 << 20;
+
+        private final Path file;
+
+        private final Path customersFile;
+
+        private final FileChannel channel;
+
+        private final DataOutputStream customerOutput;
+
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+        private final LocalDateTime builtAt;
+
+        private final long maxOfferId;
+
+        private final long maxCampaignId;
+
+        private long offers;
+
+        private long customers;
+
+        private boolean hasCustomer;
+
+        private long customerMsb;
+
+        private long customerLsb;
+
+        private long customerFirst;
+
+        private Writer(Path file, LocalDateTime builtAt, long maxOfferId, long maxCampaignId) throws IOException {
+            this.file = file;
+            this.customersFile = file.resolveSibling(file.getFileName() + ".customers");
+            this.builtAt = builtAt;
+            this.maxOfferId = maxOfferId;
+            this.maxCampaignId = maxCampaignId;
+            this.channel = FileChannel.open(
+                    file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.customerOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(customersFile)));
+            channel.position(HEADER_BYTES);
+        }
+
+        /** Adds an offer; uuids are 16 bytes, big-endian, as stored in the database. */
+        public void add(byte[] customerUuid, byte[] offerUuid, Long campaignId, LocalDateTime expirationDate)
+                throws IOException {
+            var msb = ByteBuffer.wrap(customerUuid).getLong(0);
+            var lsb = ByteBuffer.wrap(customerUuid).getLong(8);
+            if (!hasCustomer || msb != customerMsb || lsb != customerLsb) {
+                endCustomer();
+                hasCustomer = true;
+                customerMsb = msb;
+                customerLsb = lsb;
+                customerFirst = offers;
+            }
+            if (buffer.remaining() < RECORD_BYTES) {
+                flush();
+            }
+            buffer.put(offerUuid, 0, 16);
+            buffer.putLong(campaignId == null ? NO_CAMPAIGN : campaignId);
+            buffer.putLong(toMicros(expirationDate));
+            offers++;
+        }
+
+        /** Builds the table and writes the header; the file is complete and on disk once this returns. */
+        public void finish() throws IOException {
+            endCustomer();
+            flush();
+            customerOutput.close();
+            var capacity = Math.max(16, Long.highestOneBit(Math.max(1, customers)) << 2);
+            var tableOffset = HEADER_BYTES + offers * RECORD_BYTES;
+            var table = map(channel, FileChannel.MapMode.READ_WRITE, tableOffset, capacity * SLOT_BYTES);
+            try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(customersFile)))) {
+                for (long i = 0; i < customers; i++) {
+                    insert(table, capacity - 1, input.readLong(), input.readLong(), input.readLong(), input.readLong());
+                }
+            }
+            for (var chunk : table) {
+                chunk.force();
+            }
+            var header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(offers)
+                    .putLong(customers)
+                    .putLong(capacity)
+                    .putLong(toMicros(builtAt))
+                    .putLong(maxOfferId)
+                    .putLong(maxCampaignId)
+                    .flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                customerOutput.close();
+            } finally {
+                Files.deleteIfExists(customersFile);
+            }
+        }
+
+        private void endCustomer() throws IOException {
+            if (!hasCustomer) {
+                return;
+            }
+            customerOutput.writeLong(customerMsb);
+            customerOutput.writeLong(customerLsb);
+            customerOutput.writeLong(customerFirst);
+            customerOutput.writeLong(offers - customerFirst);
+            customers++;
+            hasCustomer = false;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private static void insert(MappedByteBuffer[] table, long mask, long msb, long lsb, long first, long count) {
+            for (var slot = hash(msb, lsb) & mask; ; slot = (slot + 1) & mask) {
+                var position = slot * SLOT_BYTES;
+                var chunk = table[(int) (position >>> CHUNK_SHIFT)];
+                var offset = (int) (position & ((1L << CHUNK_SHIFT) - 1));
+                if (chunk.getLong(offset + 24) == 0) {
+                    chunk.putLong(offset, msb)
+                            .putLong(offset + 8, lsb)
+                            .putLong(offset + 16, first)
+                            .putLong(offset + 24, count);
+                    return;
+                }
+                if (chunk.getLong(offset) == msb && chunk.getLong(offset + 8) == lsb) {
+                    throw new IllegalStateException("Offers of customer " + new UUID(msb, lsb) + " are not grouped");
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,34 @@
 package com.tipico.repository;
 
 import com.tipico.model.Campaign;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface CampaignRepository extends JpaRepository<Campaign, Long> {}
+public interface CampaignRepository extends JpaRepository<Campaign, Long> {
+
+    String CATALOG_QUERY_REGION = "campaign-catalog";
+
+    /**
+     * Cached in the {@value #CATALOG_QUERY_REGION} query region until campaigns or conditions are written through
+     * Hibernate; callers pass a coarse {@code now} (e.g. the start of the day) so repeated reads share a result.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CATALOG_QUERY_REGION)
+    })
+    @Query("select distinct c from Campaign c left join fetch c.conditions where c.endDate >= :now")
+    List<Campaign> findAllNotEndedWithConditions(@Param("now") LocalDateTime now);
+
+    /** All campaigns, ended ones included, bypassing the query cache. */
+    @Query("select distinct c from Campaign c left join fetch c.conditions")
+    List<Campaign> findAllWithConditions();
+
+    @Query("select max(c.id) from Campaign c")
+    Long findLatestId();
+}
@@ -1,20 +1,103 @@
 package com.tipico.repository;
 
 import com.tipico.model.Offer;
+import com.tipico.repository.projection.OfferCandidate;
+import com.tipico.repository.projection.OfferCursorCandidate;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OfferRepository extends JpaRepository<Offer, Long> {
-    List<Offer>
-            findByCustomerUuidAndExpirationDateGreaterThanEqualAndCampaignStartDateLessThanEqualAndCampaignEndDateGreaterThanEqual(
-                    UUID customerUuid, LocalDateTime date1, LocalDateTime date2, LocalDateTime date3);
 
-    default List<Offer> findUnexpiredOffersByCustomerUuid(UUID customerUuid, LocalDateTime date) {
-        return findByCustomerUuidAndExpirationDateGreaterThanEqualAndCampaignStartDateLessThanEqualAndCampaignEndDateGreaterThanEqual(
-                customerUuid, date, date, date);
-    }
+    /**
+     * Returns the unexpired offers of the customer. Whether their campaign is running is decided by the campaign
+     * catalog, so the result stays usable until its earliest expiration; callers filter with
+     * {@link OfferCandidate#isUnexpired}.
+     */
+    @Query("""
+            select new com.tipico.repository.projection.OfferCandidate(
+                o.customerUuid, o.uuid, o.campaign.id, o.expirationDate)
+            from Offer o
+            where o.customerUuid = :customerUuid
+              and o.expirationDate >= :now
+            """)
+    List<OfferCandidate> findCandidatesByCustomerUuid(
+            @Param("customerUuid") UUID customerUuid, @Param("now") LocalDateTime now);
+
+    @Query("""
+            select new com.tipico.repository.projection.OfferCandidate(
+                o.customerUuid, o.uuid, o.campaign.id, o.expirationDate)
+            from Offer o
+            where o.customerUuid in :customerUuids
+              and o.expirationDate >= :now
+            """)
+    List<OfferCandidate> findCandidatesByCustomerUuidIn(
+            @Param("customerUuids") Collection<UUID> customerUuids, @Param("now") LocalDateTime now);
+
+    /**
+     * Streams the unexpired offers of the customer with an id above {@code afterOfferId}, in id order. Rows are
+     * fetched in chunks from an open cursor, so the stream must be consumed and closed inside a transaction. H2 keeps
+     * the cursor open on the table only with {@code LAZY_QUERY_EXECUTION=1}; otherwise it reads the whole result first.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.tipico.repository.projection.OfferCursorCandidate(
+                o.id, o.uuid, o.campaign.id, o.expirationDate)
+            from Offer o
+            where o.customerUuid = :customerUuid
+              and o.expirationDate >= :now
+              and o.id > :afterOfferId
+            order by o.customerUuid, o.id
+            """)
+    Stream<OfferCursorCandidate> streamCandidatesByCustomerUuid(
+            @Param("customerUuid") UUID customerUuid,
+            @Param("now") LocalDateTime now,
+            @Param("afterOfferId") long afterOfferId);
+
+    /**
+     * Returns the offers of the customer whose campaign is running and has no condition failing for the given
+     * parameters. Condition data shares one column across condition types, so it is cast per discriminator value;
+     * a condition without data counts as failing, as it does in the in-memory evaluation. Identifiers are stored as
+     * {@code BINARY(16)}, so the customer is compared in that form and offer uuids are cast back.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT CAST(o.uuid AS UUID)
+            FROM offer o
+            JOIN campaign c ON c.id = o.campaign_id
+            WHERE o.customer_uuid = CAST(:customerUuid AS BINARY(16))
+              AND o.expiration_date >= :now
+              AND c.start_date <= :now
+              AND c.end_date >= :now
+              AND NOT EXISTS (
+                  SELECT 1
+                  FROM condition cd
+                  WHERE cd.campaign_id = c.id
+                    AND COALESCE(CASE cd.type
+                        WHEN 'country' THEN UPPER(cd.data) <> UPPER(:country)
+                        WHEN 'registrationDate' THEN CAST(cd.data AS TIMESTAMP) > CAST(:registrationDate AS TIMESTAMP)
+                        WHEN 'minimumDepositAmount' THEN CAST(cd.data AS INTEGER) > CAST(:depositAmount AS INTEGER)
+                        WHEN 'isFirstDeposit' THEN NOT (CAST(cd.data AS BOOLEAN) AND CAST(:isFirstDeposit AS BOOLEAN))
+                        ELSE FALSE
+                    END, TRUE))
+            """)
+    List<UUID> findEligibleOfferUuids(
+            @Param("customerUuid") UUID customerUuid,
+            @Param("now") LocalDateTime now,
+            @Param("country") String country,
+            @Param("registrationDate") LocalDateTime registrationDate,
+            @Param("depositAmount") int depositAmount,
+            @Param("isFirstDeposit") boolean isFirstDeposit);
 }
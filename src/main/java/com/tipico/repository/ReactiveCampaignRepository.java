@@ -0,0 +1,103 @@
+package com.tipico.repository;
+
+import com.tipico.model.Campaign;
+import com.tipico.model.condition.*;
+import io.r2dbc.spi.Readable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the {@link CampaignRepository} reads, used by the {@code reactive} profile. Campaigns
+ * are returned detached, with their conditions set, for compiling the catalog only.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveCampaignRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Returns the campaigns ending at or after {@code now} with their conditions, see
+     * {@link CampaignRepository#findAllNotEndedWithConditions}. Condition data shares one column across condition
+     * types, so it is cast per discriminator value.
+     */
+    public Flux<Campaign> findAllNotEndedWithConditions(LocalDateTime now) {
+        return databaseClient
+                .sql("""
+                        SELECT c.id, c.start_date, c.end_date, cd.type,
+                               CASE WHEN cd.type = 'country' THEN cd.data END AS country,
+                               CASE WHEN cd.type = 'registrationDate' THEN CAST(cd.data AS TIMESTAMP)
+                                   END AS registration_date,
+                               CASE WHEN cd.type = 'minimumDepositAmount' THEN CAST(cd.data AS INTEGER)
+                                   END AS minimum_deposit_amount,
+                               CASE WHEN cd.type = 'isFirstDeposit' THEN CAST(cd.data AS BOOLEAN)
+                                   END AS is_first_deposit
+                        FROM campaign c
+                        LEFT JOIN condition cd ON cd.campaign_id = c.id
+                        WHERE c.end_date >= :now
+                        ORDER BY c.id
+                        """)
+                .bind("now", now)
+                .map(row -> new CampaignRow(
+                        row.get("id", Long.class),
+                        row.get("start_date", LocalDateTime.class),
+                        row.get("end_date", LocalDateTime.class),
+                        condition(row)))
+                .all()
+                .bufferUntilChanged(CampaignRow::id)
+                .map(ReactiveCampaignRepository::campaign);
+    }
+
+    /** Returns the highest campaign id, or 0 when there are no campaigns. */
+    public Mono<Long> findLatestId() {
+        return databaseClient
+                .sql("SELECT COALESCE(MAX(id), 0) AS id FROM campaign")
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    private static Condition condition(Readable row) {
+        var type = row.get("type", String.class);
+        if (type == null) {
+            return null;
+        }
+        // Conditions without data fail, as they do in the in-memory and database evaluation
+        return switch (type) {
+            case "country" -> new CountryCondition(row.get("country", String.class));
+            case "registrationDate" -> new RegistrationDateCondition(
+                    row.get("registration_date", LocalDateTime.class));
+            case "minimumDepositAmount" -> new MinimumDepositAmountCondition(
+                    Objects.requireNonNullElse(row.get("minimum_deposit_amount", Integer.class), Integer.MAX_VALUE));
+            case "isFirstDeposit" -> new IsFirstDepositCondition(
+                    Boolean.TRUE.equals(row.get("is_first_deposit", Boolean.class)));
+            default -> throw new IllegalStateException("Unknown condition type " + type);
+        };
+    }
+
+    private static Campaign campaign(List<CampaignRow> rows) {
+        var first = rows.getFirst();
+        var campaign = new Campaign();
+        campaign.setId(first.id());
+        campaign.setStartDate(first.startDate());
+        campaign.setEndDate(first.endDate());
+        var conditions = new ArrayList<Condition>(rows.size());
+        for (var row : rows) {
+            if (row.condition() != null) {
+                conditions.add(row.condition());
+            }
+        }
+        campaign.setConditions(conditions);
+        return campaign;
+    }
+
+    private record CampaignRow(Long id, LocalDateTime startDate, LocalDateTime endDate, Condition condition) {}
+}
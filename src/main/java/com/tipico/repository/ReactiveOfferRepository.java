@@ -0,0 +1,41 @@
+package com.tipico.repository;
+
+import com.tipico.repository.projection.OfferCandidate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of the {@link OfferRepository} reads, used by the {@code reactive} profile. Rows are read
+ * from the connection as downstream requests them, so a slow client does not make the offers pile up in memory.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveOfferRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /** Returns the unexpired offers of the customer, see {@link OfferRepository#findCandidatesByCustomerUuid}. */
+    public Flux<OfferCandidate> findCandidatesByCustomerUuid(UUID customerUuid, LocalDateTime now) {
+        return databaseClient
+                .sql("""
+                        SELECT CAST(o.uuid AS UUID) AS uuid, o.campaign_id, o.expiration_date
+                        FROM offer o
+                        WHERE o.customer_uuid = CAST(:customerUuid AS BINARY(16))
+                          AND o.expiration_date >= :now
+                        """)
+                .bind("customerUuid", customerUuid)
+                .bind("now", now)
+                .map(row -> new OfferCandidate(
+                        customerUuid,
+                        row.get("uuid", UUID.class),
+                        row.get("campaign_id", Long.class),
+                        row.get("expiration_date", LocalDateTime.class)))
+                .all();
+    }
+}
@@ -0,0 +1,12 @@
+package com.tipico.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** Flat read model of an offer that may be eligible, without hydrating the {@code Offer} entity graph. */
+public record OfferCandidate(UUID customerUuid, UUID offerUuid, Long campaignId, LocalDateTime expirationDate) {
+
+    public boolean isUnexpired(LocalDateTime now) {
+        return !expirationDate.isBefore(now);
+    }
+}
@@ -0,0 +1,7 @@
+package com.tipico.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** An {@link OfferCandidate} read in offer id order, carrying the id a paging cursor resumes after. */
+public record OfferCursorCandidate(Long offerId, UUID offerUuid, Long campaignId, LocalDateTime expirationDate) {}
@@ -0,0 +1,133 @@
+package com.tipico.service;
+
+import com.tipico.dto.AssignmentJobDto;
+import com.tipico.dto.CampaignDefinition;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** State of one campaign assignment submitted to {@link AssignmentService}. Updated by the job's worker thread. */
+public class AssignmentJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMMITTED,
+        CANCELLED,
+        FAILED;
+
+        public boolean isFinished() {
+            return this == COMMITTED || this == CANCELLED || this == FAILED;
+        }
+    }
+
+    private final UUID id;
+
+    private final CampaignDefinition definition;
+
+    private final Path customers;
+
+    private final LocalDateTime submittedAt;
+
+    private final AtomicLong offersInserted = new AtomicLong();
+
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    private volatile Status status = Status.QUEUED;
+
+    private volatile boolean cancelRequested;
+
+    private volatile UUID campaignUuid;
+
+    private volatile long startedNanos;
+
+    private volatile long finishedNanos;
+
+    private volatile LocalDateTime startedAt;
+
+    private volatile LocalDateTime finishedAt;
+
+    private volatile String error;
+
+    AssignmentJob(UUID id, CampaignDefinition definition, Path customers, LocalDateTime submittedAt) {
+        this.id = id;
+        this.definition = definition;
+        this.customers = customers;
+        this.submittedAt = submittedAt;
+    }
+
+    public UUID id() {
+        return id;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    public AssignmentJobDto toDto() {
+        var started = startedNanos;
+        var elapsed = started == 0 ? 0 : (status.isFinished() ? finishedNanos : System.nanoTime()) - started;
+        var inserted = offersInserted.get();
+        var offersPerSecond = elapsed <= 0 ? 0 : inserted * 1e9 / elapsed;
+        return new AssignmentJobDto(
+                id, status, campaignUuid, inserted, offersPerSecond, submittedAt, startedAt, finishedAt, error);
+    }
+
+    CampaignDefinition definition() {
+        return definition;
+    }
+
+    Path customers() {
+        return customers;
+    }
+
+    LocalDateTime submittedAt() {
+        return submittedAt;
+    }
+
+    /** Asks the job to stop at its next batch boundary; everything it inserted so far is rolled back. */
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void started(UUID campaignUuid, LocalDateTime startedAt) {
+        this.campaignUuid = campaignUuid;
+        this.startedAt = startedAt;
+        this.startedNanos = System.nanoTime();
+        this.status = Status.RUNNING;
+    }
+
+    void inserted(int count) {
+        offersInserted.addAndGet(count);
+    }
+
+    void finished(Status status, String error, LocalDateTime finishedAt) {
+        this.finishedNanos = System.nanoTime();
+        this.finishedAt = finishedAt;
+        this.error = error;
+        this.status = status;
+        completion.complete(null);
+    }
+
+    /** Waits until the job has finished; returns whether it did within the timeout. */
+    boolean awaitCompletion(Duration timeout) throws InterruptedException {
+        try {
+            completion.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
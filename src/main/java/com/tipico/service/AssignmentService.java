@@ -0,0 +1,326 @@
+package com.tipico.service;
+
+import com.tipico.config.CampaignProperties;
+import com.tipico.dto.CampaignDefinition;
+import com.tipico.dto.CampaignDefinition.ConditionDefinition;
+import com.tipico.identity.UuidGenerator;
+import com.tipico.model.Campaign;
+import com.tipico.model.condition.*;
+import com.tipico.repository.CampaignRepository;
+import com.tipico.repository.ConditionRepository;
+import com.tipico.service.AssignmentJob.Status;
+import com.tipico.service.engine.ConditionType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates a campaign and assigns it to a list of customers in the background.
+ *
+ * <p>The customer list is spooled to a file when the job is submitted, so the upload does not have to be held in
+ * memory or kept open while the job waits for a worker. A job creates the campaign and its conditions through JPA and
+ * then inserts one offer per listed customer with JDBC batch inserts, all in one transaction: eligibility reads see
+ * either none or all of the offers. The campaign's entity listeners publish the catalog change, which also drops the
+ * cached offer candidates once the transaction commits.
+ *
+ * <p>Jobs run on {@code campaign.assignment.concurrent-jobs} workers, virtual threads when
+ * {@code spring.threads.virtual.enabled} is set, as a worker mostly waits for batch inserts.
+ */
+@Slf4j
+@Service
+public class AssignmentService implements DisposableBean {
+
+    private static final String INSERT_OFFER =
+            "insert into offer (uuid, customer_uuid, campaign_id, expiration_date) values (?, ?, ?, ?)";
+
+    private final CampaignRepository campaignRepository;
+
+    private final ConditionRepository conditionRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final UuidGenerator uuidGenerator;
+
+    private final CampaignProperties.Assignment properties;
+
+    private final Clock clock;
+
+    private final Map<UUID, AssignmentJob> jobs = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+
+    public AssignmentService(
+            CampaignRepository campaignRepository,
+            ConditionRepository conditionRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            UuidGenerator uuidGenerator,
+            CampaignProperties properties,
+            Clock clock,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.campaignRepository = campaignRepository;
+        this.conditionRepository = conditionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.uuidGenerator = uuidGenerator;
+        this.properties = properties.assignment();
+        this.clock = clock;
+        ThreadFactory threads = virtualThreads
+                ? Thread.ofVirtual().name("assignment-", 0).factory()
+                : Thread.ofPlatform().name("assignment-", 0).daemon().factory();
+        // The pool size stays the bound on concurrent jobs with virtual threads as well
+        this.executor = Executors.newFixedThreadPool(Math.max(1, this.properties.concurrentJobs()), threads);
+    }
+
+    /**
+     * Spools the customer list, one customer UUID per line, and queues the job.
+     *
+     * @throws IllegalArgumentException if the campaign definition is invalid
+     */
+    public AssignmentJob submit(CampaignDefinition definition, InputStream customers) {
+        validate(definition);
+        var job = new AssignmentJob(uuidGenerator.next(), definition, spool(customers), currentTime());
+        forgetOldJobs();
+        jobs.put(job.id(), job);
+        executor.execute(() -> run(job));
+        log.info("Queued assignment job {} for campaign '{}'", job.id(), definition.name());
+        return job;
+    }
+
+    public Optional<AssignmentJob> job(UUID id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /** Known jobs, most recently submitted first. */
+    public List<AssignmentJob> jobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(AssignmentJob::submittedAt).reversed())
+                .toList();
+    }
+
+    /** Requests cancellation; a job that already finished is not affected. */
+    public Optional<AssignmentJob> cancel(UUID id) {
+        var job = jobs.get(id);
+        if (job != null) {
+            job.cancel();
+        }
+        return Optional.ofNullable(job);
+    }
+
+    @Override
+    public void destroy() {
+        jobs.values().forEach(AssignmentJob::cancel);
+        executor.shutdown();
+    }
+
+    private void run(AssignmentJob job) {
+        try {
+            if (job.isCancelRequested()) {
+                throw new CancellationException();
+            }
+            transactionTemplate.executeWithoutResult(status -> assign(job));
+            job.finished(Status.COMMITTED, null, currentTime());
+            log.info("Assignment job {} committed {} offers", job.id(), job.toDto().offersInserted());
+        } catch (CancellationException e) {
+            job.finished(Status.CANCELLED, null, currentTime());
+            log.info("Assignment job {} cancelled", job.id());
+        } catch (RuntimeException e) {
+            job.finished(Status.FAILED, e.getMessage(), currentTime());
+            log.error("Assignment job {} failed", job.id(), e);
+        } finally {
+            deleteSpool(job.customers());
+        }
+    }
+
+    private void assign(AssignmentJob job) {
+        var definition = job.definition();
+        var campaign = campaignRepository.saveAndFlush(campaign(definition));
+        var conditions = conditions(definition, campaign);
+        conditionRepository.saveAllAndFlush(conditions);
+        job.started(campaign.getUuid(), currentTime());
+
+        var campaignId = campaign.getId();
+        var expirationDate =
+                definition.offerExpirationDate() == null ? definition.endDate() : definition.offerExpirationDate();
+        var batchSize = Math.max(1, properties.batchSize());
+        var batch = new ArrayList<Object[]>(batchSize);
+        try (var reader = Files.newBufferedReader(job.customers(), StandardCharsets.UTF_8)) {
+            var lineNumber = 0L;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                batch.add(new Object[] {
+                    UuidGenerator.toBytes(uuidGenerator.next()),
+                    UuidGenerator.toBytes(customerUuid(line, lineNumber)),
+                    campaignId,
+                    expirationDate
+                });
+                if (batch.size() == batchSize) {
+                    flush(job, batch);
+                }
+            }
+            flush(job, batch);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush(AssignmentJob job, List<Object[]> batch) {
+        if (job.isCancelRequested()) {
+            throw new CancellationException();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_OFFER, batch);
+        job.inserted(batch.size());
+        batch.clear();
+    }
+
+    private Campaign campaign(CampaignDefinition definition) {
+        var campaign = new Campaign();
+        campaign.setUuid(uuidGenerator.next());
+        campaign.setName(definition.name());
+        campaign.setStartDate(definition.startDate());
+        campaign.setEndDate(definition.endDate());
+        campaign.setAmount(definition.amount());
+        return campaign;
+    }
+
+    private static List<Condition> conditions(CampaignDefinition definition, Campaign campaign) {
+        var conditions = new ArrayList<Condition>();
+        for (var conditionDefinition : conditionDefinitions(definition)) {
+            var condition = condition(conditionDefinition);
+            condition.setCampaign(campaign);
+            conditions.add(condition);
+        }
+        return conditions;
+    }
+
+    private static Condition condition(ConditionDefinition definition) {
+        var type = ConditionType.fromDiscriminatorValue(definition.type());
+        var data = definition.data();
+        if (data == null) {
+            throw new IllegalArgumentException("Invalid " + definition.type() + " condition value " + data);
+        }
+        try {
+            return switch (type) {
+                case COUNTRY -> new CountryCondition(data);
+                case REGISTRATION_DATE -> new RegistrationDateCondition(LocalDateTime.parse(data));
+                case MINIMUM_DEPOSIT_AMOUNT -> new MinimumDepositAmountCondition(Integer.parseInt(data));
+                case IS_FIRST_DEPOSIT -> new IsFirstDepositCondition(parseBoolean(definition.type(), data));
+            };
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + definition.type() + " condition value " + data, e);
+        }
+    }
+
+    /** Unlike {@link Boolean#parseBoolean}, rejects anything but {@code true} and {@code false} in any case. */
+    private static boolean parseBoolean(String type, String data) {
+        if (data.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (data.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Invalid " + type + " condition value " + data);
+    }
+
+    private static void validate(CampaignDefinition definition) {
+        if (definition == null || definition.name() == null || definition.name().isBlank()) {
+            throw new IllegalArgumentException("Campaign name is required");
+        }
+        if (definition.startDate() == null || definition.endDate() == null) {
+            throw new IllegalArgumentException("Campaign start and end dates are required");
+        }
+        if (definition.endDate().isBefore(definition.startDate())) {
+            throw new IllegalArgumentException("Campaign ends before it starts");
+        }
+        for (var condition : conditionDefinitions(definition)) {
+            if (condition == null || condition.data() == null) {
+                throw new IllegalArgumentException("Condition type and value are required");
+            }
+            condition(condition);
+        }
+    }
+
+    private static List<ConditionDefinition> conditionDefinitions(CampaignDefinition definition) {
+        return definition.conditions() == null ? List.of() : definition.conditions();
+    }
+
+    private static UUID customerUuid(String line, long lineNumber) {
+        try {
+            return UUID.fromString(line.strip());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + " is not a customer UUID: " + line, e);
+        }
+    }
+
+    private Path spool(InputStream customers) {
+        Path file = null;
+        try (customers) {
+            var directory = properties.spoolDirectory();
+            if (directory == null) {
+                file = Files.createTempFile("assignment-", ".customers");
+            } else {
+                Files.createDirectories(directory);
+                file = Files.createTempFile(directory, "assignment-", ".customers");
+            }
+            Files.copy(customers, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException e) {
+            if (file != null) {
+                deleteSpool(file);
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteSpool(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled customer list {}", file, e);
+        }
+    }
+
+    private void forgetOldJobs() {
+        var finished = jobs.values().stream()
+                .filter(job -> job.status().isFinished())
+                .sorted(Comparator.comparing(AssignmentJob::submittedAt))
+                .toList();
+        var excess = finished.size() - properties.retainedJobs();
+        for (int i = 0; i < excess; i++) {
+            jobs.remove(finished.get(i).id());
+        }
+    }
+
+    private LocalDateTime currentTime() {
+        return LocalDateTime.now(clock);
+    }
+}
@@ -1,13 +1,20 @@
 package com.tipico.service;
 
+import com.tipico.audit.AuditLog;
+import com.tipico.audit.DecisionRecorder;
+import com.tipico.config.CampaignProperties;
+import com.tipico.config.CampaignProperties.QueryMode;
+import com.tipico.dto.EligibilityRequest;
 import com.tipico.dto.OfferDto;
-import com.tipico.model.*;
-import com.tipico.model.condition.*;
 import com.tipico.repository.OfferRepository;
+import com.tipico.repository.projection.OfferCandidate;
+import com.tipico.service.engine.CompiledCatalog;
+import com.tipico.service.engine.ConditionEngine;
+import com.tipico.service.engine.EligibilityQuery;
 import java.time.Clock;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,9 +27,28 @@ public class CampaignService {
 
     private final OfferRepository offerRepository;
 
+    private final OfferCandidateCache offerCandidateCache;
+
+    private final EligibilityProfileCache eligibilityProfileCache;
+
+    private final ConditionEngine conditionEngine;
+
+    private final EligibilityMetrics metrics;
+
+    private final SingleFlight singleFlight;
+
+    private final AuditLog auditLog;
+
+    private final CampaignProperties properties;
+
     private final Clock clock;
 
-    @Transactional
+    /**
+     * Concurrent requests for the same customer share one offer load, see {@link SingleFlight}. Repeated requests with
+     * the same inputs other than the deposit amount are answered from the customer's {@link EligibilityProfile} when
+     * profiles are enabled.
+     */
+    @Transactional(readOnly = true)
     public List<OfferDto> getEligibleOffers(
             UUID customerUuid,
             String country,
@@ -31,46 +57,214 @@ public class CampaignService {
             boolean isFirstDeposit) {
         var now = currentTime();
 
-        List<Offer> offers = offerRepository.findUnexpiredOffersByCustomerUuid(customerUuid, now);
+        if (properties.eligibility().queryMode() == QueryMode.DATABASE) {
+            return findEligibleOffersInDatabase(
+                    customerUuid, now, country, registrationDate, depositAmount, isFirstDeposit);
+        }
+
+        if (eligibilityProfileCache.isEnabled()) {
+            var profileStart = System.nanoTime();
+            var catalog = conditionEngine.catalog();
+            var profile =
+                    eligibilityProfileCache.find(customerUuid, country, registrationDate, isFirstDeposit, catalog, now);
+            if (profile != null) {
+                var query = catalog.prepare(country, registrationDate, depositAmount, isFirstDeposit);
+                var eligibleOffers = profile.eligibleOffers(
+                        depositAmount, catalog, metrics, auditLog.recorder(customerUuid, catalog, query, now));
+                metrics.recordEvaluationTime(System.nanoTime() - profileStart);
+                log.info("Found {} eligible offers for customer {} from profile", eligibleOffers.size(), customerUuid);
+                return eligibleOffers;
+            }
+        }
+
+        var offerChanges = eligibilityProfileCache.offerChanges();
+        var loadStart = System.nanoTime();
+        var candidates = singleFlight.load(customerUuid, () -> offerCandidateCache.candidates(customerUuid, now));
+        var evaluationStart = System.nanoTime();
+        metrics.recordDatabaseTime(evaluationStart - loadStart);
+
+        log.info("Found {} potential offers for customer {}", candidates.size(), customerUuid);
+
+        var catalog = catalogCovering(candidates);
+        var query = catalog.prepare(country, registrationDate, depositAmount, isFirstDeposit);
+        var eligibleOffers =
+                eligibleOffers(candidates, catalog, query, now, auditLog.recorder(customerUuid, catalog, query, now));
+        metrics.recordEvaluationTime(System.nanoTime() - evaluationStart);
+        eligibilityProfileCache.store(customerUuid, candidates, catalog, query, now, offerChanges);
+
+        log.info("Found {} eligible offers for customer {}", eligibleOffers.size(), customerUuid);
+
+        return eligibleOffers;
+    }
+
+    /**
+     * Evaluates eligibility for many customers at once. Candidates missing from the cache are loaded with chunked
+     * IN-list queries and always evaluated against the compiled catalog, regardless of the configured query mode.
+     *
+     * @return eligible offers keyed by customer, in request order; customers without eligible offers map to an empty
+     *     list
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, List<OfferDto>> getEligibleOffers(List<EligibilityRequest> requests) {
+        var now = currentTime();
+
+        var customerUuids = new ArrayList<UUID>(requests.size());
+        for (var request : requests) {
+            customerUuids.add(request.customerUuid());
+        }
+        var loadStart = System.nanoTime();
+        var candidatesByCustomer = offerCandidateCache.candidates(customerUuids, now);
+        var evaluationStart = System.nanoTime();
+        metrics.recordDatabaseTime(evaluationStart - loadStart);
+
+        var candidates = new ArrayList<OfferCandidate>();
+        candidatesByCustomer.values().forEach(candidates::addAll);
 
-        log.info("Found {} potential offers for customer {}", offers.size(), customerUuid);
+        log.info("Found {} potential offers for {} customers", candidates.size(), requests.size());
 
-        offers.removeIf(offer -> !validateConditions(
-                offer.getCampaign().getConditions(), country, registrationDate, depositAmount, isFirstDeposit));
+        var catalog = catalogCovering(candidates);
+        var eligibleOffersByCustomer = new LinkedHashMap<UUID, List<OfferDto>>();
+        var eligibleCount = 0;
+        for (var request : requests) {
+            var query = catalog.prepare(
+                    request.country(), request.registrationDate(), request.depositAmount(), request.isFirstDeposit());
+            var eligibleOffers = eligibleOffers(
+                    candidatesByCustomer.getOrDefault(request.customerUuid(), List.of()),
+                    catalog,
+                    query,
+                    now,
+                    auditLog.recorder(request.customerUuid(), catalog, query, now));
+            eligibleCount += eligibleOffers.size();
+            eligibleOffersByCustomer.put(request.customerUuid(), eligibleOffers);
+        }
+        metrics.recordEvaluationTime(System.nanoTime() - evaluationStart);
 
-        log.info("Found {} eligible offers for customer {}", offers.size(), customerUuid);
+        log.info("Found {} eligible offers for {} customers", eligibleCount, requests.size());
 
-        return offers.stream().map(offer -> new OfferDto(offer.getUuid())).toList();
+        return eligibleOffersByCustomer;
     }
 
-    private boolean validateConditions(
-            List<Condition> conditions,
+    /**
+     * Streams the eligible offers of the customer to {@code sink} while reading them from a database cursor, holding
+     * only the current fetch of rows in memory; H2 only reads results lazily with {@code LAZY_QUERY_EXECUTION=1} on
+     * the connection URL and otherwise materializes them. Offers are visited in id order starting after
+     * {@code afterOfferId}, always evaluated against the compiled catalog.
+     *
+     * @return the id of the last emitted offer when {@code limit} offers were emitted and more may follow, otherwise
+     *     {@code null}
+     */
+    @Transactional(readOnly = true)
+    public Long streamEligibleOffers(
+            UUID customerUuid,
             String country,
             LocalDateTime registrationDate,
             int depositAmount,
-            boolean isFirstDeposit) {
-        return conditions.stream()
-                .allMatch(condition ->
-                        isConditionSatisfied(condition, country, registrationDate, depositAmount, isFirstDeposit));
+            boolean isFirstDeposit,
+            long afterOfferId,
+            int limit,
+            Consumer<OfferDto> sink) {
+        var now = currentTime();
+        var catalog = conditionEngine.catalog();
+        var query = catalog.prepare(country, registrationDate, depositAmount, isFirstDeposit);
+        var recorder = auditLog.recorder(customerUuid, catalog, query, now);
+        var potentialCount = 0;
+        var eligibleCount = 0;
+        try (var candidates = offerRepository.streamCandidatesByCustomerUuid(customerUuid, now, afterOfferId)) {
+            var iterator = candidates.iterator();
+            while (iterator.hasNext()) {
+                var candidate = iterator.next();
+                if (catalog.isUnknown(candidate.campaignId())) {
+                    catalog = conditionEngine.refresh();
+                    query = catalog.prepare(country, registrationDate, depositAmount, isFirstDeposit);
+                }
+                var index = catalog.indexOf(candidate.campaignId());
+                if (index < 0 || !catalog.isActive(index)) {
+                    recorder.notRunning(candidate.offerUuid(), candidate.campaignId());
+                    continue;
+                }
+                potentialCount++;
+                var failingCondition = catalog.firstFailingCondition(index, query);
+                recorder.evaluated(candidate.offerUuid(), candidate.campaignId(), failingCondition);
+                if (failingCondition != null) {
+                    metrics.recordRejection(catalog, index, failingCondition);
+                    continue;
+                }
+                sink.accept(new OfferDto(candidate.offerUuid()));
+                if (++eligibleCount == limit) {
+                    return candidate.offerId();
+                }
+            }
+            return null;
+        } finally {
+            recorder.finish();
+            metrics.recordOffers(potentialCount, eligibleCount);
+            log.info("Streamed {} eligible offers for customer {}", eligibleCount, customerUuid);
+        }
     }
 
-    private boolean isConditionSatisfied(
-            Condition condition,
+    private List<OfferDto> eligibleOffers(
+            List<OfferCandidate> candidates,
+            CompiledCatalog catalog,
+            EligibilityQuery query,
+            LocalDateTime now,
+            DecisionRecorder recorder) {
+        var eligibleOffers = new ArrayList<OfferDto>(candidates.size());
+        var potentialCount = 0;
+        for (var candidate : candidates) {
+            if (!candidate.isUnexpired(now)) {
+                continue;
+            }
+            var index = catalog.indexOf(candidate.campaignId());
+            if (index < 0 || !catalog.isActive(index)) {
+                recorder.notRunning(candidate.offerUuid(), candidate.campaignId());
+                continue;
+            }
+            potentialCount++;
+            var failingCondition = catalog.firstFailingCondition(index, query);
+            recorder.evaluated(candidate.offerUuid(), candidate.campaignId(), failingCondition);
+            if (failingCondition == null) {
+                eligibleOffers.add(new OfferDto(candidate.offerUuid()));
+            } else {
+                metrics.recordRejection(catalog, index, failingCondition);
+            }
+        }
+        recorder.finish();
+        metrics.recordOffers(potentialCount, eligibleOffers.size());
+        return eligibleOffers;
+    }
+
+    private List<OfferDto> findEligibleOffersInDatabase(
+            UUID customerUuid,
+            LocalDateTime now,
             String country,
             LocalDateTime registrationDate,
             int depositAmount,
             boolean isFirstDeposit) {
-        return switch (condition) {
-            case CountryCondition c -> country.equalsIgnoreCase(c.getData());
-            case RegistrationDateCondition c -> registrationDate.isEqual(c.getData())
-                    || registrationDate.isAfter(c.getData());
-            case MinimumDepositAmountCondition c -> depositAmount >= c.getData();
-            case IsFirstDepositCondition c -> c.isData() && isFirstDeposit;
-        };
+        var loadStart = System.nanoTime();
+        // Conditions are evaluated by the query, so only requests with identical parameters can share a load
+        var request = new EligibilityRequest(customerUuid, country, registrationDate, depositAmount, isFirstDeposit);
+        var offerUuids = singleFlight.load(
+                request,
+                () -> offerRepository.findEligibleOfferUuids(
+                        customerUuid, now, country, registrationDate, depositAmount, isFirstDeposit));
+        metrics.recordDatabaseTime(System.nanoTime() - loadStart);
+
+        log.info("Found {} eligible offers for customer {}", offerUuids.size(), customerUuid);
+
+        return offerUuids.stream().map(OfferDto::new).toList();
+    }
+
+    private CompiledCatalog catalogCovering(List<OfferCandidate> candidates) {
+        var catalog = conditionEngine.catalog();
+        for (var candidate : candidates) {
+            if (catalog.isUnknown(candidate.campaignId())) {
+                return conditionEngine.refresh();
+            }
+        }
+        return catalog;
     }
 
     private LocalDateTime currentTime() {
         return LocalDateTime.now(clock);
     }
 }
-;
@@ -0,0 +1,222 @@
+package com.tipico.service;
+
+import com.tipico.service.engine.CatalogListener;
+import com.tipico.service.engine.CompiledCatalog;
+import com.tipico.service.engine.ConditionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters of the eligibility hot path. All meters are registered up front, the per-campaign ones whenever a compiled
+ * catalog is installed, so recording a request does not allocate. Per-campaign meters of campaigns no longer in the
+ * catalog are removed. Synthetic requests run inside {@link #withoutRecording} are not recorded.
+ */
+@Component
+public class EligibilityMetrics implements CatalogListener {
+
+    private final MeterRegistry registry;
+
+    private final Timer databaseTimer;
+
+    private final Timer evaluationTimer;
+
+    private final Counter potentialOffers;
+
+    private final Counter eligibleOffers;
+
+    private final Counter[] rejectionsByCondition;
+
+    private final Counter coalesced;
+
+    private final Counter coalescingTimeouts;
+
+    private final Counter coalescingLeaderFailures;
+
+    private final Counter profileHits;
+
+    private final Counter profileUpdates;
+
+    private final Counter profileMisses;
+
+    private final ThreadLocal<Boolean> suppressed = ThreadLocal.withInitial(() -> false);
+
+    private volatile CampaignRejections campaignRejections =
+            new CampaignRejections(-1, new long[0], new Counter[0]);
+
+    public EligibilityMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.databaseTimer = Timer.builder("eligibility.latency")
+                .description("Time spent per eligibility request")
+                .tag("phase", "database")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.evaluationTimer = Timer.builder("eligibility.latency")
+                .description("Time spent per eligibility request")
+                .tag("phase", "evaluation")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.potentialOffers = Counter.builder("eligibility.offers")
+                .description("Offers considered for eligibility")
+                .tag("outcome", "potential")
+                .register(registry);
+        this.eligibleOffers = Counter.builder("eligibility.offers")
+                .description("Offers considered for eligibility")
+                .tag("outcome", "eligible")
+                .register(registry);
+        var conditionTypes = ConditionType.values();
+        this.rejectionsByCondition = new Counter[conditionTypes.length];
+        for (var conditionType : conditionTypes) {
+            rejectionsByCondition[conditionType.ordinal()] = Counter.builder("eligibility.rejections")
+                    .description("Offers rejected by the first condition they failed")
+                    .tag("condition", conditionType.conditionClass().getSimpleName())
+                    .register(registry);
+        }
+        this.coalesced = coalescingCounter("shared");
+        this.coalescingTimeouts = coalescingCounter("timeout");
+        this.coalescingLeaderFailures = coalescingCounter("leader_failed");
+        this.profileHits = profileCounter("hit");
+        this.profileUpdates = profileCounter("updated");
+        this.profileMisses = profileCounter("miss");
+    }
+
+    /** Runs {@code action} without recording the requests it makes on the current thread, e.g. synthetic ones. */
+    public void withoutRecording(Runnable action) {
+        suppressed.set(true);
+        try {
+            action.run();
+        } finally {
+            suppressed.remove();
+        }
+    }
+
+    /** A request was answered from an up-to-date eligibility profile. */
+    public void recordProfileHit() {
+        if (suppressed.get()) {
+            return;
+        }
+        profileHits.increment();
+    }
+
+    /** A request was answered from an eligibility profile after re-evaluating its changed campaigns. */
+    public void recordProfileUpdate() {
+        if (suppressed.get()) {
+            return;
+        }
+        profileUpdates.increment();
+    }
+
+    /** A request found no usable eligibility profile and was evaluated in full. */
+    public void recordProfileMiss() {
+        if (suppressed.get()) {
+            return;
+        }
+        profileMisses.increment();
+    }
+
+    private Counter coalescingCounter(String outcome) {
+        return Counter.builder("eligibility.coalesced")
+                .description("Requests that joined a concurrent load of the same key, by how the wait ended")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public void recordDatabaseTime(long nanos) {
+        if (suppressed.get()) {
+            return;
+        }
+        databaseTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordEvaluationTime(long nanos) {
+        if (suppressed.get()) {
+            return;
+        }
+        evaluationTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOffers(int potential, int eligible) {
+        if (suppressed.get()) {
+            return;
+        }
+        potentialOffers.increment(potential);
+        eligibleOffers.increment(eligible);
+    }
+
+    public void recordRejection(CompiledCatalog catalog, int index, ConditionType conditionType) {
+        if (suppressed.get()) {
+            return;
+        }
+        rejectionsByCondition[conditionType.ordinal()].increment();
+        // Looked up by campaign id, so requests still evaluating an earlier catalog count towards the same meter
+        var rejections = campaignRejections;
+        var position = Arrays.binarySearch(rejections.campaignIds, catalog.campaignId(index));
+        if (position >= 0) {
+            rejections.counters[position].increment();
+        }
+    }
+
+    /** Registers the per-campaign meters of the catalog's campaigns and removes those of dropped campaigns. */
+    @Override
+    public synchronized void catalogInstalled(CompiledCatalog catalog) {
+        var previous = campaignRejections;
+        if (catalog.version() < previous.catalogVersion) {
+            return;
+        }
+        var campaignIds = new long[catalog.size()];
+        var counters = new Counter[catalog.size()];
+        for (int index = 0; index < campaignIds.length; index++) {
+            campaignIds[index] = catalog.campaignId(index);
+            var position = Arrays.binarySearch(previous.campaignIds, campaignIds[index]);
+            counters[index] = position >= 0
+                    ? previous.counters[position]
+                    : Counter.builder("eligibility.campaign.rejections")
+                            .description("Offers rejected per campaign")
+                            .tag("campaign", Long.toString(campaignIds[index]))
+                            .register(registry);
+        }
+        for (int position = 0; position < previous.campaignIds.length; position++) {
+            if (Arrays.binarySearch(campaignIds, previous.campaignIds[position]) < 0) {
+                registry.remove(previous.counters[position]);
+            }
+        }
+        campaignRejections = new CampaignRejections(catalog.version(), campaignIds, counters);
+    }
+
+    /** A request was served by a load already in flight. */
+    public void recordCoalesced() {
+        if (suppressed.get()) {
+            return;
+        }
+        coalesced.increment();
+    }
+
+    /** A joined request stopped waiting and loaded on its own. */
+    public void recordCoalescingTimeout() {
+        if (suppressed.get()) {
+            return;
+        }
+        coalescingTimeouts.increment();
+    }
+
+    /** The load a request joined failed, so it loaded on its own. */
+    public void recordCoalescingLeaderFailure() {
+        if (suppressed.get()) {
+            return;
+        }
+        coalescingLeaderFailures.increment();
+    }
+
+    private Counter profileCounter(String outcome) {
+        return Counter.builder("eligibility.profile")
+                .description("Requests looking up a precomputed eligibility profile, by how the lookup ended")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /** Per-campaign meters, ordered by campaign id like the catalog they were registered for. */
+    private record CampaignRejections(long catalogVersion, long[] campaignIds, Counter[] counters) {}
+}
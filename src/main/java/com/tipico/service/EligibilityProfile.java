@@ -0,0 +1,188 @@
+package com.tipico.service;
+
+import com.tipico.audit.DecisionRecorder;
+import com.tipico.dto.OfferDto;
+import com.tipico.repository.projection.OfferCandidate;
+import com.tipico.service.engine.CompiledCatalog;
+import com.tipico.service.engine.ConditionType;
+import com.tipico.service.engine.EligibilityQuery;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * A customer's candidate offers pre-evaluated for one combination of country, registration date and first deposit
+ * flag. Per offer it keeps the first of those conditions that fails and the campaign's minimum deposit amount, so
+ * evaluating a request with the same inputs compares the deposit amount against a threshold per offer.
+ *
+ * <p>A profile is valid for one catalog version until the next campaign start or end or offer expiration. Entries of
+ * campaigns that changed in a later catalog version can be re-evaluated with {@link #update}. Instances are immutable.
+ */
+final class EligibilityProfile {
+
+    private static final byte PASSES = -1;
+
+    private static final byte NOT_RUNNING = -2;
+
+    private static final ConditionType[] CONDITION_TYPES = ConditionType.values();
+
+    private final String country;
+
+    private final LocalDateTime registrationDate;
+
+    private final boolean isFirstDeposit;
+
+    private final long catalogVersion;
+
+    private final long latestCampaignId;
+
+    private final LocalDateTime validUntil;
+
+    private final UUID[] offerUuids;
+
+    private final long[] campaignIds;
+
+    private final int[] catalogIndexes;
+
+    private final byte[] failingConditions;
+
+    private final int[] minimumDepositAmounts;
+
+    private EligibilityProfile(
+            EligibilityQuery query,
+            CompiledCatalog catalog,
+            LocalDateTime validUntil,
+            UUID[] offerUuids,
+            long[] campaignIds) {
+        this.country = query.country();
+        this.registrationDate = query.registrationDate();
+        this.isFirstDeposit = query.isFirstDeposit();
+        this.catalogVersion = catalog.version();
+        this.latestCampaignId = catalog.latestCampaignId();
+        this.validUntil = validUntil;
+        this.offerUuids = offerUuids;
+        this.campaignIds = campaignIds;
+        this.catalogIndexes = new int[offerUuids.length];
+        this.failingConditions = new byte[offerUuids.length];
+        this.minimumDepositAmounts = new int[offerUuids.length];
+    }
+
+    /** Evaluates the unexpired candidates against the catalog, which must be current at {@code now}. */
+    static EligibilityProfile build(
+            List<OfferCandidate> candidates, CompiledCatalog catalog, EligibilityQuery query, LocalDateTime now) {
+        var unexpired = new ArrayList<OfferCandidate>(candidates.size());
+        var validUntil = catalog.activeUntil();
+        for (var candidate : candidates) {
+            if (candidate.isUnexpired(now)) {
+                unexpired.add(candidate);
+                validUntil = earlier(validUntil, candidate.expirationDate().plusNanos(1));
+            }
+        }
+        var offerUuids = new UUID[unexpired.size()];
+        var campaignIds = new long[unexpired.size()];
+        for (int i = 0; i < offerUuids.length; i++) {
+            offerUuids[i] = unexpired.get(i).offerUuid();
+            campaignIds[i] = unexpired.get(i).campaignId();
+        }
+        var profile = new EligibilityProfile(query, catalog, validUntil, offerUuids, campaignIds);
+        for (int i = 0; i < offerUuids.length; i++) {
+            profile.evaluate(i, catalog, query);
+        }
+        return profile;
+    }
+
+    boolean matches(String country, LocalDateTime registrationDate, boolean isFirstDeposit) {
+        return this.isFirstDeposit == isFirstDeposit
+                && Objects.equals(this.country, country)
+                && Objects.equals(this.registrationDate, registrationDate);
+    }
+
+    boolean isValidAt(LocalDateTime now) {
+        return now.isBefore(validUntil);
+    }
+
+    long catalogVersion() {
+        return catalogVersion;
+    }
+
+    /**
+     * Derives the profile for a later catalog version, re-evaluating only the offers of the changed campaigns.
+     *
+     * @return the updated profile, or {@code null} if a campaign was created since this profile was built, in which
+     *     case the customer may have offers the profile does not know
+     */
+    EligibilityProfile update(Set<Long> changedCampaigns, CompiledCatalog catalog) {
+        var known = new HashSet<Long>();
+        for (var campaignId : campaignIds) {
+            known.add(campaignId);
+        }
+        for (var campaignId : changedCampaigns) {
+            if (campaignId > latestCampaignId && !known.contains(campaignId)) {
+                return null;
+            }
+        }
+        var query = catalog.prepare(country, registrationDate, 0, isFirstDeposit);
+        var updated = new EligibilityProfile(
+                query, catalog, earlier(validUntil, catalog.activeUntil()), offerUuids, campaignIds);
+        for (int i = 0; i < offerUuids.length; i++) {
+            if (changedCampaigns.contains(campaignIds[i])) {
+                updated.evaluate(i, catalog, query);
+                continue;
+            }
+            // Campaign ids are compiled in order, so the index of an unchanged campaign can still shift
+            var index = catalog.indexOf(campaignIds[i]);
+            updated.catalogIndexes[i] = index;
+            updated.failingConditions[i] = index < 0 ? NOT_RUNNING : failingConditions[i];
+            updated.minimumDepositAmounts[i] = minimumDepositAmounts[i];
+        }
+        return updated;
+    }
+
+    /**
+     * Returns the offers eligible for {@code depositAmount}. The catalog must be of this profile's version; it is only
+     * used to attribute rejections.
+     */
+    List<OfferDto> eligibleOffers(
+            int depositAmount, CompiledCatalog catalog, EligibilityMetrics metrics, DecisionRecorder recorder) {
+        var eligibleOffers = new ArrayList<OfferDto>(offerUuids.length);
+        var potentialCount = 0;
+        for (int i = 0; i < offerUuids.length; i++) {
+            var failing = failingConditions[i];
+            if (failing == NOT_RUNNING) {
+                recorder.notRunning(offerUuids[i], campaignIds[i]);
+                continue;
+            }
+            potentialCount++;
+            var failingCondition = failing == PASSES ? null : CONDITION_TYPES[failing];
+            // The deposit amount is checked before the first deposit flag, as in CompiledCatalog
+            if (depositAmount < minimumDepositAmounts[i]
+                    && (failingCondition == null || failingCondition == ConditionType.IS_FIRST_DEPOSIT)) {
+                failingCondition = ConditionType.MINIMUM_DEPOSIT_AMOUNT;
+            }
+            recorder.evaluated(offerUuids[i], campaignIds[i], failingCondition);
+            if (failingCondition == null) {
+                eligibleOffers.add(new OfferDto(offerUuids[i]));
+            } else {
+                metrics.recordRejection(catalog, catalogIndexes[i], failingCondition);
+            }
+        }
+        recorder.finish();
+        metrics.recordOffers(potentialCount, eligibleOffers.size());
+        return eligibleOffers;
+    }
+
+    private void evaluate(int i, CompiledCatalog catalog, EligibilityQuery query) {
+        var index = catalog.indexOf(campaignIds[i]);
+        catalogIndexes[i] = index;
+        if (index < 0 || !catalog.isActive(index)) {
+            failingConditions[i] = NOT_RUNNING;
+            return;
+        }
+        var failingCondition = catalog.firstFailingConditionIgnoringDeposit(index, query);
+        failingConditions[i] = failingCondition == null ? PASSES : (byte) failingCondition.ordinal();
+        minimumDepositAmounts[i] = catalog.minimumDepositAmount(index);
+    }
+
+    private static LocalDateTime earlier(LocalDateTime first, LocalDateTime second) {
+        return second.isBefore(first) ? second : first;
+    }
+}
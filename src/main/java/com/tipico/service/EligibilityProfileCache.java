@@ -0,0 +1,148 @@
+package com.tipico.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tipico.config.CampaignProperties;
+import com.tipico.event.CatalogChangedEvent;
+import com.tipico.event.OfferChangedEvent;
+import com.tipico.repository.projection.OfferCandidate;
+import com.tipico.service.engine.CompiledCatalog;
+import com.tipico.service.engine.ConditionEngine;
+import com.tipico.service.engine.EligibilityQuery;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded per-customer cache of {@link EligibilityProfile}s, holding the profile of the inputs a customer was last
+ * evaluated with.
+ *
+ * <p>A write to the customer's offers drops the profile. Changes to campaigns or conditions are applied lazily: on the
+ * next read, only the offers of the campaigns changed since the profile's catalog version are re-evaluated, using the
+ * change log of the {@link ConditionEngine}. The profile is rebuilt from the customer's candidates when that log does
+ * not cover the versions in between, when a campaign was created in between, when the inputs differ or once it
+ * expired.
+ */
+@Component
+public class EligibilityProfileCache implements MeterBinder {
+
+    private final ConditionEngine conditionEngine;
+
+    private final EligibilityMetrics metrics;
+
+    private final boolean enabled;
+
+    private final Cache<UUID, EligibilityProfile> cache;
+
+    private final AtomicLong offerChanges = new AtomicLong();
+
+    public EligibilityProfileCache(
+            ConditionEngine conditionEngine, EligibilityMetrics metrics, CampaignProperties properties) {
+        this.conditionEngine = conditionEngine;
+        this.metrics = metrics;
+        this.enabled = properties.eligibilityProfiles().enabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(enabled ? properties.eligibilityProfiles().maximumSize() : 0)
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the customer's profile for the given inputs, brought up to date with {@code catalog}, or {@code null}
+     * if the request has to be evaluated in full.
+     */
+    EligibilityProfile find(
+            UUID customerUuid,
+            String country,
+            LocalDateTime registrationDate,
+            boolean isFirstDeposit,
+            CompiledCatalog catalog,
+            LocalDateTime now) {
+        if (!enabled) {
+            return null;
+        }
+        var profile = cache.getIfPresent(customerUuid);
+        if (profile == null
+                || !profile.matches(country, registrationDate, isFirstDeposit)
+                || !profile.isValidAt(now)
+                || profile.catalogVersion() > catalog.version()) {
+            metrics.recordProfileMiss();
+            return null;
+        }
+        if (profile.catalogVersion() == catalog.version()) {
+            metrics.recordProfileHit();
+            return profile;
+        }
+        var changedCampaigns = conditionEngine.changedCampaigns(profile.catalogVersion(), catalog.version());
+        var updated = changedCampaigns == null ? null : profile.update(changedCampaigns, catalog);
+        if (updated == null) {
+            cache.asMap().remove(customerUuid, profile);
+            metrics.recordProfileMiss();
+            return null;
+        }
+        cache.asMap().replace(customerUuid, profile, updated);
+        metrics.recordProfileUpdate();
+        return updated;
+    }
+
+    /** Marks the start of a full evaluation; pass the result to {@link #store}. */
+    long offerChanges() {
+        return offerChanges.get();
+    }
+
+    /**
+     * Builds and caches the profile of a full evaluation, unless offers were written since {@code offerChanges}, in
+     * which case the candidates may already be outdated.
+     */
+    void store(
+            UUID customerUuid,
+            List<OfferCandidate> candidates,
+            CompiledCatalog catalog,
+            EligibilityQuery query,
+            LocalDateTime now,
+            long offerChanges) {
+        if (!enabled) {
+            return;
+        }
+        var profile = EligibilityProfile.build(candidates, catalog, query, now);
+        if (this.offerChanges.get() == offerChanges) {
+            cache.put(customerUuid, profile);
+        }
+    }
+
+    /** Drops all profiles, e.g. those built from synthetic requests. */
+    public void invalidateAll() {
+        offerChanges.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "eligibility-profiles");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOfferChanged(OfferChangedEvent event) {
+        offerChanges.incrementAndGet();
+        cache.invalidate(event.customerUuid());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Bulk loads change offers without per-customer events
+        if (event.campaignId() == null) {
+            offerChanges.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.tipico.service;
+
+import com.tipico.config.CampaignProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Periodically moves offers that expired, or whose campaign ended, from {@code offer} to {@code offer_archive}.
+ *
+ * <p>A run walks the offer table by id (keyset pagination), moving at most {@code batchSize} offers per short
+ * transaction and sleeping between batches to stay under {@code maxRowsPerSecond}. Archived offers are ones the
+ * eligibility check already ignores, so cached candidates and the campaign catalog stay valid.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "campaign.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OfferArchiver implements SmartLifecycle {
+
+    private static final String ARCHIVABLE = """
+            (o.expiration_date < :now
+              or exists (select 1 from campaign c where c.id = o.campaign_id and c.end_date < :now))
+            """;
+
+    private static final String SELECT_ARCHIVABLE = """
+            select o.id
+            from offer o
+            where o.id > :lastId
+              and %s
+            order by o.id
+            limit :batchSize
+            """.formatted(ARCHIVABLE);
+
+    /** Checks the selected offers again within the moving transaction, as one may have been extended since. */
+    private static final String LOCK_ARCHIVABLE = """
+            select o.id
+            from offer o
+            where o.id in (:ids)
+              and %s
+            for update
+            """.formatted(ARCHIVABLE);
+
+    private static final String INSERT_ARCHIVE = """
+            insert into offer_archive (original_id, uuid, customer_uuid, campaign_id, expiration_date, archived_at)
+            select id, uuid, customer_uuid, campaign_id, expiration_date, :now
+            from offer
+            where id in (:ids)
+            """;
+
+    private static final String DELETE_OFFERS = "delete from offer where id in (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CampaignProperties.Archive properties;
+
+    private final Clock clock;
+
+    private final boolean virtualThreads;
+
+    private final DistributionSummary archivedPerRun;
+
+    private final Timer runTimer;
+
+    private ScheduledExecutorService scheduler;
+
+    public OfferArchiver(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            CampaignProperties properties,
+            Clock clock,
+            MeterRegistry registry,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties.archive();
+        this.clock = clock;
+        this.virtualThreads = virtualThreads;
+        this.archivedPerRun = DistributionSummary.builder("offer.archive.rows")
+                .description("Offers moved to the archive per run")
+                .register(registry);
+        this.runTimer = Timer.builder("offer.archive.duration")
+                .description("Duration of an archiving run")
+                .register(registry);
+    }
+
+    @Override
+    public synchronized void start() {
+        ThreadFactory threads = virtualThreads
+                ? Thread.ofVirtual().name("offer-archiver").factory()
+                : Thread.ofPlatform().name("offer-archiver").daemon().factory();
+        scheduler = Executors.newSingleThreadScheduledExecutor(threads);
+        var interval = properties.interval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::archiveSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /** Runs one archiving pass and returns the number of offers moved. */
+    public long archive() throws InterruptedException {
+        var started = System.nanoTime();
+        var now = LocalDateTime.now(clock);
+        var batchSize = Math.max(1, Math.min(properties.batchSize(), properties.maxRowsPerRun()));
+        var nanosPerRow = TimeUnit.SECONDS.toNanos(1) / Math.max(1, properties.maxRowsPerSecond());
+        long lastId = 0;
+        long archived = 0;
+        while (archived < properties.maxRowsPerRun()) {
+            var ids = jdbcTemplate.queryForList(
+                    SELECT_ARCHIVABLE,
+                    Map.of(
+                            "lastId", lastId,
+                            "now", now,
+                            "batchSize", (int) Math.min(batchSize, properties.maxRowsPerRun() - archived)),
+                    Long.class);
+            if (ids.isEmpty()) {
+                break;
+            }
+            archived += moveToArchive(ids, now);
+            lastId = ids.getLast();
+
+            var sleepNanos = archived * nanosPerRow - (System.nanoTime() - started);
+            if (sleepNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            }
+        }
+        archivedPerRun.record(archived);
+        runTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (archived > 0) {
+            log.info(
+                    "Archived {} offers expired before {} in {} ms",
+                    archived,
+                    now,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+        return archived;
+    }
+
+    private int moveToArchive(List<Long> ids, LocalDateTime now) {
+        return transactionTemplate.execute(status -> {
+            var archivable = jdbcTemplate.queryForList(LOCK_ARCHIVABLE, Map.of("ids", ids, "now", now), Long.class);
+            if (archivable.isEmpty()) {
+                return 0;
+            }
+            jdbcTemplate.update(INSERT_ARCHIVE, Map.of("ids", archivable, "now", now));
+            return jdbcTemplate.update(DELETE_OFFERS, Map.of("ids", archivable));
+        });
+    }
+
+    private void archiveSafely() {
+        try {
+            archive();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Archiving expired offers failed", e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.tipico.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.tipico.config.CampaignProperties;
+import com.tipico.event.CatalogChangedEvent;
+import com.tipico.event.OfferChangedEvent;
+import com.tipico.offerindex.OfferIndex;
+import com.tipico.repository.OfferRepository;
+import com.tipico.repository.projection.OfferCandidate;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded per-customer cache of candidate offers. An entry is evicted right after the first offer expiration it
+ * contains, and invalidated after any committed write to the customer's offers or to campaign data. Whether a
+ * candidate's campaign is running is decided by the campaign catalog at read time. Misses are loaded from the
+ * {@link OfferIndex} where it can answer them, otherwise from the database.
+ *
+ * <p>Misses are loaded on the calling thread after a pending entry is inserted, rather than inside Caffeine's compute,
+ * which holds a map bin lock and would pin a virtual thread to its carrier for the whole query. Concurrent lookups of
+ * the same customer wait for the pending entry.
+ */
+@Component
+public class OfferCandidateCache implements MeterBinder {
+
+    private static final int IN_LIST_CHUNK_SIZE = 1000;
+
+    private final OfferRepository offerRepository;
+
+    private final OfferIndex offerIndex;
+
+    private final Clock clock;
+
+    private final Duration timeToLive;
+
+    private final AsyncCache<UUID, CustomerOffers> cache;
+
+    public OfferCandidateCache(
+            OfferRepository offerRepository, OfferIndex offerIndex, CampaignProperties properties, Clock clock) {
+        this.offerRepository = offerRepository;
+        this.offerIndex = offerIndex;
+        this.clock = clock;
+        this.timeToLive = properties.offerCache().timeToLive();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.offerCache().enabled() ? properties.offerCache().maximumSize() : 0)
+                .expireAfter(new UntilFirstOfferEnds())
+                .recordStats()
+                .buildAsync();
+    }
+
+    public List<OfferCandidate> candidates(UUID customerUuid, LocalDateTime now) {
+        var loading = new CompletableFuture<CustomerOffers>();
+        var offers = cache.get(customerUuid, (key, executor) -> loading);
+        if (offers == loading) {
+            try {
+                loading.complete(loadOne(customerUuid, now));
+            } catch (RuntimeException | Error e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return join(offers).candidates();
+    }
+
+    /** Returns the candidates of every given customer, loading all misses with chunked IN-list queries. */
+    public Map<UUID, List<OfferCandidate>> candidates(Collection<UUID> customerUuids, LocalDateTime now) {
+        // Bulk loads run outside the map locks already, after pending entries of the missing customers are inserted
+        var offers = join(cache.getAll(
+                customerUuids, (missing, executor) -> CompletableFuture.completedFuture(load(missing, now))));
+        var candidates = new HashMap<UUID, List<OfferCandidate>>(offers.size());
+        offers.forEach((customerUuid, customerOffers) -> candidates.put(customerUuid, customerOffers.candidates()));
+        return candidates;
+    }
+
+    /**
+     * Returns the first expiration among the customer's cached candidates, {@link LocalDateTime#MAX} if they have
+     * none, or {@code null} if they are not cached. Never loads them.
+     */
+    public LocalDateTime cachedFirstExpiration(UUID customerUuid) {
+        var pending = cache.getIfPresent(customerUuid);
+        if (pending == null || !pending.isDone() || pending.isCompletedExceptionally()) {
+            return null;
+        }
+        var offers = pending.join();
+        return offers.validUntil() == null ? LocalDateTime.MAX : offers.validUntil();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "offer-candidates");
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOfferChanged(OfferChangedEvent event) {
+        cache.synchronous().invalidate(event.customerUuid());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        cache.synchronous().invalidateAll();
+    }
+
+    private CustomerOffers loadOne(UUID customerUuid, LocalDateTime now) {
+        var indexed = offerIndex.candidates(customerUuid, now);
+        if (indexed != null) {
+            return CustomerOffers.of(indexed);
+        }
+        return CustomerOffers.of(offerRepository.findCandidatesByCustomerUuid(customerUuid, now));
+    }
+
+    private Map<UUID, CustomerOffers> load(Set<? extends UUID> customerUuids, LocalDateTime now) {
+        var candidatesByCustomer = new HashMap<UUID, List<OfferCandidate>>();
+        var pending = new ArrayList<UUID>(customerUuids.size());
+        for (var customerUuid : customerUuids) {
+            var indexed = offerIndex.candidates(customerUuid, now);
+            candidatesByCustomer.put(customerUuid, indexed != null ? indexed : new ArrayList<>());
+            if (indexed == null) {
+                pending.add(customerUuid);
+            }
+        }
+        for (int from = 0; from < pending.size(); from += IN_LIST_CHUNK_SIZE) {
+            var chunk = pending.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, pending.size()));
+            for (var candidate : offerRepository.findCandidatesByCustomerUuidIn(chunk, now)) {
+                candidatesByCustomer.get(candidate.customerUuid()).add(candidate);
+            }
+        }
+        var loaded = new HashMap<UUID, CustomerOffers>(candidatesByCustomer.size());
+        candidatesByCustomer.forEach(
+                (customerUuid, candidates) -> loaded.put(customerUuid, CustomerOffers.of(candidates)));
+        return loaded;
+    }
+
+    /** Waits for a load, rethrowing its failure as the loading caller saw it. */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record CustomerOffers(List<OfferCandidate> candidates, LocalDateTime validUntil) {
+
+        static CustomerOffers of(List<OfferCandidate> candidates) {
+            LocalDateTime validUntil = null;
+            for (var candidate : candidates) {
+                var expirationDate = candidate.expirationDate();
+                if (validUntil == null || expirationDate.isBefore(validUntil)) {
+                    validUntil = expirationDate;
+                }
+            }
+            return new CustomerOffers(List.copyOf(candidates), validUntil);
+        }
+    }
+
+    private class UntilFirstOfferEnds implements Expiry<UUID, CustomerOffers> {
+
+        @Override
+        public long expireAfterCreate(UUID customerUuid, CustomerOffers offers, long currentTime) {
+            if (offers.validUntil() == null) {
+                return timeToLive.toNanos();
+            }
+            var untilFirstOfferEnds =
+                    Duration.between(LocalDateTime.now(clock), offers.validUntil()).plusNanos(1);
+            if (untilFirstOfferEnds.isNegative()) {
+                return 0;
+            }
+            var expiresAfter = untilFirstOfferEnds.compareTo(timeToLive) < 0 ? untilFirstOfferEnds : timeToLive;
+            return expiresAfter.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(
+                UUID customerUuid, CustomerOffers offers, long currentTime, long currentDuration) {
+            return expireAfterCreate(customerUuid, offers, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(
+                UUID customerUuid, CustomerOffers offers, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
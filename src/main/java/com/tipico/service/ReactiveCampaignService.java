@@ -0,0 +1,183 @@
+package com.tipico.service;
+
+import com.tipico.audit.AuditLog;
+import com.tipico.audit.DecisionRecorder;
+import com.tipico.dto.OfferDto;
+import com.tipico.repository.ReactiveCampaignRepository;
+import com.tipico.repository.ReactiveOfferRepository;
+import com.tipico.repository.projection.OfferCandidate;
+import com.tipico.service.engine.CompiledCatalog;
+import com.tipico.service.engine.ConditionEngine;
+import com.tipico.service.engine.EligibilityQuery;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+/**
+ * Eligibility evaluation of the {@code reactive} profile. Offers are read through R2DBC and evaluated one by one as
+ * the client consumes them, against the same compiled catalog as {@link CampaignService}. When the catalog has to be
+ * recompiled, its campaigns are read through R2DBC as well, so no request thread ever waits for JDBC.
+ *
+ * <p>The candidate cache, eligibility profiles and database query mode of {@link CampaignService} are not used.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveCampaignService {
+
+    private final ReactiveOfferRepository offerRepository;
+
+    private final ReactiveCampaignRepository campaignRepository;
+
+    private final ConditionEngine conditionEngine;
+
+    private final EligibilityMetrics metrics;
+
+    private final AuditLog auditLog;
+
+    private final Clock clock;
+
+    /** The latest catalog compilation, shared by the requests needing its version while it is in flight. */
+    private final AtomicReference<CatalogLoad> catalogLoad = new AtomicReference<>();
+
+    public Flux<OfferDto> getEligibleOffers(
+            UUID customerUuid,
+            String country,
+            LocalDateTime registrationDate,
+            int depositAmount,
+            boolean isFirstDeposit) {
+        return Flux.defer(() -> {
+            var now = LocalDateTime.now(clock);
+            return catalog().flatMapMany(catalog -> {
+                var evaluation = new Evaluation(
+                        customerUuid, country, registrationDate, depositAmount, isFirstDeposit, catalog, now);
+                return offerRepository
+                        .findCandidatesByCustomerUuid(customerUuid, now)
+                        .concatMap(candidate -> evaluation.catalog.isUnknown(candidate.campaignId())
+                                ? refreshedCatalog().doOnNext(evaluation::use).thenReturn(candidate)
+                                : Mono.just(candidate))
+                        .<OfferDto>handle(evaluation::evaluate)
+                        .doFinally(signal -> evaluation.finish());
+            });
+        });
+    }
+
+    private Mono<CompiledCatalog> catalog() {
+        return Mono.defer(() -> {
+            var current = conditionEngine.currentCatalog();
+            return current != null ? Mono.just(current) : load(conditionEngine.version());
+        });
+    }
+
+    /** Recompiles the catalog, e.g. when an offer references a campaign created after it was compiled. */
+    private Mono<CompiledCatalog> refreshedCatalog() {
+        return Mono.defer(() -> load(conditionEngine.invalidate()));
+    }
+
+    private Mono<CompiledCatalog> load(long version) {
+        while (true) {
+            var pending = catalogLoad.get();
+            if (pending != null && pending.version() >= version) {
+                return pending.catalog();
+            }
+            var now = LocalDateTime.now(clock);
+            // Failed loads are not cached, so the next request retries
+            var catalog = campaignRepository
+                    .findLatestId()
+                    .zipWith(
+                            campaignRepository
+                                    .findAllNotEndedWithConditions(now.truncatedTo(ChronoUnit.DAYS))
+                                    .collectList(),
+                            (latestCampaignId, campaigns) ->
+                                    CompiledCatalog.compile(campaigns, version, latestCampaignId, now))
+                    .map(conditionEngine::install)
+                    .cache(compiled -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO);
+            var load = new CatalogLoad(version, catalog);
+            if (catalogLoad.compareAndSet(pending, load)) {
+                return catalog;
+            }
+        }
+    }
+
+    private record CatalogLoad(long version, Mono<CompiledCatalog> catalog) {}
+
+    /** State of one request. Reactor delivers the offers one at a time, so it needs no synchronization. */
+    private final class Evaluation {
+
+        private final UUID customerUuid;
+
+        private final String country;
+
+        private final LocalDateTime registrationDate;
+
+        private final int depositAmount;
+
+        private final boolean isFirstDeposit;
+
+        private final DecisionRecorder recorder;
+
+        private CompiledCatalog catalog;
+
+        private EligibilityQuery query;
+
+        private int potentialCount;
+
+        private int eligibleCount;
+
+        private Evaluation(
+                UUID customerUuid,
+                String country,
+                LocalDateTime registrationDate,
+                int depositAmount,
+                boolean isFirstDeposit,
+                CompiledCatalog catalog,
+                LocalDateTime now) {
+            this.customerUuid = customerUuid;
+            this.country = country;
+            this.registrationDate = registrationDate;
+            this.depositAmount = depositAmount;
+            this.isFirstDeposit = isFirstDeposit;
+            use(catalog);
+            this.recorder = auditLog.recorder(customerUuid, catalog, query, now);
+        }
+
+        private void use(CompiledCatalog catalog) {
+            this.catalog = catalog;
+            this.query = catalog.prepare(country, registrationDate, depositAmount, isFirstDeposit);
+        }
+
+        private void evaluate(OfferCandidate candidate, SynchronousSink<OfferDto> sink) {
+            var index = catalog.indexOf(candidate.campaignId());
+            if (index < 0 || !catalog.isActive(index)) {
+                recorder.notRunning(candidate.offerUuid(), candidate.campaignId());
+                return;
+            }
+            potentialCount++;
+            var failingCondition = catalog.firstFailingCondition(index, query);
+            recorder.evaluated(candidate.offerUuid(), candidate.campaignId(), failingCondition);
+            if (failingCondition != null) {
+                metrics.recordRejection(catalog, index, failingCondition);
+                return;
+            }
+            eligibleCount++;
+            sink.next(new OfferDto(candidate.offerUuid()));
+        }
+
+        private void finish() {
+            recorder.finish();
+            metrics.recordOffers(potentialCount, eligibleCount);
+            log.info("Found {} eligible offers for customer {}", eligibleCount, customerUuid);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.tipico.service;
+
+import com.tipico.config.CampaignProperties;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deduplicates concurrent loads of the same key. The first caller (the leader) runs the load; callers arriving while it
+ * is in flight wait for its result instead of running their own.
+ *
+ * <p>Waiting is bounded by {@code campaign.eligibility.coalescing-max-wait}. A caller that times out, or whose leader
+ * failed, falls back to loading on its own, so a slow or failing leader never fails its followers. Results are not
+ * retained once the leader completes; keys of different types never collide, as they are compared with
+ * {@code equals}.
+ *
+ * <p>In the {@code IN_MEMORY} query mode with the offer cache enabled, Caffeine already loads a missing customer of the
+ * {@link OfferCandidateCache} once while concurrent lookups of it wait, so coalescing adds the bounded wait there
+ * rather than saving loads. It saves loads when the offer cache is disabled and in the {@code DATABASE} query mode,
+ * whose queries are not cached.
+ */
+@Component
+public class SingleFlight {
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+
+    private final long maxWaitNanos;
+
+    private final EligibilityMetrics metrics;
+
+    public SingleFlight(CampaignProperties properties, EligibilityMetrics metrics) {
+        this(
+                properties.eligibility().coalesceLoads(),
+                properties.eligibility().coalescingMaxWait(),
+                metrics);
+    }
+
+    SingleFlight(boolean enabled, Duration maxWait, EligibilityMetrics metrics) {
+        this.enabled = enabled;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.metrics = metrics;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V load(Object key, Supplier<V> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        var call = new CompletableFuture<Object>();
+        var leader = inFlight.putIfAbsent(key, call);
+        if (leader == null) {
+            return lead(key, call, loader);
+        }
+
+        try {
+            var value = (V) leader.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            metrics.recordCoalesced();
+            return value;
+        } catch (TimeoutException e) {
+            metrics.recordCoalescingTimeout();
+        } catch (ExecutionException e) {
+            metrics.recordCoalescingLeaderFailure();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a concurrent load of " + key, e);
+        }
+        return loader.get();
+    }
+
+    /** Returns how many callers wait for the load of the key currently in flight. */
+    int waiting(Object key) {
+        var call = inFlight.get(key);
+        return call == null ? 0 : call.getNumberOfDependents();
+    }
+
+    private <V> V lead(Object key, CompletableFuture<Object> call, Supplier<V> loader) {
+        try {
+            var value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+}
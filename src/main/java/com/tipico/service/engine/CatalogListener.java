@@ -0,0 +1,11 @@
+package com.tipico.service.engine;
+
+/** Notified by the {@link ConditionEngine} whenever a newly compiled catalog becomes the current one. */
+public interface CatalogListener {
+
+    /**
+     * Called once per compiled catalog, not for the snapshots derived from it when campaigns start or end. Catalogs of
+     * concurrent compilations may be reported out of order.
+     */
+    void catalogInstalled(CompiledCatalog catalog);
+}
@@ -0,0 +1,297 @@
+package com.tipico.service.engine;
+
+import com.tipico.model.Campaign;
+import com.tipico.model.condition.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Immutable view of campaign conditions compiled once per catalog change.
+ *
+ * <p>Campaigns are addressed by a dense index (ordered by campaign id). Country conditions are kept as an inverted
+ * index from normalized country to the campaigns requiring it, first deposit flags as bitsets and thresholds as
+ * primitive arrays, so evaluating a campaign does not allocate.
+ *
+ * <p>Each instance also records which campaigns are running during a time window, from the moment it was derived
+ * until the next campaign start or end. {@link #activeAt} derives the instance for a later moment, sharing the
+ * compiled conditions.
+ */
+public final class CompiledCatalog {
+
+    private static final BitSet NO_CAMPAIGNS = new BitSet();
+
+    private final long version;
+
+    private final long[] campaignIds;
+
+    private final long[] minRegistrationSeconds;
+
+    private final int[] minRegistrationNanos;
+
+    private final int[] minDepositAmount;
+
+    private final BitSet anyCountry;
+
+    private final Map<String, BitSet> countryIndex;
+
+    private final BitSet firstDepositRequired;
+
+    private final BitSet firstDepositNeverMet;
+
+    private final LocalDateTime[] startDates;
+
+    private final LocalDateTime[] endDates;
+
+    private final long latestCampaignId;
+
+    private final BitSet active;
+
+    private final LocalDateTime activeFrom;
+
+    private final LocalDateTime activeUntil;
+
+    private CompiledCatalog(long version, int size, long latestCampaignId) {
+        this.version = version;
+        this.latestCampaignId = latestCampaignId;
+        this.campaignIds = new long[size];
+        this.minRegistrationSeconds = new long[size];
+        this.minRegistrationNanos = new int[size];
+        this.minDepositAmount = new int[size];
+        this.anyCountry = new BitSet(size);
+        this.countryIndex = new HashMap<>();
+        this.firstDepositRequired = new BitSet(size);
+        this.firstDepositNeverMet = new BitSet(size);
+        this.startDates = new LocalDateTime[size];
+        this.endDates = new LocalDateTime[size];
+        this.active = new BitSet(size);
+        this.activeFrom = LocalDateTime.MAX;
+        this.activeUntil = LocalDateTime.MIN;
+    }
+
+    private CompiledCatalog(CompiledCatalog compiled, LocalDateTime now) {
+        this.version = compiled.version;
+        this.latestCampaignId = compiled.latestCampaignId;
+        this.campaignIds = compiled.campaignIds;
+        this.minRegistrationSeconds = compiled.minRegistrationSeconds;
+        this.minRegistrationNanos = compiled.minRegistrationNanos;
+        this.minDepositAmount = compiled.minDepositAmount;
+        this.anyCountry = compiled.anyCountry;
+        this.countryIndex = compiled.countryIndex;
+        this.firstDepositRequired = compiled.firstDepositRequired;
+        this.firstDepositNeverMet = compiled.firstDepositNeverMet;
+        this.startDates = compiled.startDates;
+        this.endDates = compiled.endDates;
+        this.active = new BitSet(campaignIds.length);
+        this.activeFrom = now;
+
+        LocalDateTime nextTransition = null;
+        for (int index = 0; index < campaignIds.length; index++) {
+            var start = startDates[index];
+            var end = endDates[index];
+            if (start == null || end == null) {
+                continue;
+            }
+            LocalDateTime transition;
+            if (start.isAfter(now)) {
+                transition = start;
+            } else if (!end.isBefore(now)) {
+                active.set(index);
+                transition = end.plusNanos(1);
+            } else {
+                continue;
+            }
+            if (nextTransition == null || transition.isBefore(nextTransition)) {
+                nextTransition = transition;
+            }
+        }
+        this.activeUntil = nextTransition == null ? LocalDateTime.MAX : nextTransition;
+    }
+
+    /**
+     * Compiles the conditions of the given campaigns.
+     *
+     * @param latestCampaignId the highest campaign id that existed when the campaigns were read; campaigns with a
+     *     lower id missing from the catalog are known to be over or deleted
+     * @param now the moment for which the running campaigns are determined
+     */
+    public static CompiledCatalog compile(
+            Collection<Campaign> campaigns, long version, long latestCampaignId, LocalDateTime now) {
+        var sorted = campaigns.stream()
+                .filter(campaign -> campaign.getId() != null)
+                .sorted(Comparator.comparing(Campaign::getId))
+                .toList();
+        var latest = sorted.isEmpty() ? latestCampaignId : Math.max(latestCampaignId, sorted.getLast().getId());
+        var catalog = new CompiledCatalog(version, sorted.size(), latest);
+        for (int index = 0; index < sorted.size(); index++) {
+            catalog.add(index, sorted.get(index));
+        }
+        return catalog.activeAt(now);
+    }
+
+    /** Derives the catalog for a later (or earlier) moment, reusing the compiled conditions. */
+    public CompiledCatalog activeAt(LocalDateTime now) {
+        return new CompiledCatalog(this, now);
+    }
+
+    /** Whether the set of running campaigns of this instance is still accurate at the given moment. */
+    public boolean isCurrentAt(LocalDateTime now) {
+        return !now.isBefore(activeFrom) && now.isBefore(activeUntil);
+    }
+
+    /** The moment at which the next campaign starts or ends, or {@link LocalDateTime#MAX} if none will. */
+    public LocalDateTime activeUntil() {
+        return activeUntil;
+    }
+
+    private void add(int index, Campaign campaign) {
+        campaignIds[index] = campaign.getId();
+        startDates[index] = campaign.getStartDate();
+        endDates[index] = campaign.getEndDate();
+        minRegistrationSeconds[index] = Long.MIN_VALUE;
+        minDepositAmount[index] = Integer.MIN_VALUE;
+
+        String requiredCountry = null;
+        boolean countryConflict = false;
+        boolean hasCountryCondition = false;
+
+        var conditions = campaign.getConditions() == null ? List.<Condition>of() : campaign.getConditions();
+        for (var condition : conditions) {
+            switch (condition) {
+                case CountryCondition c -> {
+                    var country = c.getData() == null ? null : normalize(c.getData());
+                    countryConflict |= country == null || (hasCountryCondition && !country.equals(requiredCountry));
+                    requiredCountry = country;
+                    hasCountryCondition = true;
+                }
+                case RegistrationDateCondition c -> raiseMinRegistration(index, c.getData());
+                case MinimumDepositAmountCondition c -> minDepositAmount[index] =
+                        Math.max(minDepositAmount[index], c.getData());
+                case IsFirstDepositCondition c -> {
+                    if (c.isData()) {
+                        firstDepositRequired.set(index);
+                    } else {
+                        firstDepositNeverMet.set(index);
+                    }
+                }
+            }
+        }
+
+        if (!hasCountryCondition) {
+            anyCountry.set(index);
+        } else if (!countryConflict) {
+            countryIndex.computeIfAbsent(requiredCountry, key -> new BitSet()).set(index);
+        }
+    }
+
+    private void raiseMinRegistration(int index, LocalDateTime date) {
+        if (date == null) {
+            minRegistrationSeconds[index] = Long.MAX_VALUE;
+            minRegistrationNanos[index] = Integer.MAX_VALUE;
+            return;
+        }
+        var seconds = epochSeconds(date);
+        var nanos = date.getNano();
+        if (compare(seconds, nanos, minRegistrationSeconds[index], minRegistrationNanos[index]) > 0) {
+            minRegistrationSeconds[index] = seconds;
+            minRegistrationNanos[index] = nanos;
+        }
+    }
+
+    public EligibilityQuery prepare(
+            String country, LocalDateTime registrationDate, int depositAmount, boolean isFirstDeposit) {
+        var countryCampaigns = countryIndex.getOrDefault(normalize(country), NO_CAMPAIGNS);
+        return new EligibilityQuery(country, registrationDate, countryCampaigns, depositAmount, isFirstDeposit);
+    }
+
+    /**
+     * Returns the first condition of the campaign at {@code index} that the query does not satisfy, or {@code null}
+     * when the campaign is eligible.
+     */
+    public ConditionType firstFailingCondition(int index, EligibilityQuery query) {
+        return firstFailingCondition(index, query, query.depositAmount);
+    }
+
+    /**
+     * Returns the first condition other than the minimum deposit amount that the query does not satisfy, or
+     * {@code null}. Together with {@link #minimumDepositAmount} it decides the campaign for any deposit amount.
+     */
+    public ConditionType firstFailingConditionIgnoringDeposit(int index, EligibilityQuery query) {
+        return firstFailingCondition(index, query, Integer.MAX_VALUE);
+    }
+
+    /** The lowest deposit amount the campaign at {@code index} accepts. */
+    public int minimumDepositAmount(int index) {
+        return minDepositAmount[index];
+    }
+
+    private ConditionType firstFailingCondition(int index, EligibilityQuery query, int depositAmount) {
+        if (!anyCountry.get(index) && !query.countryCampaigns.get(index)) {
+            return ConditionType.COUNTRY;
+        }
+        if (compare(
+                        query.registrationSeconds,
+                        query.registrationNanos,
+                        minRegistrationSeconds[index],
+                        minRegistrationNanos[index])
+                < 0) {
+            return ConditionType.REGISTRATION_DATE;
+        }
+        if (depositAmount < minDepositAmount[index]) {
+            return ConditionType.MINIMUM_DEPOSIT_AMOUNT;
+        }
+        if (firstDepositNeverMet.get(index) || (firstDepositRequired.get(index) && !query.isFirstDeposit)) {
+            return ConditionType.IS_FIRST_DEPOSIT;
+        }
+        return null;
+    }
+
+    public boolean matches(int index, EligibilityQuery query) {
+        return firstFailingCondition(index, query) == null;
+    }
+
+    /** Returns the dense index of the campaign, or a negative value when the catalog does not contain it. */
+    public int indexOf(long campaignId) {
+        return Arrays.binarySearch(campaignIds, campaignId);
+    }
+
+    /** Whether the campaign at {@code index} is running during this instance's time window. */
+    public boolean isActive(int index) {
+        return active.get(index);
+    }
+
+    /** Whether the campaign was created after this catalog was compiled, so a recompilation would include it. */
+    public boolean isUnknown(long campaignId) {
+        return campaignId > latestCampaignId && indexOf(campaignId) < 0;
+    }
+
+    /** The highest campaign id that existed when this catalog was compiled. */
+    public long latestCampaignId() {
+        return latestCampaignId;
+    }
+
+    public long campaignId(int index) {
+        return campaignIds[index];
+    }
+
+    public int size() {
+        return campaignIds.length;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    static long epochSeconds(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static int compare(long seconds, int nanos, long otherSeconds, int otherNanos) {
+        var result = Long.compare(seconds, otherSeconds);
+        return result != 0 ? result : Integer.compare(nanos, otherNanos);
+    }
+
+    private static String normalize(String country) {
+        return country.toUpperCase(Locale.ROOT);
+    }
+}
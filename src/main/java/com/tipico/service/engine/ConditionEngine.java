@@ -0,0 +1,235 @@
+package com.tipico.service.engine;
+
+import com.tipico.event.CatalogChangedEvent;
+import com.tipico.repository.CampaignRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Holds the {@link CompiledCatalog} of all campaigns that have not ended yet.
+ *
+ * <p>The catalog is compiled lazily and recompiled from the database on the first read after a committed change to
+ * campaigns or conditions. Campaigns are swapped in and out at their start and end dates without touching the
+ * database: by a timer driven by the injected {@link Clock}, and on every read that finds the current snapshot
+ * outdated for the clock's time. Reads of an up-to-date snapshot never lock. {@link CatalogListener}s are told about
+ * every compiled catalog that is made current.
+ */
+@Slf4j
+@Component
+public class ConditionEngine implements DisposableBean {
+
+    private static final Duration MAX_SWAP_DELAY = Duration.ofDays(1);
+
+    private static final int MAX_TRACKED_CHANGES = 1024;
+
+    private static final long ANY_CAMPAIGN = -1;
+
+    private final CampaignRepository campaignRepository;
+
+    private final Clock clock;
+
+    private final List<CatalogListener> listeners;
+
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    private final AtomicReference<CompiledCatalog> catalog = new AtomicReference<>();
+
+    /** The campaign changed by each of the latest version bumps, {@link #ANY_CAMPAIGN} if it is not known. */
+    private final ConcurrentSkipListMap<Long, Long> changes = new ConcurrentSkipListMap<>();
+
+    private final AtomicReference<ScheduledFuture<?>> nextSwap = new AtomicReference<>();
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("catalog-swap").daemon().factory());
+
+    public ConditionEngine(CampaignRepository campaignRepository, Clock clock, List<CatalogListener> listeners) {
+        this.campaignRepository = campaignRepository;
+        this.clock = clock;
+        this.listeners = List.copyOf(listeners);
+    }
+
+    public CompiledCatalog catalog() {
+        var current = currentCatalog();
+        return current != null ? current : rebuild();
+    }
+
+    /**
+     * Returns the catalog without touching the database, or {@code null} when it has to be recompiled first. Callers
+     * that must not block compile it themselves from campaigns read at {@link #version()} and {@link #install} it.
+     */
+    public CompiledCatalog currentCatalog() {
+        while (true) {
+            var current = catalog.get();
+            if (current == null || current.version() != catalogVersion.get()) {
+                return null;
+            }
+            var now = LocalDateTime.now(clock);
+            if (current.isCurrentAt(now)) {
+                return current;
+            }
+            var swapped = current.activeAt(now);
+            if (catalog.compareAndSet(current, swapped)) {
+                log.info("Swapped running campaigns at {}, next change at {}", now, swapped.activeUntil());
+                scheduleSwap(swapped);
+                return swapped;
+            }
+        }
+    }
+
+    /** Forces a recompilation, e.g. when a campaign is referenced that the current catalog does not know yet. */
+    public CompiledCatalog refresh() {
+        invalidate();
+        return rebuild();
+    }
+
+    /** Like {@link #refresh()}, but leaves the recompilation to the caller. Returns the version to compile. */
+    public long invalidate() {
+        recordChange(ANY_CAMPAIGN);
+        return catalogVersion.get();
+    }
+
+    /** The version a catalog compiled from the campaigns in the database now would have. */
+    public long version() {
+        return catalogVersion.get();
+    }
+
+    /**
+     * Makes a catalog compiled by the caller the current one, unless a catalog of the same or a later version was
+     * installed meanwhile. The campaigns must have been read after {@link #version()} returned its version.
+     */
+    public CompiledCatalog install(CompiledCatalog compiled) {
+        while (true) {
+            var current = catalog.get();
+            if (current != null && current.version() >= compiled.version()) {
+                return compiled;
+            }
+            if (catalog.compareAndSet(current, compiled)) {
+                log.info(
+                        "Installed conditions of {} campaigns (catalog version {})",
+                        compiled.size(),
+                        compiled.version());
+                scheduleSwap(compiled);
+                notifyListeners(compiled);
+                return compiled;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        recordChange(event.campaignId() == null ? ANY_CAMPAIGN : event.campaignId());
+    }
+
+    /**
+     * Returns the campaigns that changed after catalog version {@code fromVersion} up to {@code toVersion}, or
+     * {@code null} if that is not known, e.g. because any campaign may have changed or the versions are too far
+     * apart. Campaigns created in between are included.
+     */
+    public Set<Long> changedCampaigns(long fromVersion, long toVersion) {
+        if (fromVersion == toVersion) {
+            return Set.of();
+        }
+        var between = changes.subMap(fromVersion, false, toVersion, true);
+        // A missing version was dropped from the log, or is still being recorded
+        if (fromVersion > toVersion || between.size() != toVersion - fromVersion) {
+            return null;
+        }
+        var campaignIds = new HashSet<Long>();
+        for (var campaignId : between.values()) {
+            if (campaignId == ANY_CAMPAIGN) {
+                return null;
+            }
+            campaignIds.add(campaignId);
+        }
+        return campaignIds;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private void recordChange(long campaignId) {
+        changes.put(catalogVersion.incrementAndGet(), campaignId);
+        while (changes.size() > MAX_TRACKED_CHANGES) {
+            changes.pollFirstEntry();
+        }
+    }
+
+    private CompiledCatalog rebuild() {
+        rebuildLock.lock();
+        try {
+            var version = catalogVersion.get();
+            var current = catalog.get();
+            if (current != null && current.version() == version) {
+                return catalog();
+            }
+            var now = LocalDateTime.now(clock);
+            var latestCampaignId = campaignRepository.findLatestId();
+            // Campaigns that ended earlier today are compiled as inactive; the coarse bound lets the query cache hit
+            var rebuilt = CompiledCatalog.compile(
+                    campaignRepository.findAllNotEndedWithConditions(now.truncatedTo(ChronoUnit.DAYS)),
+                    version,
+                    latestCampaignId == null ? 0 : latestCampaignId,
+                    now);
+            catalog.set(rebuilt);
+            log.info("Compiled conditions of {} campaigns (catalog version {})", rebuilt.size(), version);
+            scheduleSwap(rebuilt);
+            notifyListeners(rebuilt);
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void notifyListeners(CompiledCatalog installed) {
+        for (var listener : listeners) {
+            listener.catalogInstalled(installed);
+        }
+    }
+
+    private void scheduleSwap(CompiledCatalog current) {
+        if (current.activeUntil().equals(LocalDateTime.MAX) || scheduler.isShutdown()) {
+            return;
+        }
+        var delay = Duration.between(LocalDateTime.now(clock), current.activeUntil());
+        if (delay.isNegative()) {
+            delay = Duration.ZERO;
+        } else if (delay.compareTo(MAX_SWAP_DELAY) > 0) {
+            delay = MAX_SWAP_DELAY;
+        }
+        var scheduled = scheduler.schedule(this::swapOnTimer, delay.toNanos(), TimeUnit.NANOSECONDS);
+        var previous = nextSwap.getAndSet(scheduled);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    private void swapOnTimer() {
+        try {
+            // Reading swaps the snapshot when due. The timer may fire slightly early, so it is re-armed either way.
+            scheduleSwap(catalog());
+        } catch (RuntimeException e) {
+            log.warn("Could not swap running campaigns", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.tipico.service.engine;
+
+import com.tipico.model.condition.*;
+import jakarta.persistence.DiscriminatorValue;
+import java.util.Arrays;
+
+public enum ConditionType {
+    COUNTRY(CountryCondition.class),
+    REGISTRATION_DATE(RegistrationDateCondition.class),
+    MINIMUM_DEPOSIT_AMOUNT(MinimumDepositAmountCondition.class),
+    IS_FIRST_DEPOSIT(IsFirstDepositCondition.class);
+
+    private final Class<? extends Condition> conditionClass;
+
+    ConditionType(Class<? extends Condition> conditionClass) {
+        this.conditionClass = conditionClass;
+    }
+
+    public Class<? extends Condition> conditionClass() {
+        return conditionClass;
+    }
+
+    /** The value of the {@code type} column identifying this condition in the {@code condition} table. */
+    public String discriminatorValue() {
+        return conditionClass.getAnnotation(DiscriminatorValue.class).value();
+    }
+
+    public static ConditionType fromDiscriminatorValue(String discriminatorValue) {
+        return Arrays.stream(values())
+                .filter(type -> type.discriminatorValue().equals(discriminatorValue))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown condition type " + discriminatorValue));
+    }
+}
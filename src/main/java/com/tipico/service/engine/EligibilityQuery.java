@@ -0,0 +1,56 @@
+package com.tipico.service.engine;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+
+/**
+ * Request parameters resolved against a {@link CompiledCatalog}, so that every campaign check is a handful of
+ * primitive comparisons. Only valid for the catalog that prepared it.
+ */
+public final class EligibilityQuery {
+
+    final String country;
+
+    final LocalDateTime registrationDate;
+
+    final BitSet countryCampaigns;
+
+    final long registrationSeconds;
+
+    final int registrationNanos;
+
+    final int depositAmount;
+
+    final boolean isFirstDeposit;
+
+    EligibilityQuery(
+            String country,
+            LocalDateTime registrationDate,
+            BitSet countryCampaigns,
+            int depositAmount,
+            boolean isFirstDeposit) {
+        this.country = country;
+        this.registrationDate = registrationDate;
+        this.countryCampaigns = countryCampaigns;
+        this.registrationSeconds = CompiledCatalog.epochSeconds(registrationDate);
+        this.registrationNanos = registrationDate.getNano();
+        this.depositAmount = depositAmount;
+        this.isFirstDeposit = isFirstDeposit;
+    }
+
+    public String country() {
+        return country;
+    }
+
+    public LocalDateTime registrationDate() {
+        return registrationDate;
+    }
+
+    public int depositAmount() {
+        return depositAmount;
+    }
+
+    public boolean isFirstDeposit() {
+        return isFirstDeposit;
+    }
+}
@@ -0,0 +1,238 @@
+package com.tipico.warmup;
+
+import com.tipico.audit.AuditLog;
+import com.tipico.config.CampaignProperties;
+import com.tipico.identity.UuidGenerator;
+import com.tipico.service.CampaignService;
+import com.tipico.service.EligibilityMetrics;
+import com.tipico.service.EligibilityProfileCache;
+import com.tipico.service.ReactiveCampaignService;
+import com.tipico.service.engine.CompiledCatalog;
+import com.tipico.service.engine.ConditionEngine;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warms the application up before it reports ready: fills the connection pool, compiles the campaign catalog and runs
+ * rounds of synthetic eligibility requests for customers that have offers until the 99th percentile latency of a round
+ * meets {@code campaign.warm-up.target-latency}, so the hot path is compiled by the JIT before real traffic arrives.
+ *
+ * <p>Runs after the other startup runners, e.g. {@code CampaignDataSeeder}. Spring Boot only switches the readiness
+ * state to {@code ACCEPTING_TRAFFIC} once all runners completed, so {@code /actuator/health/readiness} reports
+ * {@code OUT_OF_SERVICE} until the warm-up is done. Synthetic requests are not written to the audit log nor recorded in
+ * the eligibility metrics, and the eligibility profiles they built are dropped afterwards. A failing warm-up is logged
+ * and does not prevent the application from starting.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "campaign.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final List<String> COUNTRIES = List.of("POLAND", "GERMANY", "AUSTRIA", "MALTA", "CROATIA");
+
+    private static final int ROWS_PER_CUSTOMER = 10;
+
+    private final DataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConditionEngine conditionEngine;
+
+    private final CampaignService campaignService;
+
+    /** Serves the requests instead of {@link #campaignService} in the {@code reactive} profile, otherwise null. */
+    private final ReactiveCampaignService reactiveCampaignService;
+
+    private final AuditLog auditLog;
+
+    private final EligibilityMetrics metrics;
+
+    private final EligibilityProfileCache eligibilityProfileCache;
+
+    private final CampaignProperties.WarmUp properties;
+
+    private final Clock clock;
+
+    public WarmUpRunner(
+            DataSource dataSource,
+            JdbcTemplate jdbcTemplate,
+            ConditionEngine conditionEngine,
+            CampaignService campaignService,
+            ObjectProvider<ReactiveCampaignService> reactiveCampaignService,
+            AuditLog auditLog,
+            EligibilityMetrics metrics,
+            EligibilityProfileCache eligibilityProfileCache,
+            CampaignProperties properties,
+            Clock clock) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.conditionEngine = conditionEngine;
+        this.campaignService = campaignService;
+        this.reactiveCampaignService = reactiveCampaignService.getIfAvailable();
+        this.auditLog = auditLog;
+        this.metrics = metrics;
+        this.eligibilityProfileCache = eligibilityProfileCache;
+        this.properties = properties.warmUp();
+        this.clock = clock;
+    }
+
+    /** Latency percentiles of one round of synthetic requests, in microseconds. */
+    record Round(long p50, long p99) {}
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var started = System.nanoTime();
+        openConnections();
+        CompiledCatalog catalog;
+        List<UUID> customers;
+        try {
+            catalog = conditionEngine.catalog();
+            customers = sampleCustomers();
+        } catch (RuntimeException e) {
+            log.warn("Warm-up skipped, sampling customers failed", e);
+            return;
+        }
+        log.info(
+                "Warming up: {} campaigns compiled, {} customers sampled, target p99 {}",
+                catalog.size(),
+                customers.size(),
+                properties.targetLatency());
+        if (customers.isEmpty()) {
+            log.info("Warm-up finished in {} ms without synthetic requests", elapsedMillis(started));
+            return;
+        }
+
+        var random = new SplittableRandom(customers.size());
+        var deadline = started + properties.maxDuration().toNanos();
+        var targetMicros = TimeUnit.NANOSECONDS.toMicros(properties.targetLatency().toNanos());
+        Round first = null;
+        Round last;
+        var rounds = 0;
+        try {
+            do {
+                last = round(customers, random);
+                rounds++;
+                if (first == null) {
+                    first = last;
+                }
+            } while (last.p99() > targetMicros && System.nanoTime() - deadline < 0);
+        } catch (RuntimeException e) {
+            log.warn("Warm-up stopped after {} rounds, synthetic request failed", rounds, e);
+            return;
+        } finally {
+            eligibilityProfileCache.invalidateAll();
+        }
+
+        if (last.p99() > targetMicros) {
+            log.warn(
+                    "Warm-up did not reach p99 {} within {}: {} rounds, p99 {} us",
+                    properties.targetLatency(),
+                    properties.maxDuration(),
+                    rounds,
+                    last.p99());
+        }
+        log.info(
+                "Warm-up finished in {} ms after {} rounds: p50 {} us -> {} us, p99 {} us -> {} us",
+                elapsedMillis(started),
+                rounds,
+                first.p50(),
+                last.p50(),
+                first.p99(),
+                last.p99());
+    }
+
+    Round round(List<UUID> customers, SplittableRandom random) {
+        var latencies = new long[Math.max(1, properties.requestsPerRound())];
+        var now = LocalDateTime.now(clock);
+        auditLog.withoutRecording(() -> metrics.withoutRecording(() -> {
+            for (int i = 0; i < latencies.length; i++) {
+                var customerUuid = customers.get(random.nextInt(customers.size()));
+                var country = COUNTRIES.get(random.nextInt(COUNTRIES.size()));
+                var registrationDate = now.minusDays(random.nextInt(1, 3650));
+                var depositAmount = random.nextInt(1, 1000);
+                var isFirstDeposit = random.nextBoolean();
+                var start = System.nanoTime();
+                if (reactiveCampaignService != null) {
+                    reactiveCampaignService
+                            .getEligibleOffers(customerUuid, country, registrationDate, depositAmount, isFirstDeposit)
+                            .then()
+                            .block();
+                } else {
+                    campaignService.getEligibleOffers(
+                            customerUuid, country, registrationDate, depositAmount, isFirstDeposit);
+                }
+                latencies[i] = System.nanoTime() - start;
+            }
+        }));
+        Arrays.sort(latencies);
+        return new Round(
+                TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length / 2]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[(int) Math.ceil(latencies.length * 0.99) - 1]));
+    }
+
+    /** Borrows connections at once so the pool does not open them under the first requests. */
+    private void openConnections() {
+        var count = properties.connections();
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                count = Math.min(count, dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize());
+            }
+        } catch (SQLException e) {
+            log.debug("Could not determine the connection pool size", e);
+        }
+        var connections = new ArrayList<Connection>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                connections.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            log.warn("Opened {} of {} connections during warm-up", connections.size(), count, e);
+        } finally {
+            for (var connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Could not return a warm-up connection", e);
+                }
+            }
+        }
+    }
+
+    private List<UUID> sampleCustomers() {
+        var rows = jdbcTemplate.queryForList(
+                "select customer_uuid from offer where customer_uuid is not null and expiration_date >= ?"
+                        + " fetch first ? rows only",
+                byte[].class,
+                LocalDateTime.now(clock),
+                properties.customers() * ROWS_PER_CUSTOMER);
+        var customers = new LinkedHashSet<UUID>();
+        for (var row : rows) {
+            customers.add(UuidGenerator.fromBytes(row));
+            if (customers.size() == properties.customers()) {
+                break;
+            }
+        }
+        return List.copyOf(customers);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+    }
+}
@@ -0,0 +1,42 @@
+CREATE TABLE campaign
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    uuid       UUID,
+    name       VARCHAR(255),
+    start_date TIMESTAMP(6),
+    end_date   TIMESTAMP(6),
+    amount     INTEGER NOT NULL,
+    CONSTRAINT uk_campaign_uuid UNIQUE (uuid)
+);
+
+-- Condition types share the data column; values are stored in their string form and cast per type when queried.
+CREATE TABLE condition
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    type        VARCHAR(31) NOT NULL,
+    campaign_id BIGINT,
+    data        VARCHAR(255)
+);
+
+CREATE TABLE offer
+(
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    uuid            UUID,
+    customer_uuid   UUID,
+    campaign_id     BIGINT,
+    expiration_date TIMESTAMP(6)
+);
+
+-- Covers the candidate lookup (customer, unexpired) and carries the campaign id needed to join or consult the catalog.
+CREATE INDEX idx_offer_customer_expiration_campaign ON offer (customer_uuid, expiration_date, campaign_id);
+
+-- Backs the per-campaign condition lookup and the foreign key below.
+CREATE INDEX idx_condition_campaign_type ON condition (campaign_id, type);
+
+CREATE INDEX idx_offer_campaign ON offer (campaign_id);
+
+ALTER TABLE condition
+    ADD CONSTRAINT fk_condition_campaign FOREIGN KEY (campaign_id) REFERENCES campaign (id);
+
+ALTER TABLE offer
+    ADD CONSTRAINT fk_offer_campaign FOREIGN KEY (campaign_id) REFERENCES campaign (id);
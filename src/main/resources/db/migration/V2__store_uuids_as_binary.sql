@@ -0,0 +1,4 @@
+-- Identifiers are stored as fixed 16-byte binary values, big-endian as produced by the UUID's two longs.
+ALTER TABLE campaign ALTER COLUMN uuid SET DATA TYPE BINARY(16);
+ALTER TABLE offer ALTER COLUMN uuid SET DATA TYPE BINARY(16);
+ALTER TABLE offer ALTER COLUMN customer_uuid SET DATA TYPE BINARY(16);
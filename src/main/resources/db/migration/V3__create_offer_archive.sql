@@ -0,0 +1,13 @@
+-- Offers past their expiration date or campaign end date, moved out of offer by OfferArchiver.
+-- No foreign key to campaign, so campaigns can be removed once all their offers are archived.
+CREATE TABLE offer_archive
+(
+    id              BIGINT PRIMARY KEY,
+    uuid            BINARY(16),
+    customer_uuid   BINARY(16),
+    campaign_id     BIGINT,
+    expiration_date TIMESTAMP(6),
+    archived_at     TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_offer_archive_customer ON offer_archive (customer_uuid);
@@ -0,0 +1,2 @@
+-- Serves the streamed offer lookup in keyset order: equal customer, then offer id, without sorting.
+CREATE INDEX idx_offer_customer_id ON offer (customer_uuid, id);
@@ -0,0 +1,7 @@
+-- Offer ids can be handed out again once the offers holding them are archived, so the archive keys its own rows and
+-- keeps the offer id as a plain column.
+ALTER TABLE offer_archive DROP PRIMARY KEY;
+ALTER TABLE offer_archive ALTER COLUMN id RENAME TO original_id;
+ALTER TABLE offer_archive ADD COLUMN id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY BEFORE original_id;
+
+CREATE INDEX idx_offer_archive_original_id ON offer_archive (original_id);
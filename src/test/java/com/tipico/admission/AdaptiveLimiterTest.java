@@ -0,0 +1,167 @@
+package com.tipico.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tipico.admission.AdaptiveLimiter.Outcome;
+import com.tipico.config.CampaignProperties.CallerPriority;
+import com.tipico.config.TestCampaignProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Given the limit is reached and the queue has no capacity, reject at once")
+    void rejectsWhenQueueIsFull() throws InterruptedException {
+        var testSubject = limiter(Map.of("initial-limit", "2", "min-limit", "1", "queue-capacity", "0"));
+
+        assertEquals(Outcome.ADMITTED, testSubject.acquire(CallerPriority.NORMAL));
+        assertEquals(Outcome.ADMITTED, testSubject.acquire(CallerPriority.NORMAL));
+        assertEquals(Outcome.QUEUE_FULL, testSubject.acquire(CallerPriority.HIGH));
+        var queueFull = registry.get("admission.requests")
+                .tags("priority", "high", "outcome", "queue_full")
+                .counter();
+        assertEquals(1.0, queueFull.count());
+    }
+
+    @Test
+    @DisplayName("Given the limit is reached, reject a waiting request once its deadline passed")
+    void rejectsAfterMaxQueueWait() throws InterruptedException {
+        var testSubject = limiter(Map.of("initial-limit", "1", "min-limit", "1", "max-queue-wait", "20ms"));
+        testSubject.acquire(CallerPriority.NORMAL);
+
+        var start = System.nanoTime();
+        assertEquals(Outcome.TIMED_OUT, testSubject.acquire(CallerPriority.NORMAL));
+
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(20).toNanos());
+        assertEquals(0, testSubject.queued());
+    }
+
+    @Test
+    @DisplayName("Shrink the limit after slow requests and grow it again while fast requests use it")
+    void adaptsLimitToLatency() throws InterruptedException {
+        var testSubject = limiter(Map.of("initial-limit", "10", "min-limit", "2", "backoff-ratio", "0.5"));
+
+        testSubject.acquire(CallerPriority.NORMAL);
+        testSubject.release(SLOW);
+        assertEquals(5.0, testSubject.limit());
+        for (int i = 0; i < 10; i++) {
+            testSubject.acquire(CallerPriority.NORMAL);
+            testSubject.release(SLOW);
+        }
+        assertEquals(2.0, testSubject.limit());
+
+        for (int i = 0; i < 100; i++) {
+            testSubject.acquire(CallerPriority.NORMAL);
+            testSubject.acquire(CallerPriority.NORMAL);
+            testSubject.release(FAST);
+            testSubject.release(FAST);
+        }
+        assertTrue(testSubject.limit() > 2.0);
+    }
+
+    @Test
+    @DisplayName("Given a burst of slow requests, shrink the limit once per limit's worth of them")
+    void shrinksLimitOncePerWindow() throws InterruptedException {
+        var testSubject = limiter(Map.of("initial-limit", "10", "min-limit", "1", "backoff-ratio", "0.5"));
+        for (int i = 0; i < 10; i++) {
+            testSubject.acquire(CallerPriority.NORMAL);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            testSubject.release(SLOW);
+        }
+        assertEquals(5.0, testSubject.limit());
+
+        testSubject.release(SLOW);
+        assertEquals(2.5, testSubject.limit());
+    }
+
+    @Test
+    @DisplayName("Given the limit is not in use, do not grow it")
+    void keepsLimitWhenUnused() throws InterruptedException {
+        var testSubject = limiter(Map.of("initial-limit", "10"));
+
+        for (int i = 0; i < 100; i++) {
+            testSubject.acquire(CallerPriority.NORMAL);
+            testSubject.release(FAST);
+        }
+
+        assertEquals(10.0, testSubject.limit());
+    }
+
+    @Test
+    @DisplayName("Given requests of several priorities wait, admit the highest priority first")
+    void admitsByPriority() throws Exception {
+        var testSubject = limiter(Map.of("initial-limit", "1", "min-limit", "1", "max-queue-wait", "10s"));
+        testSubject.acquire(CallerPriority.NORMAL);
+
+        var low = CompletableFuture.supplyAsync(() -> acquire(testSubject, CallerPriority.LOW));
+        awaitUntil(() -> testSubject.queued() == 1);
+        var high = CompletableFuture.supplyAsync(() -> acquire(testSubject, CallerPriority.HIGH));
+        awaitUntil(() -> testSubject.queued() == 2);
+
+        testSubject.release(FAST);
+        assertEquals(Outcome.ADMITTED, high.get(10, TimeUnit.SECONDS));
+        assertEquals(1, testSubject.queued());
+
+        testSubject.release(FAST);
+        assertEquals(Outcome.ADMITTED, low.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Given the queue is full, let a request take the place of a waiting request of lower priority")
+    void evictsLowerPriority() throws Exception {
+        var testSubject = limiter(
+                Map.of("initial-limit", "1", "min-limit", "1", "queue-capacity", "1", "max-queue-wait", "10s"));
+        testSubject.acquire(CallerPriority.NORMAL);
+
+        var low = CompletableFuture.supplyAsync(() -> acquire(testSubject, CallerPriority.LOW));
+        awaitUntil(() -> testSubject.queued() == 1);
+        var high = CompletableFuture.supplyAsync(() -> acquire(testSubject, CallerPriority.HIGH));
+
+        assertEquals(Outcome.EVICTED, low.get(10, TimeUnit.SECONDS));
+        awaitUntil(() -> testSubject.queued() == 1);
+        assertEquals(Outcome.QUEUE_FULL, testSubject.acquire(CallerPriority.LOW));
+
+        testSubject.release(FAST);
+        assertEquals(Outcome.ADMITTED, high.get(10, TimeUnit.SECONDS));
+    }
+
+    private AdaptiveLimiter limiter(Map<String, String> admission) {
+        var properties = new HashMap<String, String>();
+        admission.forEach((key, value) -> properties.put("campaign.admission." + key, value));
+        var campaignProperties = TestCampaignProperties.of(properties);
+        return new AdaptiveLimiter(campaignProperties, registry);
+    }
+
+    private static Outcome acquire(AdaptiveLimiter limiter, CallerPriority priority) {
+        try {
+            return limiter.acquire(priority);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.tipico.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tipico.config.TestCampaignProperties;
+import com.tipico.model.Campaign;
+import com.tipico.model.condition.*;
+import com.tipico.service.engine.CompiledCatalog;
+import com.tipico.service.engine.ConditionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AuditLogTest {
+
+    private static final LocalDateTime PAST_DATE =
+            LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime FUTURE_DATE =
+            LocalDate.of(2022, Month.JANUARY, 1).atStartOfDay();
+    private static final UUID CUSTOMER_UUID = UUID.fromString("9e61690f-28d7-45ee-a200-2aeea6c4969d");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Recorded decisions are read back with their inputs and outcomes")
+    void roundTrip() {
+        var catalog = CompiledCatalog.compile(
+                List.of(campaign(1L), campaign(2L, new CountryCondition("SWEDEN"))), 7, 3, CURRENT_DATE);
+        var query = catalog.prepare("POLAND", PAST_DATE, 100, true);
+        var offers = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        var auditLog = auditLog("64KB");
+        auditLog.start();
+        var recorder = auditLog.recorder(CUSTOMER_UUID, catalog, query, CURRENT_DATE);
+        recorder.evaluated(offers.get(0), 1L, null);
+        recorder.evaluated(offers.get(1), 2L, ConditionType.COUNTRY);
+        recorder.notRunning(offers.get(2), 3L);
+        recorder.finish();
+        auditLog.stop();
+
+        var records = read();
+        assertEquals(
+                List.of(new AuditRecord(
+                        CURRENT_DATE,
+                        7,
+                        CUSTOMER_UUID,
+                        "POLAND",
+                        PAST_DATE,
+                        100,
+                        true,
+                        List.of(
+                                new OfferDecision(offers.get(0), 1L, true, null),
+                                new OfferDecision(offers.get(1), 2L, true, ConditionType.COUNTRY),
+                                new OfferDecision(offers.get(2), 3L, false, null)))),
+                records);
+    }
+
+    @Test
+    @DisplayName("Given records exceeding one segment, continue in new segments and read all of them in order")
+    void rotatesSegments() {
+        var auditLog = auditLog("4KB");
+        auditLog.start();
+        for (int i = 0; i < 200; i++) {
+            auditLog.record(record(i, new OfferDecision(UUID.randomUUID(), i, true, null)));
+        }
+        auditLog.stop();
+
+        // A restarted log appends new segments instead of overwriting the existing ones
+        var restarted = auditLog("4KB");
+        restarted.start();
+        restarted.record(record(200, new OfferDecision(UUID.randomUUID(), 200, true, null)));
+        restarted.stop();
+
+        var records = read();
+        assertTrue(AuditSegments.list(directory).size() > 2);
+        assertEquals(201, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i, records.get(i).depositAmount());
+        }
+    }
+
+    @Test
+    @DisplayName("Given changed campaign conditions, replay reports the decisions that differ")
+    void replayReportsChangedDecisions() {
+        var unchangedOffer = new OfferDecision(UUID.randomUUID(), 1L, true, null);
+        var changedOffer = new OfferDecision(UUID.randomUUID(), 2L, true, null);
+        var deletedOffer = new OfferDecision(UUID.randomUUID(), 3L, true, ConditionType.IS_FIRST_DEPOSIT);
+        var logged = record(100, unchangedOffer, changedOffer, deletedOffer);
+
+        var catalog = CompiledCatalog.compile(
+                List.of(campaign(1L), campaign(2L, new MinimumDepositAmountCondition(500))), 0, 3, FUTURE_DATE);
+        var changed = new ArrayList<AuditReplayer.ChangedDecision>();
+        AuditReplayer.replay(catalog, logged, changed);
+
+        assertEquals(
+                List.of(
+                        new AuditReplayer.ChangedDecision(
+                                logged,
+                                changedOffer,
+                                new OfferDecision(
+                                        changedOffer.offerUuid(), 2L, true, ConditionType.MINIMUM_DEPOSIT_AMOUNT)),
+                        new AuditReplayer.ChangedDecision(
+                                logged, deletedOffer, new OfferDecision(deletedOffer.offerUuid(), 3L, false, null))),
+                changed);
+    }
+
+    @Test
+    @DisplayName("Given a first record larger than a segment, drop it and keep writing the following ones")
+    void keepsWritingAfterOversizedFirstRecord() throws InterruptedException {
+        var registry = new SimpleMeterRegistry();
+        var auditLog = auditLog("4KB", "1ms", registry);
+        auditLog.start();
+        var decisions = new OfferDecision[1000];
+        for (int i = 0; i < decisions.length; i++) {
+            decisions[i] = new OfferDecision(UUID.randomUUID(), i, true, null);
+        }
+        auditLog.record(record(0, decisions));
+        var dropped = registry.get("audit.records").tag("outcome", "dropped").counter();
+        while (dropped.count() == 0) {
+            Thread.sleep(1);
+        }
+        // Lets flush intervals pass with nothing written yet
+        Thread.sleep(20);
+        auditLog.record(record(1, new OfferDecision(UUID.randomUUID(), 1L, true, null)));
+        auditLog.stop();
+
+        var records = read();
+        assertEquals(1, records.size());
+        assertEquals(1, records.getFirst().depositAmount());
+    }
+
+    @Test
+    @DisplayName("Given segments of 2GB, refuse to start as they cannot be mapped")
+    void rejectsSegmentsOf2Gb() {
+        assertThrows(IllegalStateException.class, () -> auditLog("2GB"));
+    }
+
+    private AuditLog auditLog(String segmentSize) {
+        return auditLog(segmentSize, "1s", new SimpleMeterRegistry());
+    }
+
+    private AuditLog auditLog(String segmentSize, String flushInterval, SimpleMeterRegistry registry) {
+        var properties = TestCampaignProperties.of(Map.of(
+                "campaign.audit.enabled", "true",
+                "campaign.audit.directory", directory.toString(),
+                "campaign.audit.segment-size", segmentSize,
+                "campaign.audit.flush-interval", flushInterval));
+        return new AuditLog(properties, registry);
+    }
+
+    private List<AuditRecord> read() {
+        var records = new ArrayList<AuditRecord>();
+        AuditLogReader.read(directory, records::add);
+        return records;
+    }
+
+    private static AuditRecord record(int depositAmount, OfferDecision... decisions) {
+        return new AuditRecord(
+                CURRENT_DATE, 0, CUSTOMER_UUID, "POLAND", PAST_DATE, depositAmount, true, List.of(decisions));
+    }
+
+    private static Campaign campaign(long id, Condition... conditions) {
+        var campaign = new Campaign();
+        campaign.setId(id);
+        campaign.setStartDate(PAST_DATE);
+        campaign.setEndDate(FUTURE_DATE);
+        campaign.setConditions(List.of(conditions));
+        return campaign;
+    }
+}
@@ -0,0 +1,104 @@
+package com.tipico.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+
+import com.tipico.config.TestCampaignProperties;
+import com.tipico.model.Campaign;
+import com.tipico.model.condition.Condition;
+import com.tipico.model.condition.MinimumDepositAmountCondition;
+import com.tipico.repository.CampaignRepository;
+import com.tipico.service.engine.ConditionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AuditReplayerTest {
+
+    private static final LocalDateTime PAST_DATE =
+            LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final UUID CUSTOMER_UUID = UUID.fromString("9e61690f-28d7-45ee-a200-2aeea6c4969d");
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private CampaignRepository campaignRepository;
+
+    @InjectMocks
+    private AuditReplayer testSubject;
+
+    @Test
+    @DisplayName("Given a campaign that ended since the decision was logged, replay reports no change")
+    void replaysDecisionsOfEndedCampaigns() {
+        var eligible = new OfferDecision(UUID.randomUUID(), 1L, true, null);
+        var belowMinimumDeposit = new OfferDecision(UUID.randomUUID(), 1L, true, ConditionType.MINIMUM_DEPOSIT_AMOUNT);
+        writeLog(record(100, eligible), record(10, belowMinimumDeposit));
+        given(campaignRepository.findLatestId()).willReturn(1L);
+        given(campaignRepository.findAllWithConditions())
+                .willReturn(List.of(campaign(1L, CURRENT_DATE.plusDays(1), new MinimumDepositAmountCondition(50))));
+
+        var report = testSubject.replay(directory);
+
+        assertEquals(2, report.records());
+        assertEquals(2, report.decisions());
+        assertEquals(List.of(), report.changed());
+    }
+
+    @Test
+    @DisplayName("Given a campaign that no longer exists, replay reports it as not running")
+    void reportsDeletedCampaigns() {
+        var logged = record(100, new OfferDecision(UUID.randomUUID(), 2L, true, null));
+        writeLog(logged);
+        given(campaignRepository.findLatestId()).willReturn(2L);
+        given(campaignRepository.findAllWithConditions()).willReturn(List.of(campaign(1L, CURRENT_DATE.plusDays(1))));
+
+        var report = testSubject.replay(directory);
+
+        var expected = logged.decisions().getFirst();
+        assertEquals(
+                List.of(new AuditReplayer.ChangedDecision(
+                        logged, expected, new OfferDecision(expected.offerUuid(), 2L, false, null))),
+                report.changed());
+    }
+
+    private void writeLog(AuditRecord... records) {
+        var properties = TestCampaignProperties.of(Map.of(
+                "campaign.audit.enabled", "true", "campaign.audit.directory", directory.toString()));
+        var auditLog = new AuditLog(properties, new SimpleMeterRegistry());
+        auditLog.start();
+        for (var record : records) {
+            auditLog.record(record);
+        }
+        auditLog.stop();
+    }
+
+    private static AuditRecord record(int depositAmount, OfferDecision... decisions) {
+        return new AuditRecord(
+                CURRENT_DATE, 0, CUSTOMER_UUID, "POLAND", PAST_DATE, depositAmount, true, List.of(decisions));
+    }
+
+    private static Campaign campaign(long id, LocalDateTime endDate, Condition... conditions) {
+        var campaign = new Campaign();
+        campaign.setId(id);
+        campaign.setStartDate(PAST_DATE);
+        campaign.setEndDate(endDate);
+        campaign.setConditions(List.of(conditions));
+        return campaign;
+    }
+}
@@ -0,0 +1,98 @@
+package com.tipico.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tipico.config.TestCampaignProperties;
+import com.tipico.dto.OfferDto;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+class OfferListHttpMessageConverterTest {
+
+    private static final Type OFFER_LIST = new ParameterizedTypeReference<List<OfferDto>>() {}.getType();
+
+    private static final Type STRING_LIST = new ParameterizedTypeReference<List<String>>() {}.getType();
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final OfferListHttpMessageConverter testSubject =
+            new OfferListHttpMessageConverter(new OfferPayloadCache(objectMapper, TestCampaignProperties.of()));
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 23, 24, 256})
+    @DisplayName("Write the same JSON as Jackson does for the whole list")
+    void writesJson(int offerCount) throws Exception {
+        var offers = offers(offerCount);
+
+        var body = write(offers, MediaType.APPLICATION_JSON);
+
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(offers)), objectMapper.readTree(body));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 23, 24, 256, 70000})
+    @DisplayName("Write CBOR that Jackson reads back into the same offers")
+    void writesCbor(int offerCount) throws Exception {
+        var offers = offers(offerCount);
+
+        var body = write(offers, MediaType.APPLICATION_CBOR);
+
+        var read = Jackson2ObjectMapperBuilder.cbor().build().readValue(body, new TypeReference<List<OfferDto>>() {});
+        assertEquals(offers, read);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 100})
+    @DisplayName("Write the offer uuids as 16 bytes each")
+    void writesUuids(int offerCount) throws Exception {
+        var offers = offers(offerCount);
+
+        var body = write(offers, OfferListHttpMessageConverter.OFFER_UUIDS);
+
+        assertEquals(16 * offerCount, body.length);
+        var buffer = ByteBuffer.wrap(body);
+        for (var offer : offers) {
+            assertEquals(offer.uuid(), new UUID(buffer.getLong(), buffer.getLong()));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MediaType.APPLICATION_JSON_VALUE, OfferListHttpMessageConverter.OFFER_UUIDS_VALUE})
+    @DisplayName("Leave lists of other types and all reading to the other converters")
+    void writesOfferListsOnly(String mediaType) {
+        var type = MediaType.parseMediaType(mediaType);
+
+        assertTrue(testSubject.canWrite(OFFER_LIST, List.class, type));
+        assertFalse(testSubject.canWrite(STRING_LIST, List.class, type));
+        assertFalse(testSubject.canWrite(List.class, type));
+        assertFalse(testSubject.canRead(OFFER_LIST, null, type));
+    }
+
+    private byte[] write(List<OfferDto> offers, MediaType mediaType) throws Exception {
+        var message = new MockHttpOutputMessage();
+        testSubject.write(offers, OFFER_LIST, mediaType, message);
+        var body = message.getBodyAsBytes();
+        assertEquals(body.length, message.getHeaders().getContentLength());
+        return body;
+    }
+
+    private static List<OfferDto> offers(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new OfferDto(UUID.randomUUID()))
+                .toList();
+    }
+}
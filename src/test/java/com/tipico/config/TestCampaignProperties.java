@@ -0,0 +1,22 @@
+package com.tipico.config;
+
+import java.util.Map;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+/** Binds {@link CampaignProperties} the way the application does, for tests that construct beans themselves. */
+public final class TestCampaignProperties {
+
+    private TestCampaignProperties() {}
+
+    /** The defaults. */
+    public static CampaignProperties of() {
+        return of(Map.of());
+    }
+
+    /** The defaults overridden by {@code properties}, keyed by full name, e.g. {@code campaign.audit.enabled}. */
+    public static CampaignProperties of(Map<String, String> properties) {
+        return new Binder(new MapConfigurationPropertySource(properties))
+                .bindOrCreate("campaign", CampaignProperties.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.tipico.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tipico.codec.OfferPayloadCache;
+import com.tipico.config.TestCampaignProperties;
+import com.tipico.dto.EligibilityBatchRequest;
+import com.tipico.dto.EligibilityRequest;
+import com.tipico.etag.EligibilityETags;
+import com.tipico.service.CampaignService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+@ExtendWith(MockitoExtension.class)
+class CampaignControllerTest {
+
+    private static final LocalDateTime REGISTRATION_DATE =
+            LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay();
+    private static final UUID CUSTOMER_UUID = UUID.fromString("9e61690f-28d7-45ee-a200-2aeea6c4969d");
+    private static final EligibilityRequest VALID =
+            new EligibilityRequest(UUID.randomUUID(), "POLAND", REGISTRATION_DATE, 100, true);
+
+    @Mock
+    private CampaignService campaignService;
+
+    @Mock
+    private OfferPayloadCache offerPayloadCache;
+
+    @Mock
+    private EligibilityETags eligibilityETags;
+
+    private CampaignController testSubject;
+
+    @BeforeEach
+    void setUp() {
+        var properties = TestCampaignProperties.of();
+        testSubject = new CampaignController(
+                campaignService, properties, new ObjectMapper(), offerPayloadCache, eligibilityETags);
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    @DisplayName("Given a batch item without customer, country or registration date, reject the whole batch")
+    void rejectsIncompleteBatchItems(EligibilityRequest invalid) {
+        var batch = new EligibilityBatchRequest(Arrays.asList(VALID, invalid));
+
+        var exception = assertThrows(ResponseStatusException.class, () -> testSubject.getEligibleOffersBatch(batch));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(campaignService);
+    }
+
+    private static Stream<Arguments> rejectsIncompleteBatchItems() {
+        return Stream.of(
+                Arguments.of((EligibilityRequest) null),
+                Arguments.of(new EligibilityRequest(null, "POLAND", REGISTRATION_DATE, 100, true)),
+                Arguments.of(new EligibilityRequest(CUSTOMER_UUID, null, REGISTRATION_DATE, 100, true)),
+                Arguments.of(new EligibilityRequest(CUSTOMER_UUID, "POLAND", null, 100, true)));
+    }
+}
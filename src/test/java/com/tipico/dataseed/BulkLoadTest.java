@@ -0,0 +1,177 @@
+package com.tipico.dataseed;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tipico.config.CampaignProperties;
+import com.tipico.config.TestCampaignProperties;
+import com.tipico.identity.UuidGenerator;
+import com.tipico.model.Campaign;
+import com.tipico.model.condition.MinimumDepositAmountCondition;
+import com.tipico.model.condition.RegistrationDateCondition;
+import com.tipico.repository.CampaignRepository;
+import com.tipico.repository.ConditionRepository;
+import com.tipico.repository.OfferRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.*;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BulkLoader.class, SyntheticDataGenerator.class, DataImporter.class, UuidGenerator.class})
+class BulkLoadTest {
+
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final CampaignProperties PROPERTIES = TestCampaignProperties.of(Map.of(
+            "campaign.seed.campaigns", "5",
+            "campaign.seed.customers", "20",
+            "campaign.seed.offers-per-customer", "3",
+            "campaign.seed.batch-size", "7",
+            "campaign.seed.condition-mix.country", "1",
+            "campaign.seed.condition-mix.registration-date", "1",
+            "campaign.seed.condition-mix.minimum-deposit-amount", "1",
+            "campaign.seed.condition-mix.is-first-deposit", "1"));
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @Autowired
+    private DataImporter importer;
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private ConditionRepository conditionRepository;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private BulkLoader bulkLoader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path importDirectory;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from offer_archive");
+        offerRepository.deleteAll();
+        conditionRepository.deleteAll();
+        campaignRepository.deleteAll();
+    }
+
+    @TestConfiguration
+    static class TestConfig {
+
+        @Bean
+        @Primary
+        public CampaignProperties campaignProperties() {
+            return PROPERTIES;
+        }
+
+        @Bean
+        public Clock clock() {
+            return Clock.fixed(CURRENT_DATE.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        }
+
+        @Bean
+        public ObjectMapper objectMapper() {
+            return Jackson2ObjectMapperBuilder.json().build();
+        }
+    }
+
+    @Test
+    void generatesConfiguredVolumes() {
+        generator.generate(PROPERTIES.seed());
+
+        assertEquals(5, campaignRepository.count());
+        assertEquals(20, conditionRepository.count());
+        assertEquals(60, offerRepository.count());
+    }
+
+    @Test
+    void identityContinuesAfterGeneratedIds() {
+        generator.generate(PROPERTIES.seed());
+        var latestId = campaignRepository.findLatestId();
+
+        var campaign = new Campaign();
+        campaign.setUuid(UUID.randomUUID());
+        campaign = campaignRepository.save(campaign);
+
+        assertTrue(campaign.getId() > latestId);
+    }
+
+    @Test
+    void offerIdsContinueAfterArchivedOffers() {
+        jdbcTemplate.update(
+                "insert into offer_archive (original_id, archived_at) values (?, ?)", 1_000L, CURRENT_DATE);
+
+        assertEquals(1_001L, bulkLoader.nextId(BulkLoader.OFFER));
+    }
+
+    @Test
+    void importsNdjsonAndCsv() throws IOException {
+        var campaignUuid = UUID.randomUUID();
+        Files.writeString(
+                importDirectory.resolve("campaigns.ndjson"),
+                """
+                {"uuid":"%s","name":"Imported","startDate":"2020-01-01T00:00:00","endDate":"2022-01-01T00:00:00","amount":50}
+                """
+                        .formatted(campaignUuid));
+        Files.writeString(
+                importDirectory.resolve("conditions.csv"),
+                """
+                campaignUuid,type,data
+                %1$s,registrationDate,2020-06-01T00:00:00
+                %1$s,minimumDepositAmount,100
+                """
+                        .formatted(campaignUuid));
+        Files.writeString(
+                importDirectory.resolve("offers.csv"),
+                """
+                uuid,customerUuid,campaignUuid,expirationDate
+                %s,%s,%s,2021-06-01T00:00:00
+                """
+                        .formatted(UUID.randomUUID(), UUID.randomUUID(), campaignUuid));
+
+        importer.importFrom(importDirectory);
+
+        var campaigns = campaignRepository.findAllNotEndedWithConditions(CURRENT_DATE);
+        assertEquals(1, campaigns.size());
+        assertEquals(campaignUuid, campaigns.getFirst().getUuid());
+        assertEquals(1, offerRepository.count());
+        var conditions = campaigns.getFirst().getConditions();
+        assertEquals(2, conditions.size());
+        for (var condition : conditions) {
+            switch (condition) {
+                case RegistrationDateCondition c -> assertEquals(
+                        LocalDate.of(2020, Month.JUNE, 1).atStartOfDay(), c.getData());
+                case MinimumDepositAmountCondition c -> assertEquals(100, c.getData());
+                default -> fail("Unexpected condition " + condition);
+            }
+        }
+    }
+}
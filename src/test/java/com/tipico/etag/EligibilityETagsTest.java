@@ -0,0 +1,143 @@
+package com.tipico.etag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.BDDMockito.given;
+
+import com.tipico.MutableClock;
+import com.tipico.config.TestCampaignProperties;
+import com.tipico.dto.EligibilityRequest;
+import com.tipico.event.CatalogChangedEvent;
+import com.tipico.event.OfferChangedEvent;
+import com.tipico.service.OfferCandidateCache;
+import com.tipico.service.engine.CompiledCatalog;
+import com.tipico.service.engine.ConditionEngine;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class EligibilityETagsTest {
+
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final UUID CUSTOMER_UUID = UUID.fromString("9e61690f-28d7-45ee-a200-2aeea6c4969d");
+    private static final EligibilityRequest REQUEST =
+            new EligibilityRequest(CUSTOMER_UUID, "POLAND", CURRENT_DATE.minusDays(1), 100, true);
+    private static final String ACCEPT = "application/json";
+
+    @Mock
+    private OfferCandidateCache offerCandidateCache;
+
+    @Mock
+    private ConditionEngine conditionEngine;
+
+    private final MutableClock clock = new MutableClock();
+
+    private EligibilityETags testSubject;
+
+    @BeforeEach
+    void setUp() {
+        clock.setTime(CURRENT_DATE);
+        var properties = TestCampaignProperties.of();
+        testSubject = new EligibilityETags(offerCandidateCache, conditionEngine, properties, clock);
+    }
+
+    @Test
+    @DisplayName("Given nothing changed, match the tag of the previous response")
+    void matchesUnchangedResponse() {
+        givenOfferExpiringAt(CURRENT_DATE.plusHours(1));
+        var eTag = testSubject.eTag(testSubject.stamp(REQUEST, ACCEPT));
+
+        assertEquals(eTag, testSubject.unchangedTag(testSubject.stamp(REQUEST, ACCEPT), eTag));
+        assertEquals(eTag, testSubject.unchangedTag(testSubject.stamp(REQUEST, ACCEPT), "\"other\", W/" + eTag));
+    }
+
+    @Test
+    @DisplayName("Given other parameters or another format, do not match the tag")
+    void distinguishesRequests() {
+        givenOfferExpiringAt(CURRENT_DATE.plusHours(1));
+        var eTag = testSubject.eTag(testSubject.stamp(REQUEST, ACCEPT));
+
+        var otherDeposit = new EligibilityRequest(CUSTOMER_UUID, "POLAND", CURRENT_DATE.minusDays(1), 50, true);
+        assertNull(testSubject.unchangedTag(testSubject.stamp(otherDeposit, ACCEPT), eTag));
+        assertNull(testSubject.unchangedTag(testSubject.stamp(REQUEST, "application/cbor"), eTag));
+    }
+
+    @Test
+    @DisplayName("Given a write to the customer's offers or to campaigns, do not match the tag")
+    void changesWithWrites() {
+        givenOfferExpiringAt(CURRENT_DATE.plusHours(1));
+        var eTag = testSubject.eTag(testSubject.stamp(REQUEST, ACCEPT));
+
+        testSubject.onOfferChanged(new OfferChangedEvent(CUSTOMER_UUID));
+        assertNull(testSubject.unchangedTag(testSubject.stamp(REQUEST, ACCEPT), eTag));
+
+        var afterOfferChange = testSubject.eTag(testSubject.stamp(REQUEST, ACCEPT));
+        assertNotEquals(eTag, afterOfferChange);
+        testSubject.onCatalogChanged(new CatalogChangedEvent(1L));
+        assertNull(testSubject.unchangedTag(testSubject.stamp(REQUEST, ACCEPT), afterOfferChange));
+    }
+
+    @Test
+    @DisplayName("Given a stamp taken before a write, never match the tag of the response evaluated after it")
+    void staysStaleAfterConcurrentWrite() {
+        givenOfferExpiringAt(CURRENT_DATE.plusHours(1));
+        var stamp = testSubject.stamp(REQUEST, ACCEPT);
+        testSubject.onOfferChanged(new OfferChangedEvent(CUSTOMER_UUID));
+        var eTag = testSubject.eTag(stamp);
+
+        assertNull(testSubject.unchangedTag(testSubject.stamp(REQUEST, ACCEPT), eTag));
+    }
+
+    @Test
+    @DisplayName("Given the first offer expired since, do not match the tag")
+    void expiresWithFirstOffer() {
+        givenOfferExpiringAt(CURRENT_DATE.plusHours(1));
+        var eTag = testSubject.eTag(testSubject.stamp(REQUEST, ACCEPT));
+
+        clock.setTime(CURRENT_DATE.plusHours(1).minusSeconds(1));
+        assertEquals(eTag, testSubject.unchangedTag(testSubject.stamp(REQUEST, ACCEPT), eTag));
+        clock.setTime(CURRENT_DATE.plusHours(1));
+        assertNull(testSubject.unchangedTag(testSubject.stamp(REQUEST, ACCEPT), eTag));
+    }
+
+    @Test
+    @DisplayName("Given the customer's offers are not cached, do not tag the response")
+    void skipsUncachedOffers() {
+        assertNull(testSubject.eTag(testSubject.stamp(REQUEST, ACCEPT)));
+    }
+
+    @Test
+    @DisplayName("Given a customer without offers, keep the tag until a campaign starts or ends")
+    void tagsCustomersWithoutOffers() {
+        givenOfferExpiringAt(LocalDateTime.MAX);
+        var eTag = testSubject.eTag(testSubject.stamp(REQUEST, ACCEPT));
+
+        clock.setTime(CURRENT_DATE.plusYears(1));
+        assertEquals(eTag, testSubject.unchangedTag(testSubject.stamp(REQUEST, ACCEPT), eTag));
+    }
+
+    @Test
+    @DisplayName("Given malformed tags, do not match")
+    void ignoresMalformedTags() {
+        assertNull(testSubject.unchangedTag(testSubject.stamp(REQUEST, ACCEPT), "*"));
+        assertNull(testSubject.unchangedTag(testSubject.stamp(REQUEST, ACCEPT), "\"-abc\""));
+        assertNull(testSubject.unchangedTag(testSubject.stamp(REQUEST, ACCEPT), "\"x-abc\""));
+        assertNull(testSubject.unchangedTag(testSubject.stamp(REQUEST, ACCEPT), null));
+    }
+
+    private void givenOfferExpiringAt(LocalDateTime expirationDate) {
+        given(conditionEngine.catalog()).willReturn(CompiledCatalog.compile(List.of(), 0, 0, CURRENT_DATE));
+        given(offerCandidateCache.cachedFirstExpiration(CUSTOMER_UUID)).willReturn(expirationDate);
+    }
+}
@@ -0,0 +1,59 @@
+package com.tipico.identity;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tipico.config.CampaignProperties;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class UuidGeneratorTest {
+
+    private static final Instant NOW = Instant.parse("2021-01-01T00:00:00Z");
+
+    @Test
+    void generatesVersion7WithTimestamp() {
+        var generator = new UuidGenerator(CampaignProperties.UuidVersion.V7, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        var uuid = generator.next();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(NOW.toEpochMilli(), uuid.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void version7IsMonotonicWithinOneMillisecond() {
+        var generator = new UuidGenerator(CampaignProperties.UuidVersion.V7, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        var previous = generator.next();
+        for (int i = 0; i < 10_000; i++) {
+            var next = generator.next();
+            assertTrue(
+                    Long.compareUnsigned(previous.getMostSignificantBits(), next.getMostSignificantBits()) < 0,
+                    previous + " < " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    void generatesVersion4() {
+        var generator = new UuidGenerator(CampaignProperties.UuidVersion.V4, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertEquals(4, generator.next().version());
+    }
+
+    @Test
+    void convertsToBigEndianBytes() {
+        var uuid = UUID.fromString("01020304-0506-0708-090a-0b0c0d0e0f10");
+
+        var bytes = UuidGenerator.toBytes(uuid);
+
+        assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16}, bytes);
+        assertEquals(uuid, UuidGenerator.fromBytes(bytes));
+    }
+}
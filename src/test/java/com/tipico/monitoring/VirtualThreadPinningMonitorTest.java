@@ -0,0 +1,41 @@
+package com.tipico.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tipico.config.CampaignProperties;
+import com.tipico.config.TestCampaignProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withBean(CampaignProperties.class, TestCampaignProperties::of)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withUserConfiguration(VirtualThreadPinningMonitor.class);
+
+    @Test
+    @DisplayName("Given virtual threads, record pinned events while the context runs")
+    void startsAndStopsWithContext() {
+        var monitor = new AtomicReference<VirtualThreadPinningMonitor>();
+
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            monitor.set(context.getBean(VirtualThreadPinningMonitor.class));
+            assertTrue(monitor.get().isRunning());
+        });
+
+        assertFalse(monitor.get().isRunning());
+    }
+
+    @Test
+    @DisplayName("Given platform threads, do not record pinned events")
+    void skippedWithoutVirtualThreads() {
+        contextRunner.run(context -> assertTrue(
+                context.getBeansOfType(VirtualThreadPinningMonitor.class).isEmpty()));
+    }
+}
@@ -0,0 +1,136 @@
+package com.tipico.offerindex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.tipico.repository.projection.OfferCandidate;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OfferIndexFileTest {
+
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime FUTURE_DATE = CURRENT_DATE.plusDays(1).plusNanos(123_456_000);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Given offers grouped by customer, find each customer's unexpired offers after reopening the file")
+    void findsOffersPerCustomer() throws IOException {
+        var random = new Random(42);
+        var expected = new ArrayList<List<OfferCandidate>>();
+        var file = directory.resolve("offers.idx");
+        try (var writer = OfferIndexFile.create(file, CURRENT_DATE, 100, 10)) {
+            for (int customer = 0; customer < 10_000; customer++) {
+                var customerUuid = new UUID(random.nextLong(), random.nextLong());
+                var offers = new ArrayList<OfferCandidate>();
+                for (int offer = 0; offer <= customer % 3; offer++) {
+                    var candidate = new OfferCandidate(
+                            customerUuid,
+                            new UUID(random.nextLong(), random.nextLong()),
+                            offer == 2 ? null : (long) offer + 1,
+                            FUTURE_DATE.plusMinutes(offer));
+                    writer.add(
+                            bytes(customerUuid),
+                            bytes(candidate.offerUuid()),
+                            candidate.campaignId(),
+                            candidate.expirationDate());
+                    offers.add(candidate);
+                }
+                expected.add(offers);
+            }
+            writer.finish();
+        }
+
+        var testSubject = OfferIndexFile.open(file);
+
+        assertEquals(10_000, testSubject.customers());
+        assertEquals(19_999, testSubject.offers());
+        assertEquals(CURRENT_DATE, testSubject.builtAt());
+        assertEquals(100, testSubject.maxOfferId());
+        assertEquals(10, testSubject.maxCampaignId());
+        for (var offers : expected) {
+            assertEquals(offers, testSubject.candidates(offers.getFirst().customerUuid(), CURRENT_DATE));
+        }
+        assertEquals(List.of(), testSubject.candidates(UUID.randomUUID(), CURRENT_DATE));
+    }
+
+    @Test
+    @DisplayName("Leave out offers expired at the time of the lookup")
+    void skipsExpiredOffers() throws IOException {
+        var customerUuid = UUID.randomUUID();
+        var offerUuid = UUID.randomUUID();
+        var file = directory.resolve("offers.idx");
+        try (var writer = OfferIndexFile.create(file, CURRENT_DATE, 2, 1)) {
+            writer.add(bytes(customerUuid), bytes(UUID.randomUUID()), 1L, CURRENT_DATE.plusHours(1));
+            writer.add(bytes(customerUuid), bytes(offerUuid), 1L, FUTURE_DATE);
+            writer.finish();
+        }
+
+        var candidates = OfferIndexFile.open(file).candidates(customerUuid, CURRENT_DATE.plusHours(2));
+
+        assertEquals(List.of(new OfferCandidate(customerUuid, offerUuid, 1L, FUTURE_DATE)), candidates);
+    }
+
+    @Test
+    @DisplayName("Given a file without offers, find none")
+    void opensEmptyIndex() throws IOException {
+        var file = directory.resolve("offers.idx");
+        try (var writer = OfferIndexFile.create(file, CURRENT_DATE, 0, 0)) {
+            writer.finish();
+        }
+
+        assertEquals(List.of(), OfferIndexFile.open(file).candidates(UUID.randomUUID(), CURRENT_DATE));
+    }
+
+    @Test
+    @DisplayName("Given a truncated file, refuse to open it")
+    void rejectsTruncatedFile() throws IOException {
+        var file = directory.resolve("offers.idx");
+        try (var writer = OfferIndexFile.create(file, CURRENT_DATE, 1, 1)) {
+            writer.add(bytes(UUID.randomUUID()), bytes(UUID.randomUUID()), 1L, FUTURE_DATE);
+            writer.finish();
+        }
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - OfferIndexFile.SLOT_BYTES);
+        }
+
+        assertThrows(IllegalStateException.class, () -> OfferIndexFile.open(file));
+    }
+
+    @Test
+    @DisplayName("Given offers of a customer that are not grouped, fail the build")
+    void rejectsUngroupedOffers() throws IOException {
+        var customerUuid = UUID.randomUUID();
+        var file = directory.resolve("offers.idx");
+        try (var writer = OfferIndexFile.create(file, CURRENT_DATE, 3, 1)) {
+            writer.add(bytes(customerUuid), bytes(UUID.randomUUID()), 1L, FUTURE_DATE);
+            writer.add(bytes(UUID.randomUUID()), bytes(UUID.randomUUID()), 1L, FUTURE_DATE);
+            writer.add(bytes(customerUuid), bytes(UUID.randomUUID()), 1L, FUTURE_DATE);
+
+            assertThrows(IllegalStateException.class, writer::finish);
+        }
+    }
+
+    private static byte[] bytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
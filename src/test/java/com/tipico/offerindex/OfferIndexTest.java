@@ -0,0 +1,193 @@
+package com.tipico.offerindex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.tipico.config.TestCampaignProperties;
+import com.tipico.event.CatalogChangedEvent;
+import com.tipico.event.OfferChangedEvent;
+import com.tipico.identity.UuidGenerator;
+import com.tipico.model.Campaign;
+import com.tipico.model.Offer;
+import com.tipico.repository.CampaignRepository;
+import com.tipico.repository.OfferRepository;
+import com.tipico.repository.projection.OfferCandidate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OfferIndexTest {
+
+    private static final LocalDateTime PAST_DATE =
+            LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime FUTURE_DATE =
+            LocalDate.of(2022, Month.JANUARY, 1).atStartOfDay();
+    private static final Clock CLOCK = Clock.fixed(CURRENT_DATE.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    private static final UUID CUSTOMER_UUID = UUID.fromString("9e61690f-28d7-45ee-a200-2aeea6c4969d");
+    private static final UUID OTHER_CUSTOMER_UUID = UUID.fromString("0b3e4a6c-5d1f-4e8a-9c2b-7f6e5d4c3b2a");
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path directory;
+
+    private Campaign campaign;
+
+    private OfferCandidate offer;
+
+    private OfferCandidate otherOffer;
+
+    @BeforeEach
+    void setUp() {
+        campaign = saveCampaign();
+        offer = saveOffer(CUSTOMER_UUID);
+        otherOffer = saveOffer(OTHER_CUSTOMER_UUID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        offerRepository.deleteAll();
+        campaignRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Given a built index, serve candidates from it without reading the offer table")
+    void servesCandidatesFromIndex() throws IOException {
+        var testSubject = offerIndex(Map.of());
+        testSubject.rebuild();
+        jdbcTemplate.update("delete from offer");
+
+        assertEquals(List.of(offer), testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE));
+        assertEquals(List.of(), testSubject.candidates(UUID.randomUUID(), CURRENT_DATE));
+        assertEquals(List.of(), testSubject.candidates(CUSTOMER_UUID, FUTURE_DATE.plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("Given no index was built, fall back to the database")
+    void fallsBackBeforeFirstBuild() {
+        assertNull(offerIndex(Map.of()).candidates(CUSTOMER_UUID, CURRENT_DATE));
+    }
+
+    @Test
+    @DisplayName("Given a write to a customer's offers, fall back to the database for that customer only")
+    void fallsBackForChangedCustomers() throws IOException {
+        var testSubject = offerIndex(Map.of());
+        testSubject.rebuild();
+
+        testSubject.onOfferChanged(new OfferChangedEvent(CUSTOMER_UUID));
+
+        assertNull(testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE));
+        assertEquals(List.of(otherOffer), testSubject.candidates(OTHER_CUSTOMER_UUID, CURRENT_DATE));
+    }
+
+    @Test
+    @DisplayName("Given more changed customers than tracked, fall back to the database for all of them")
+    void setsIndexAsideAfterTooManyChanges() throws IOException {
+        var testSubject = offerIndex(Map.of("campaign.offer-index.max-changed-customers", "1"));
+        testSubject.rebuild();
+
+        testSubject.onOfferCommitted(new OfferChangedEvent(UUID.randomUUID()));
+        assertEquals(List.of(offer), testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE));
+        testSubject.onOfferCommitted(new OfferChangedEvent(UUID.randomUUID()));
+
+        assertNull(testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE));
+    }
+
+    @Test
+    @DisplayName("Given a new campaign or a bulk load, fall back to the database; changes of known campaigns do not")
+    void setsIndexAsideForNewCampaigns() throws IOException {
+        var testSubject = offerIndex(Map.of());
+        testSubject.rebuild();
+
+        testSubject.onCatalogCommitted(new CatalogChangedEvent(campaign.getId()));
+        assertEquals(List.of(offer), testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE));
+        testSubject.onCatalogCommitted(new CatalogChangedEvent(campaign.getId() + 1));
+        assertNull(testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE));
+
+        testSubject.rebuild();
+        assertEquals(List.of(offer), testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE));
+        testSubject.onCatalogCommitted(new CatalogChangedEvent(null));
+        assertNull(testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE));
+    }
+
+    @Test
+    @DisplayName("Given a build reading the offers before a new campaign is committed, set it aside after the commit")
+    void setsAsideBuildsOfUncommittedCampaigns() throws IOException {
+        var testSubject = offerIndex(Map.of());
+        // The campaign is written, the build then reads the committed offers only, and the transaction commits
+        testSubject.onCatalogChanged(new CatalogChangedEvent(campaign.getId() + 1));
+        testSubject.rebuild();
+        assertEquals(List.of(offer), testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE));
+
+        testSubject.onCatalogCommitted(new CatalogChangedEvent(campaign.getId() + 1));
+
+        assertNull(testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE));
+    }
+
+    @Test
+    @DisplayName("Given an index file of an earlier run, serve candidates from it right after starting")
+    void reopensIndexAfterRestart() throws IOException {
+        offerIndex(Map.of()).rebuild();
+        jdbcTemplate.update(
+                "delete from offer where customer_uuid = ?", (Object) UuidGenerator.toBytes(OTHER_CUSTOMER_UUID));
+
+        var restarted = offerIndex(Map.of("campaign.offer-index.enabled", "true"));
+        restarted.start();
+        try {
+            assertEquals(List.of(otherOffer), restarted.candidates(OTHER_CUSTOMER_UUID, CURRENT_DATE));
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    private OfferIndex offerIndex(Map<String, String> overrides) {
+        var values = new HashMap<>(overrides);
+        values.put("campaign.offer-index.directory", directory.toString());
+        var properties = TestCampaignProperties.of(values);
+        return new OfferIndex(jdbcTemplate, properties, CLOCK, new SimpleMeterRegistry());
+    }
+
+    private Campaign saveCampaign() {
+        var campaign = new Campaign();
+        campaign.setUuid(UUID.randomUUID());
+        campaign.setStartDate(PAST_DATE);
+        campaign.setEndDate(FUTURE_DATE);
+        return campaignRepository.save(campaign);
+    }
+
+    private OfferCandidate saveOffer(UUID customerUuid) {
+        var offer = new Offer();
+        offer.setUuid(UUID.randomUUID());
+        offer.setCustomerUuid(customerUuid);
+        offer.setCampaign(campaign);
+        offer.setExpirationDate(FUTURE_DATE);
+        offer = offerRepository.save(offer);
+        return new OfferCandidate(customerUuid, offer.getUuid(), campaign.getId(), FUTURE_DATE);
+    }
+}
@@ -0,0 +1,160 @@
+package com.tipico.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tipico.identity.UuidGenerator;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Guards the access paths of the database eligibility query: the offer lookup must be served by the composite
+ * customer index and the condition check by the campaign index, never by a full scan. The candidate queries are
+ * checked in the SQL Hibernate generates for them, captured by a {@link StatementInspector}.
+ */
+@DataJpaTest(
+        properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.tipico.repository.EligibilityQueryPlanTest$CapturingInspector")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EligibilityQueryPlanTest {
+
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Enough rows for the optimizer to prefer indexes over scanning small tables
+        jdbcTemplate.update("""
+                insert into campaign (id, uuid, name, start_date, end_date, amount)
+                select x, cast(random_uuid() as binary(16)), 'Campaign ' || x,
+                    timestamp '2020-01-01 00:00:00', timestamp '2022-01-01 00:00:00', 10
+                from system_range(1, 100)
+                """);
+        jdbcTemplate.update("""
+                insert into condition (campaign_id, type, data)
+                select x, 'minimumDepositAmount', '100' from system_range(1, 100)
+                """);
+        jdbcTemplate.update("""
+                insert into offer (uuid, customer_uuid, campaign_id, expiration_date)
+                select cast(random_uuid() as binary(16)), cast(random_uuid() as binary(16)),
+                    mod(x, 100) + 1, timestamp '2021-06-01 00:00:00'
+                from system_range(1, 10000)
+                """);
+        jdbcTemplate.execute("analyze");
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from offer");
+        jdbcTemplate.update("delete from condition");
+        jdbcTemplate.update("delete from campaign");
+    }
+
+    @Test
+    void eligibilityQueryUsesIndexes() throws NoSuchMethodException {
+        var query = OfferRepository.class
+                .getMethod(
+                        "findEligibleOfferUuids",
+                        UUID.class,
+                        LocalDateTime.class,
+                        String.class,
+                        LocalDateTime.class,
+                        int.class,
+                        boolean.class)
+                .getAnnotation(Query.class)
+                .value();
+        var parameters = Map.<String, Object>of(
+                "customerUuid", UUID.randomUUID(),
+                "now", CURRENT_DATE,
+                "country", "POLAND",
+                "registrationDate", CURRENT_DATE,
+                "depositAmount", 100,
+                "isFirstDeposit", true);
+
+        var plan = namedParameterJdbcTemplate
+                .queryForObject("EXPLAIN " + query, parameters, String.class)
+                .toUpperCase(Locale.ROOT);
+
+        assertTrue(plan.contains("IDX_OFFER_CUSTOMER_EXPIRATION_CAMPAIGN"), plan);
+        assertTrue(plan.contains("IDX_CONDITION_CAMPAIGN_TYPE"), plan);
+        assertFalse(plan.contains("OFFER.TABLESCAN"), plan);
+        assertFalse(plan.contains("CONDITION.TABLESCAN"), plan);
+    }
+
+    @Test
+    void candidateQueryUsesCustomerIndex() {
+        var customerUuid = UUID.randomUUID();
+        offerRepository.findCandidatesByCustomerUuid(customerUuid, CURRENT_DATE);
+
+        var plan = explain(capturedStatement(), UuidGenerator.toBytes(customerUuid), CURRENT_DATE);
+
+        assertTrue(plan.contains("IDX_OFFER_CUSTOMER_EXPIRATION_CAMPAIGN"), plan);
+        assertFalse(plan.contains("OFFER.TABLESCAN"), plan);
+    }
+
+    @Test
+    void batchCandidateQueryUsesCustomerIndex() {
+        var customerUuids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        offerRepository.findCandidatesByCustomerUuidIn(customerUuids, CURRENT_DATE);
+
+        var parameters = new ArrayList<Object>();
+        customerUuids.forEach(customerUuid -> parameters.add(UuidGenerator.toBytes(customerUuid)));
+        parameters.add(CURRENT_DATE);
+        var plan = explain(capturedStatement(), parameters.toArray());
+
+        assertTrue(plan.matches("(?s).*IDX_OFFER_CUSTOMER_(EXPIRATION_CAMPAIGN|ID).*"), plan);
+        assertFalse(plan.contains("OFFER.TABLESCAN"), plan);
+    }
+
+    private String explain(String sql, Object... parameters) {
+        return jdbcTemplate
+                .queryForObject("EXPLAIN " + sql, String.class, parameters)
+                .toUpperCase(Locale.ROOT);
+    }
+
+    private static String capturedStatement() {
+        assertEquals(1, CapturingInspector.STATEMENTS.size(), CapturingInspector.STATEMENTS::toString);
+        return CapturingInspector.STATEMENTS.getFirst();
+    }
+
+    /** Records the SQL of every statement Hibernate prepares. */
+    public static class CapturingInspector implements StatementInspector {
+
+        private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.tipico.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.tipico.model.Campaign;
+import com.tipico.model.condition.CountryCondition;
+import com.tipico.model.condition.MinimumDepositAmountCondition;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    private static final LocalDateTime PAST_DATE =
+            LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime FUTURE_DATE =
+            LocalDate.of(2022, Month.JANUARY, 1).atStartOfDay();
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private ConditionRepository conditionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Campaign campaign;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        campaign = new Campaign();
+        campaign.setUuid(UUID.randomUUID());
+        campaign.setStartDate(PAST_DATE);
+        campaign.setEndDate(FUTURE_DATE);
+        campaign = campaignRepository.save(campaign);
+
+        var condition = new CountryCondition("POLAND");
+        condition.setCampaign(campaign);
+        conditionRepository.save(condition);
+    }
+
+    @AfterEach
+    void tearDown() {
+        conditionRepository.deleteAll();
+        campaignRepository.deleteAll();
+    }
+
+    @Test
+    void campaignWithConditionsIsServedFromCache() {
+        campaignRepository.findById(campaign.getId()).orElseThrow();
+        statistics.clear();
+
+        var cached = campaignRepository.findById(campaign.getId()).orElseThrow();
+
+        assertEquals(1, cached.getConditions().size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void savingConditionEvictsCachedCollection() {
+        campaignRepository.findById(campaign.getId()).orElseThrow();
+
+        var condition = new MinimumDepositAmountCondition(100);
+        condition.setCampaign(campaign);
+        conditionRepository.save(condition);
+
+        assertEquals(
+                2,
+                campaignRepository.findById(campaign.getId()).orElseThrow().getConditions().size());
+    }
+
+    @Test
+    void catalogQueryIsServedFromQueryCache() {
+        campaignRepository.findAllNotEndedWithConditions(CURRENT_DATE);
+        statistics.clear();
+
+        var campaigns = campaignRepository.findAllNotEndedWithConditions(CURRENT_DATE);
+
+        assertEquals(1, campaigns.size());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void writingCampaignInvalidatesCatalogQuery() {
+        campaignRepository.findAllNotEndedWithConditions(CURRENT_DATE);
+
+        var other = new Campaign();
+        other.setUuid(UUID.randomUUID());
+        other.setStartDate(PAST_DATE);
+        other.setEndDate(FUTURE_DATE);
+        campaignRepository.save(other);
+
+        assertEquals(2, campaignRepository.findAllNotEndedWithConditions(CURRENT_DATE).size());
+    }
+}
@@ -0,0 +1,171 @@
+package com.tipico.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tipico.config.CampaignProperties.UuidVersion;
+import com.tipico.config.TestCampaignProperties;
+import com.tipico.dto.CampaignDefinition;
+import com.tipico.dto.CampaignDefinition.ConditionDefinition;
+import com.tipico.identity.UuidGenerator;
+import com.tipico.model.condition.CountryCondition;
+import com.tipico.repository.CampaignRepository;
+import com.tipico.repository.ConditionRepository;
+import com.tipico.repository.OfferRepository;
+import com.tipico.service.AssignmentJob.Status;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AssignmentServiceTest {
+
+    private static final LocalDateTime PAST_DATE =
+            LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime FUTURE_DATE =
+            LocalDate.of(2022, Month.JANUARY, 1).atStartOfDay();
+    private static final Clock CLOCK = Clock.fixed(CURRENT_DATE.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired
+    private AssignmentService testSubject;
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private ConditionRepository conditionRepository;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @AfterEach
+    void tearDown() {
+        offerRepository.deleteAll();
+        conditionRepository.deleteAll();
+        campaignRepository.deleteAll();
+    }
+
+    @TestConfiguration
+    static class TestConfig {
+
+        @Bean
+        public AssignmentService assignmentService(
+                CampaignRepository campaignRepository,
+                ConditionRepository conditionRepository,
+                JdbcTemplate jdbcTemplate,
+                PlatformTransactionManager transactionManager) {
+            var properties = TestCampaignProperties.of(Map.of("campaign.assignment.batch-size", "2"));
+            return new AssignmentService(
+                    campaignRepository,
+                    conditionRepository,
+                    jdbcTemplate,
+                    transactionManager,
+                    new UuidGenerator(UuidVersion.V7, CLOCK),
+                    properties,
+                    CLOCK,
+                    true);
+        }
+    }
+
+    @Test
+    void createsCampaignAndOffersForListedCustomers() throws InterruptedException {
+        var customers = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        var job = testSubject.submit(definition("POLAND"), customerList(customers, ""));
+
+        assertTrue(job.awaitCompletion(TIMEOUT));
+        var progress = job.toDto();
+        assertEquals(Status.COMMITTED, progress.status());
+        assertEquals(4, progress.offersInserted());
+
+        var campaign = campaignRepository.findAll().getFirst();
+        assertEquals(progress.campaignUuid(), campaign.getUuid());
+        var condition = (CountryCondition) conditionRepository.findAll().getFirst();
+        assertEquals("POLAND", condition.getData());
+        var offers = offerRepository.findAll();
+        assertEquals(4, offers.size());
+        for (var offer : offers) {
+            assertEquals(campaign.getId(), offer.getCampaign().getId());
+            assertEquals(FUTURE_DATE, offer.getExpirationDate());
+            assertTrue(customers.contains(offer.getCustomerUuid()));
+        }
+    }
+
+    @Test
+    void rollsBackEverythingWhenTheCustomerListIsMalformed() throws InterruptedException {
+        var job = testSubject.submit(
+                definition("POLAND"), customerList(List.of(UUID.randomUUID(), UUID.randomUUID()), "not-a-uuid"));
+
+        assertTrue(job.awaitCompletion(TIMEOUT));
+        assertEquals(Status.FAILED, job.status());
+        assertTrue(job.toDto().error().contains("Line 3"));
+        assertEquals(0, campaignRepository.count());
+        assertEquals(0, conditionRepository.count());
+        assertEquals(0, offerRepository.count());
+    }
+
+    @Test
+    void rejectsInvalidDefinitionsUpFront() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> testSubject.submit(
+                        new CampaignDefinition(
+                                "Broken",
+                                PAST_DATE,
+                                FUTURE_DATE,
+                                10,
+                                null,
+                                List.of(new ConditionDefinition("unknown", "x"))),
+                        customerList(List.of(), "")));
+        assertTrue(testSubject.jobs().isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"yes", "1", "TRUE ", ""})
+    void rejectsFirstDepositValuesOtherThanTrueOrFalse(String value) {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> testSubject.submit(
+                        new CampaignDefinition(
+                                "Broken",
+                                PAST_DATE,
+                                FUTURE_DATE,
+                                10,
+                                null,
+                                List.of(new ConditionDefinition("isFirstDeposit", value))),
+                        customerList(List.of(), "")));
+        assertTrue(testSubject.jobs().isEmpty());
+    }
+
+    private static CampaignDefinition definition(String country) {
+        return new CampaignDefinition(
+                "Assigned", PAST_DATE, FUTURE_DATE, 10, null, List.of(new ConditionDefinition("country", country)));
+    }
+
+    private static ByteArrayInputStream customerList(List<UUID> customers, String lastLine) {
+        var text = new StringBuilder();
+        customers.forEach(customer -> text.append(customer).append('\n'));
+        text.append(lastLine).append('\n');
+        return new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
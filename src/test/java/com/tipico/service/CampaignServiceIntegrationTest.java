@@ -1,30 +1,44 @@
 package com.tipico.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
+import com.tipico.audit.AuditLog;
+import com.tipico.config.TestCampaignProperties;
+import com.tipico.dto.EligibilityRequest;
+import com.tipico.dto.OfferDto;
 import com.tipico.model.Campaign;
 import com.tipico.model.Offer;
 import com.tipico.model.condition.CountryCondition;
 import com.tipico.model.condition.IsFirstDepositCondition;
 import com.tipico.model.condition.MinimumDepositAmountCondition;
 import com.tipico.model.condition.RegistrationDateCondition;
+import com.tipico.offerindex.OfferIndex;
 import com.tipico.repository.CampaignRepository;
 import com.tipico.repository.ConditionRepository;
 import com.tipico.repository.OfferRepository;
+import com.tipico.service.engine.ConditionEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -43,12 +57,17 @@ class CampaignServiceIntegrationTest {
     @Autowired
     private CampaignService testSubject;
 
+    @Autowired
+    @Qualifier("databaseQueryCampaignService")
+    private CampaignService databaseQueryTestSubject;
+
     private static final LocalDateTime PAST_DATE =
             LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay();
     private static final LocalDateTime CURRENT_DATE =
             LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
     private static final LocalDateTime FUTURE_DATE =
             LocalDate.of(2022, Month.JANUARY, 1).atStartOfDay();
+    private static final Clock CLOCK = Clock.fixed(CURRENT_DATE.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
 
     @AfterEach
     void tearDown() {
@@ -61,10 +80,84 @@ class CampaignServiceIntegrationTest {
     static class TestConfig {
 
         @Bean
-        public CampaignService campaignService(OfferRepository offerRepository) {
-            var clock = Clock.fixed(CURRENT_DATE.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        public ConditionEngine conditionEngine(CampaignRepository campaignRepository, EligibilityMetrics metrics) {
+            return new ConditionEngine(campaignRepository, CLOCK, List.of(metrics));
+        }
+
+        @Bean
+        public OfferIndex offerIndex(JdbcTemplate jdbcTemplate) {
+            return new OfferIndex(jdbcTemplate, TestCampaignProperties.of(), CLOCK, new SimpleMeterRegistry());
+        }
+
+        @Bean
+        public OfferCandidateCache offerCandidateCache(OfferRepository offerRepository, OfferIndex offerIndex) {
+            return new OfferCandidateCache(offerRepository, offerIndex, TestCampaignProperties.of(), CLOCK);
+        }
 
-            return new CampaignService(offerRepository, clock);
+        @Bean
+        public EligibilityMetrics eligibilityMetrics() {
+            return new EligibilityMetrics(new SimpleMeterRegistry());
+        }
+
+        @Bean
+        public SingleFlight singleFlight(EligibilityMetrics metrics) {
+            return new SingleFlight(TestCampaignProperties.of(), metrics);
+        }
+
+        @Bean
+        public EligibilityProfileCache eligibilityProfileCache(
+                ConditionEngine conditionEngine, EligibilityMetrics metrics) {
+            return new EligibilityProfileCache(conditionEngine, metrics, TestCampaignProperties.of());
+        }
+
+        @Bean
+        public AuditLog auditLog() {
+            return new AuditLog(TestCampaignProperties.of(), new SimpleMeterRegistry());
+        }
+
+        @Bean
+        @Primary
+        public CampaignService campaignService(
+                OfferRepository offerRepository,
+                OfferCandidateCache offerCandidateCache,
+                EligibilityProfileCache eligibilityProfileCache,
+                ConditionEngine conditionEngine,
+                EligibilityMetrics metrics,
+                SingleFlight singleFlight,
+                AuditLog auditLog) {
+            return new CampaignService(
+                    offerRepository,
+                    offerCandidateCache,
+                    eligibilityProfileCache,
+                    conditionEngine,
+                    metrics,
+                    singleFlight,
+                    auditLog,
+                    TestCampaignProperties.of(),
+                    CLOCK);
+        }
+
+        @Bean
+        public CampaignService databaseQueryCampaignService(
+                OfferRepository offerRepository,
+                OfferCandidateCache offerCandidateCache,
+                EligibilityProfileCache eligibilityProfileCache,
+                ConditionEngine conditionEngine,
+                EligibilityMetrics metrics,
+                SingleFlight singleFlight,
+                AuditLog auditLog) {
+            var properties = TestCampaignProperties.of(Map.of("campaign.eligibility.query-mode", "DATABASE"));
+
+            return new CampaignService(
+                    offerRepository,
+                    offerCandidateCache,
+                    eligibilityProfileCache,
+                    conditionEngine,
+                    metrics,
+                    singleFlight,
+                    auditLog,
+                    properties,
+                    CLOCK);
         }
     }
 
@@ -116,8 +209,11 @@ class CampaignServiceIntegrationTest {
 
         var eligibleOffers =
                 testSubject.getEligibleOffers(customerUuid, country, registrationDate, depositAmount, isFirstDeposit);
+        var eligibleOffersFromDatabase = databaseQueryTestSubject.getEligibleOffers(
+                customerUuid, country, registrationDate, depositAmount, isFirstDeposit);
 
         assertEquals(expectedOfferCount, eligibleOffers.size());
+        assertEquals(eligibleOffers, eligibleOffersFromDatabase);
     }
 
     private static Stream<Arguments> unmetOfferExpirationOrCampaignStartEndDates() {
@@ -153,7 +249,87 @@ class CampaignServiceIntegrationTest {
         offerRepository.save(offer);
 
         var eligibleOffers = testSubject.getEligibleOffers(offer.getCustomerUuid(), "POLAND", CURRENT_DATE, 100, false);
+        var eligibleOffersFromDatabase =
+                databaseQueryTestSubject.getEligibleOffers(offer.getCustomerUuid(), "POLAND", CURRENT_DATE, 100, false);
 
         assertEquals(0, eligibleOffers.size());
+        assertEquals(0, eligibleOffersFromDatabase.size());
+    }
+
+    @Test
+    @DisplayName("Given a batch of customers, evaluate each customer with their own parameters")
+    void getEligibleOffersBatch() {
+        var campaign = new Campaign();
+        campaign.setUuid(UUID.randomUUID());
+        campaign.setName("Some Campaign");
+        campaign.setStartDate(PAST_DATE);
+        campaign.setEndDate(FUTURE_DATE);
+        campaign = campaignRepository.save(campaign);
+
+        var countryCondition = new CountryCondition("POLAND");
+        countryCondition.setCampaign(campaign);
+        conditionRepository.save(countryCondition);
+
+        var polishCustomerOffer = new Offer();
+        polishCustomerOffer.setUuid(UUID.randomUUID());
+        polishCustomerOffer.setCustomerUuid(UUID.randomUUID());
+        polishCustomerOffer.setExpirationDate(FUTURE_DATE);
+        polishCustomerOffer.setCampaign(campaign);
+
+        var swedishCustomerOffer = new Offer();
+        swedishCustomerOffer.setUuid(UUID.randomUUID());
+        swedishCustomerOffer.setCustomerUuid(UUID.randomUUID());
+        swedishCustomerOffer.setExpirationDate(FUTURE_DATE);
+        swedishCustomerOffer.setCampaign(campaign);
+        offerRepository.saveAll(List.of(polishCustomerOffer, swedishCustomerOffer));
+
+        var customerWithoutOffers = UUID.randomUUID();
+
+        var eligibleOffers = testSubject.getEligibleOffers(List.of(
+                new EligibilityRequest(polishCustomerOffer.getCustomerUuid(), "POLAND", CURRENT_DATE, 100, true),
+                new EligibilityRequest(swedishCustomerOffer.getCustomerUuid(), "SWEDEN", CURRENT_DATE, 100, true),
+                new EligibilityRequest(customerWithoutOffers, "POLAND", CURRENT_DATE, 100, true)));
+
+        assertEquals(
+                List.of(new OfferDto(polishCustomerOffer.getUuid())),
+                eligibleOffers.get(polishCustomerOffer.getCustomerUuid()));
+        assertEquals(List.of(), eligibleOffers.get(swedishCustomerOffer.getCustomerUuid()));
+        assertEquals(List.of(), eligibleOffers.get(customerWithoutOffers));
+    }
+
+    @Test
+    @DisplayName("Given more eligible offers than the page size, stream them in pages resuming after the cursor")
+    void streamEligibleOffersInPages() {
+        var campaign = new Campaign();
+        campaign.setUuid(UUID.randomUUID());
+        campaign.setName("Some Campaign");
+        campaign.setStartDate(PAST_DATE);
+        campaign.setEndDate(FUTURE_DATE);
+        campaign = campaignRepository.save(campaign);
+
+        var customerUuid = UUID.randomUUID();
+        var offers = new ArrayList<Offer>();
+        for (int i = 0; i < 3; i++) {
+            var offer = new Offer();
+            offer.setUuid(UUID.randomUUID());
+            offer.setCustomerUuid(customerUuid);
+            offer.setExpirationDate(FUTURE_DATE);
+            offer.setCampaign(campaign);
+            offers.add(offer);
+        }
+        offerRepository.saveAll(offers);
+
+        var firstPage = new ArrayList<OfferDto>();
+        var cursor = testSubject.streamEligibleOffers(
+                customerUuid, "POLAND", CURRENT_DATE, 100, true, 0, 2, firstPage::add);
+        var secondPage = new ArrayList<OfferDto>();
+        var lastCursor = testSubject.streamEligibleOffers(
+                customerUuid, "POLAND", CURRENT_DATE, 100, true, cursor, 2, secondPage::add);
+
+        assertEquals(
+                List.of(new OfferDto(offers.get(0).getUuid()), new OfferDto(offers.get(1).getUuid())), firstPage);
+        assertEquals(offers.get(1).getId(), cursor);
+        assertEquals(List.of(new OfferDto(offers.get(2).getUuid())), secondPage);
+        assertNull(lastCursor);
     }
 }
@@ -3,21 +3,27 @@ package com.tipico.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.BDDMockito.given;
 
+import com.tipico.audit.AuditLog;
+import com.tipico.config.TestCampaignProperties;
 import com.tipico.model.Campaign;
-import com.tipico.model.Offer;
 import com.tipico.model.condition.*;
+import com.tipico.offerindex.OfferIndex;
+import com.tipico.repository.CampaignRepository;
 import com.tipico.repository.OfferRepository;
+import com.tipico.repository.projection.OfferCandidate;
+import com.tipico.service.engine.ConditionEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -26,12 +32,20 @@ class CampaignServiceUnitTest {
     @Mock
     private OfferRepository offerRepository;
 
+    @Mock
+    private CampaignRepository campaignRepository;
+
+    @Mock
+    private OfferIndex offerIndex;
+
     @Mock
     private Clock clock;
 
-    @InjectMocks
     private CampaignService testSubject;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static final long CAMPAIGN_ID = 1L;
     private static final UUID CUSTOMER_UUID = UUID.randomUUID();
     private static final UUID OFFER_UUID = UUID.randomUUID();
     private static final String POLAND = "Poland";
@@ -46,13 +60,32 @@ class CampaignServiceUnitTest {
     private static final boolean IS_FIRST_DEPOSIT = true;
     private static final boolean IS_NOT_FIRST_DEPOSIT = false;
 
+    @BeforeEach
+    void setUp() {
+        var properties = TestCampaignProperties.of();
+        var offerCandidateCache = new OfferCandidateCache(offerRepository, offerIndex, properties, clock);
+        var metrics = new EligibilityMetrics(meterRegistry);
+        var conditionEngine = new ConditionEngine(campaignRepository, clock, List.of(metrics));
+
+        testSubject = new CampaignService(
+                offerRepository,
+                offerCandidateCache,
+                new EligibilityProfileCache(conditionEngine, metrics, properties),
+                conditionEngine,
+                metrics,
+                new SingleFlight(properties, metrics),
+                new AuditLog(properties, meterRegistry),
+                properties,
+                clock);
+    }
+
     @Test
     @DisplayName("Given no offers were found for user, return empty list")
     void noOffersForUser() {
         mockClock();
 
-        given(offerRepository.findUnexpiredOffersByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE))
-                .willReturn(new ArrayList<>());
+        given(offerRepository.findCandidatesByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE))
+                .willReturn(List.of());
 
         var eligibleOffers =
                 testSubject.getEligibleOffers(CUSTOMER_UUID, POLAND, CURRENT_DATE, DEPOSIT_AMOUNT, IS_FIRST_DEPOSIT);
@@ -72,18 +105,16 @@ class CampaignServiceUnitTest {
                 new IsFirstDepositCondition(IS_FIRST_DEPOSIT)));
 
         Campaign campaign = new Campaign();
+        campaign.setId(CAMPAIGN_ID);
         campaign.setStartDate(PAST_DATE);
         campaign.setEndDate(FUTURE_DATE);
         campaign.setConditions(conditions);
 
-        Offer offer = new Offer();
-        offer.setUuid(OFFER_UUID);
-        offer.setCustomerUuid(CUSTOMER_UUID);
-        offer.setExpirationDate(FUTURE_DATE);
-        offer.setCampaign(campaign);
+        var candidate = new OfferCandidate(CUSTOMER_UUID, OFFER_UUID, CAMPAIGN_ID, FUTURE_DATE);
 
-        given(offerRepository.findUnexpiredOffersByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE))
-                .willReturn(new ArrayList<>(List.of(offer)));
+        given(offerRepository.findCandidatesByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE))
+                .willReturn(List.of(candidate));
+        given(campaignRepository.findAllNotEndedWithConditions(CURRENT_DATE)).willReturn(List.of(campaign));
 
         var eligibleOffers =
                 testSubject.getEligibleOffers(CUSTOMER_UUID, POLAND, CURRENT_DATE, DEPOSIT_AMOUNT, IS_FIRST_DEPOSIT);
@@ -127,18 +158,16 @@ class CampaignServiceUnitTest {
         mockClock();
 
         Campaign campaign = new Campaign();
+        campaign.setId(CAMPAIGN_ID);
         campaign.setStartDate(PAST_DATE);
         campaign.setEndDate(FUTURE_DATE);
         campaign.setConditions(conditions);
 
-        Offer offer = new Offer();
-        offer.setUuid(OFFER_UUID);
-        offer.setCustomerUuid(CUSTOMER_UUID);
-        offer.setExpirationDate(FUTURE_DATE);
-        offer.setCampaign(campaign);
+        var candidate = new OfferCandidate(CUSTOMER_UUID, OFFER_UUID, CAMPAIGN_ID, FUTURE_DATE);
 
-        given(offerRepository.findUnexpiredOffersByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE))
-                .willReturn(new ArrayList<>(List.of(offer)));
+        given(offerRepository.findCandidatesByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE))
+                .willReturn(List.of(candidate));
+        given(campaignRepository.findAllNotEndedWithConditions(CURRENT_DATE)).willReturn(List.of(campaign));
 
         var eligibleOffers = testSubject.getEligibleOffers(
                 CUSTOMER_UUID, POLAND, CURRENT_DATE, DEPOSIT_AMOUNT, IS_NOT_FIRST_DEPOSIT);
@@ -146,6 +175,46 @@ class CampaignServiceUnitTest {
         assertEquals(0, eligibleOffers.size());
     }
 
+    @Test
+    @DisplayName("Given an offer fails a condition, count the rejection per condition type and campaign")
+    void recordsRejections() {
+        mockClock();
+
+        Campaign campaign = new Campaign();
+        campaign.setId(CAMPAIGN_ID);
+        campaign.setStartDate(PAST_DATE);
+        campaign.setEndDate(FUTURE_DATE);
+        campaign.setConditions(List.of(new CountryCondition("SWEDEN")));
+
+        given(offerRepository.findCandidatesByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE))
+                .willReturn(List.of(new OfferCandidate(CUSTOMER_UUID, OFFER_UUID, CAMPAIGN_ID, FUTURE_DATE)));
+        given(campaignRepository.findAllNotEndedWithConditions(CURRENT_DATE)).willReturn(List.of(campaign));
+
+        testSubject.getEligibleOffers(CUSTOMER_UUID, POLAND, CURRENT_DATE, DEPOSIT_AMOUNT, IS_FIRST_DEPOSIT);
+
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("eligibility.rejections")
+                        .tag("condition", "CountryCondition")
+                        .counter()
+                        .count());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("eligibility.campaign.rejections")
+                        .tag("campaign", "1")
+                        .counter()
+                        .count());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("eligibility.offers")
+                        .tag("outcome", "potential")
+                        .counter()
+                        .count());
+    }
+
     private void mockClock() {
         given(clock.instant()).willReturn(CURRENT_DATE.toInstant(ZoneOffset.UTC));
         given(clock.getZone()).willReturn(ZoneId.of(UTC));
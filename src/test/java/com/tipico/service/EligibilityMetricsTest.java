@@ -0,0 +1,85 @@
+package com.tipico.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.tipico.model.Campaign;
+import com.tipico.service.engine.CompiledCatalog;
+import com.tipico.service.engine.ConditionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EligibilityMetricsTest {
+
+    private static final LocalDateTime PAST_DATE =
+            LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime FUTURE_DATE =
+            LocalDate.of(2022, Month.JANUARY, 1).atStartOfDay();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final EligibilityMetrics testSubject = new EligibilityMetrics(meterRegistry);
+
+    @Test
+    @DisplayName("Given a new catalog, count rejections of both catalogs per campaign and drop removed campaigns")
+    void keepsCampaignMetersAcrossCatalogs() {
+        var previous = catalog(1, 1L, 2L);
+        var next = catalog(2, 2L, 3L);
+        testSubject.catalogInstalled(previous);
+        testSubject.catalogInstalled(next);
+
+        testSubject.recordRejection(previous, previous.indexOf(2L), ConditionType.COUNTRY);
+        testSubject.recordRejection(next, next.indexOf(2L), ConditionType.COUNTRY);
+        testSubject.recordRejection(next, next.indexOf(3L), ConditionType.COUNTRY);
+
+        assertEquals(2, campaignRejections("2"));
+        assertEquals(1, campaignRejections("3"));
+        assertNull(meterRegistry
+                .find("eligibility.campaign.rejections")
+                .tag("campaign", "1")
+                .counter());
+    }
+
+    @Test
+    @DisplayName("Given catalogs reported out of order, keep the meters of the later one")
+    void ignoresEarlierCatalogs() {
+        testSubject.catalogInstalled(catalog(2, 2L));
+        testSubject.catalogInstalled(catalog(1, 1L));
+
+        assertNull(meterRegistry
+                .find("eligibility.campaign.rejections")
+                .tag("campaign", "1")
+                .counter());
+        assertEquals(0, campaignRejections("2"));
+    }
+
+    private double campaignRejections(String campaignId) {
+        return meterRegistry
+                .get("eligibility.campaign.rejections")
+                .tag("campaign", campaignId)
+                .counter()
+                .count();
+    }
+
+    private static CompiledCatalog catalog(long version, Long... campaignIds) {
+        var campaigns = Arrays.stream(campaignIds)
+                .map(campaignId -> {
+                    var campaign = new Campaign();
+                    campaign.setId(campaignId);
+                    campaign.setStartDate(PAST_DATE);
+                    campaign.setEndDate(FUTURE_DATE);
+                    campaign.setConditions(List.of());
+                    return campaign;
+                })
+                .toList();
+        return CompiledCatalog.compile(campaigns, version, 3, CURRENT_DATE);
+    }
+}
@@ -0,0 +1,129 @@
+package com.tipico.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tipico.audit.DecisionRecorder;
+import com.tipico.dto.OfferDto;
+import com.tipico.model.Campaign;
+import com.tipico.model.condition.*;
+import com.tipico.repository.projection.OfferCandidate;
+import com.tipico.service.engine.CompiledCatalog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EligibilityProfileTest {
+
+    private static final LocalDateTime PAST_DATE =
+            LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime FUTURE_DATE =
+            LocalDate.of(2022, Month.JANUARY, 1).atStartOfDay();
+    private static final UUID CUSTOMER_UUID = UUID.fromString("9e61690f-28d7-45ee-a200-2aeea6c4969d");
+
+    private final EligibilityMetrics metrics = new EligibilityMetrics(new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("Given any deposit amount, the profile agrees with evaluating the catalog directly")
+    void agreesWithFullEvaluation() {
+        var catalog = CompiledCatalog.compile(
+                List.of(
+                        campaign(1L, new MinimumDepositAmountCondition(50)),
+                        campaign(2L, new MinimumDepositAmountCondition(100), new IsFirstDepositCondition(true)),
+                        campaign(3L, new CountryCondition("SWEDEN")),
+                        campaign(4L)),
+                1,
+                4,
+                CURRENT_DATE);
+        var candidates = List.of(candidate(1L), candidate(2L), candidate(3L), candidate(4L));
+
+        for (var isFirstDeposit : List.of(true, false)) {
+            var profile = EligibilityProfile.build(
+                    candidates, catalog, catalog.prepare("POLAND", PAST_DATE, 0, isFirstDeposit), CURRENT_DATE);
+            for (var depositAmount : List.of(0, 49, 50, 99, 100, 1000)) {
+                var query = catalog.prepare("POLAND", PAST_DATE, depositAmount, isFirstDeposit);
+                var expected = candidates.stream()
+                        .filter(candidate -> catalog.matches(catalog.indexOf(candidate.campaignId()), query))
+                        .map(candidate -> new OfferDto(candidate.offerUuid()))
+                        .toList();
+
+                assertEquals(
+                        expected, profile.eligibleOffers(depositAmount, catalog, metrics, DecisionRecorder.NONE));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Given a changed campaign, re-evaluate only its offers and keep the profile of a new catalog version")
+    void updatesChangedCampaigns() {
+        var catalog = CompiledCatalog.compile(
+                List.of(campaign(1L, new MinimumDepositAmountCondition(50)), campaign(2L)), 1, 2, CURRENT_DATE);
+        var first = candidate(1L);
+        var second = candidate(2L);
+        var profile = EligibilityProfile.build(
+                List.of(first, second), catalog, catalog.prepare("POLAND", PAST_DATE, 0, true), CURRENT_DATE);
+
+        var changed = CompiledCatalog.compile(
+                List.of(campaign(1L, new MinimumDepositAmountCondition(200)), campaign(2L)), 2, 2, CURRENT_DATE);
+        var updated = profile.update(Set.of(1L), changed);
+
+        assertEquals(2, updated.catalogVersion());
+        assertEquals(
+                List.of(new OfferDto(second.offerUuid())),
+                updated.eligibleOffers(100, changed, metrics, DecisionRecorder.NONE));
+        assertEquals(
+                List.of(new OfferDto(first.offerUuid()), new OfferDto(second.offerUuid())),
+                updated.eligibleOffers(200, changed, metrics, DecisionRecorder.NONE));
+    }
+
+    @Test
+    @DisplayName("Given a campaign created after the profile, require a full evaluation")
+    void rebuildsForNewCampaigns() {
+        var catalog = CompiledCatalog.compile(List.of(campaign(1L)), 1, 1, CURRENT_DATE);
+        var profile = EligibilityProfile.build(
+                List.of(candidate(1L)), catalog, catalog.prepare("POLAND", PAST_DATE, 0, true), CURRENT_DATE);
+
+        var changed = CompiledCatalog.compile(List.of(campaign(1L), campaign(2L)), 2, 2, CURRENT_DATE);
+
+        assertNull(profile.update(Set.of(2L), changed));
+    }
+
+    @Test
+    @DisplayName("The profile is only valid for its inputs and until the first offer expires")
+    void validity() {
+        var catalog = CompiledCatalog.compile(List.of(campaign(1L)), 1, 1, CURRENT_DATE);
+        var expiration = CURRENT_DATE.plusDays(1);
+        var candidate = new OfferCandidate(CUSTOMER_UUID, UUID.randomUUID(), 1L, expiration);
+        var profile = EligibilityProfile.build(
+                List.of(candidate), catalog, catalog.prepare("POLAND", PAST_DATE, 0, true), CURRENT_DATE);
+
+        assertTrue(profile.matches("POLAND", PAST_DATE, true));
+        assertFalse(profile.matches("SWEDEN", PAST_DATE, true));
+        assertFalse(profile.matches("POLAND", PAST_DATE, false));
+        assertTrue(profile.isValidAt(expiration));
+        assertFalse(profile.isValidAt(expiration.plusNanos(1)));
+    }
+
+    private static OfferCandidate candidate(long campaignId) {
+        return new OfferCandidate(CUSTOMER_UUID, UUID.randomUUID(), campaignId, FUTURE_DATE);
+    }
+
+    private static Campaign campaign(long id, Condition... conditions) {
+        var campaign = new Campaign();
+        campaign.setId(id);
+        campaign.setStartDate(PAST_DATE);
+        campaign.setEndDate(FUTURE_DATE);
+        campaign.setConditions(List.of(conditions));
+        return campaign;
+    }
+}
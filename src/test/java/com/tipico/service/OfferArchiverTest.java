@@ -0,0 +1,136 @@
+package com.tipico.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.tipico.config.TestCampaignProperties;
+import com.tipico.identity.UuidGenerator;
+import com.tipico.model.Campaign;
+import com.tipico.model.Offer;
+import com.tipico.repository.CampaignRepository;
+import com.tipico.repository.OfferRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.*;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OfferArchiverTest {
+
+    private static final LocalDateTime PAST_DATE =
+            LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime FUTURE_DATE =
+            LocalDate.of(2022, Month.JANUARY, 1).atStartOfDay();
+    private static final Clock CLOCK = Clock.fixed(CURRENT_DATE.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    @Autowired
+    private OfferArchiver testSubject;
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from offer_archive");
+        offerRepository.deleteAll();
+        campaignRepository.deleteAll();
+    }
+
+    @TestConfiguration
+    static class TestConfig {
+
+        @Bean
+        public OfferArchiver offerArchiver(
+                NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+            var properties = TestCampaignProperties.of(Map.of(
+                    "campaign.archive.batch-size", "2", "campaign.archive.max-rows-per-run", "5"));
+            return new OfferArchiver(
+                    jdbcTemplate, transactionManager, properties, CLOCK, new SimpleMeterRegistry(), false);
+        }
+    }
+
+    @Test
+    void archivesExpiredOffersAndOffersOfEndedCampaigns() throws InterruptedException {
+        var runningCampaign = saveCampaign(FUTURE_DATE);
+        var endedCampaign = saveCampaign(PAST_DATE);
+        var expired = saveOffer(runningCampaign, PAST_DATE);
+        var ofEndedCampaign = saveOffer(endedCampaign, FUTURE_DATE);
+        var current = saveOffer(runningCampaign, FUTURE_DATE);
+
+        assertEquals(2, testSubject.archive());
+
+        assertEquals(1, offerRepository.count());
+        assertEquals(current.getId(), offerRepository.findAll().getFirst().getId());
+        var archivedIds = jdbcTemplate.queryForList("select original_id from offer_archive order by id", Long.class);
+        assertEquals(List.of(expired.getId(), ofEndedCampaign.getId()), archivedIds);
+    }
+
+    @Test
+    void stopsAtMaxRowsPerRun() throws InterruptedException {
+        var campaign = saveCampaign(FUTURE_DATE);
+        for (int i = 0; i < 7; i++) {
+            saveOffer(campaign, PAST_DATE);
+        }
+
+        assertEquals(5, testSubject.archive());
+        assertEquals(2, testSubject.archive());
+        assertEquals(0, testSubject.archive());
+        assertEquals(0, offerRepository.count());
+    }
+
+    @Test
+    void archivesOfferWhoseIdWasArchivedBefore() throws InterruptedException {
+        var campaign = saveCampaign(FUTURE_DATE);
+        var offer = saveOffer(campaign, PAST_DATE);
+        assertEquals(1, testSubject.archive());
+        jdbcTemplate.update(
+                "insert into offer (id, uuid, customer_uuid, campaign_id, expiration_date) values (?, ?, ?, ?, ?)",
+                offer.getId(),
+                UuidGenerator.toBytes(UUID.randomUUID()),
+                UuidGenerator.toBytes(UUID.randomUUID()),
+                campaign.getId(),
+                PAST_DATE);
+
+        assertEquals(1, testSubject.archive());
+
+        var archivedIds = jdbcTemplate.queryForList("select original_id from offer_archive", Long.class);
+        assertEquals(List.of(offer.getId(), offer.getId()), archivedIds);
+    }
+
+    private Campaign saveCampaign(LocalDateTime endDate) {
+        var campaign = new Campaign();
+        campaign.setUuid(UUID.randomUUID());
+        campaign.setStartDate(PAST_DATE.minusYears(1));
+        campaign.setEndDate(endDate);
+        return campaignRepository.save(campaign);
+    }
+
+    private Offer saveOffer(Campaign campaign, LocalDateTime expirationDate) {
+        var offer = new Offer();
+        offer.setUuid(UUID.randomUUID());
+        offer.setCustomerUuid(UUID.randomUUID());
+        offer.setCampaign(campaign);
+        offer.setExpirationDate(expirationDate);
+        return offerRepository.save(offer);
+    }
+}
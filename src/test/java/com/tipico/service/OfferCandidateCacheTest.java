@@ -0,0 +1,106 @@
+package com.tipico.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.tipico.config.TestCampaignProperties;
+import com.tipico.event.OfferChangedEvent;
+import com.tipico.offerindex.OfferIndex;
+import com.tipico.repository.OfferRepository;
+import com.tipico.repository.projection.OfferCandidate;
+import java.time.*;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class OfferCandidateCacheTest {
+    @Mock
+    private OfferRepository offerRepository;
+
+    @Mock
+    private OfferIndex offerIndex;
+
+    private OfferCandidateCache testSubject;
+
+    private static final UUID CUSTOMER_UUID = UUID.randomUUID();
+    private static final LocalDateTime PAST_DATE =
+            LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime FUTURE_DATE =
+            LocalDate.of(2022, Month.JANUARY, 1).atStartOfDay();
+
+    @BeforeEach
+    void setUp() {
+        var properties = TestCampaignProperties.of();
+        var clock = Clock.fixed(CURRENT_DATE.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+        testSubject = new OfferCandidateCache(offerRepository, offerIndex, properties, clock);
+    }
+
+    @Test
+    @DisplayName("Given candidates were loaded for a customer, serve the next lookup from the cache")
+    void cachesCandidatesPerCustomer() {
+        var candidates = List.of(candidate(FUTURE_DATE));
+        given(offerRepository.findCandidatesByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE))
+                .willReturn(candidates);
+
+        testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE);
+        var cached = testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE);
+
+        assertEquals(candidates, cached);
+        assertEquals(1, testSubject.stats().hitCount());
+        verify(offerRepository, times(1)).findCandidatesByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE);
+    }
+
+    @Test
+    @DisplayName("Given an offer of the customer changed, reload the candidates")
+    void invalidatesOnOfferChange() {
+        given(offerRepository.findCandidatesByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE))
+                .willReturn(List.of(candidate(FUTURE_DATE)));
+
+        testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE);
+        testSubject.onOfferChanged(new OfferChangedEvent(CUSTOMER_UUID));
+        testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE);
+
+        verify(offerRepository, times(2)).findCandidatesByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE);
+    }
+
+    @Test
+    @DisplayName("Given the earliest offer of an entry has already ended, do not serve the entry again")
+    void evictsAtEarliestOfferEnd() {
+        given(offerRepository.findCandidatesByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE))
+                .willReturn(List.of(candidate(FUTURE_DATE), candidate(PAST_DATE)));
+
+        testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE);
+        testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE);
+
+        verify(offerRepository, times(2)).findCandidatesByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE);
+    }
+
+    @Test
+    @DisplayName("Given candidates are not cached, report no expiration without loading them")
+    void reportsFirstExpirationOfCachedCandidatesOnly() {
+        given(offerRepository.findCandidatesByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE))
+                .willReturn(List.of(candidate(FUTURE_DATE), candidate(FUTURE_DATE.minusDays(1))));
+
+        assertNull(testSubject.cachedFirstExpiration(CUSTOMER_UUID));
+        testSubject.candidates(CUSTOMER_UUID, CURRENT_DATE);
+
+        assertEquals(FUTURE_DATE.minusDays(1), testSubject.cachedFirstExpiration(CUSTOMER_UUID));
+        verify(offerRepository, times(1)).findCandidatesByCustomerUuid(CUSTOMER_UUID, CURRENT_DATE);
+    }
+
+    private static OfferCandidate candidate(LocalDateTime expirationDate) {
+        return new OfferCandidate(CUSTOMER_UUID, UUID.randomUUID(), 1L, expirationDate);
+    }
+}
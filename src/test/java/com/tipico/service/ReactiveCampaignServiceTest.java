@@ -0,0 +1,191 @@
+package com.tipico.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.tipico.dto.OfferDto;
+import com.tipico.model.Campaign;
+import com.tipico.model.Offer;
+import com.tipico.model.condition.CountryCondition;
+import com.tipico.model.condition.IsFirstDepositCondition;
+import com.tipico.model.condition.MinimumDepositAmountCondition;
+import com.tipico.model.condition.RegistrationDateCondition;
+import com.tipico.repository.CampaignRepository;
+import com.tipico.repository.ConditionRepository;
+import com.tipico.repository.OfferRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+            "spring.main.web-application-type=reactive",
+            "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1",
+            "spring.r2dbc.url=r2dbc:h2:mem:///reactive?options=DB_CLOSE_DELAY=-1",
+            "campaign.seed.mode=NONE",
+            "campaign.warm-up.enabled=false",
+            "campaign.audit.enabled=false",
+            "campaign.archive.enabled=false"
+        })
+@ActiveProfiles("reactive")
+class ReactiveCampaignServiceTest {
+
+    private static final UUID CUSTOMER_UUID = UUID.fromString("9e61690f-28d7-45ee-a200-2aeea6c4969d");
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private ConditionRepository conditionRepository;
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private ReactiveCampaignService testSubject;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private Offer offer;
+
+    @BeforeEach
+    void setUp() {
+        var campaign = new Campaign();
+        campaign.setUuid(UUID.randomUUID());
+        campaign.setAmount(123);
+        campaign.setName("Some Campaign");
+        campaign.setStartDate(NOW.minusYears(1));
+        campaign.setEndDate(NOW.plusYears(1));
+        campaign = campaignRepository.save(campaign);
+
+        offer = new Offer();
+        offer.setUuid(UUID.randomUUID());
+        offer.setCustomerUuid(CUSTOMER_UUID);
+        offer.setExpirationDate(NOW.plusYears(1));
+        offer.setCampaign(campaign);
+        offerRepository.save(offer);
+
+        var countryCondition = new CountryCondition("POLAND");
+        countryCondition.setCampaign(campaign);
+
+        var registrationDateCondition = new RegistrationDateCondition(NOW.minusMonths(1));
+        registrationDateCondition.setCampaign(campaign);
+
+        var minimumDepositAmountCondition = new MinimumDepositAmountCondition(100);
+        minimumDepositAmountCondition.setCampaign(campaign);
+
+        var isFirstDepositCondition = new IsFirstDepositCondition(true);
+        isFirstDepositCondition.setCampaign(campaign);
+        conditionRepository.saveAll(List.of(
+                countryCondition, registrationDateCondition, minimumDepositAmountCondition, isFirstDepositCondition));
+    }
+
+    @AfterEach
+    void tearDown() {
+        offerRepository.deleteAll();
+        conditionRepository.deleteAll();
+        campaignRepository.deleteAll();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "9e61690f-28d7-45ee-a200-2aeea6c4969d, POLAND, 1,  100, true,  1", // All conditions met
+        "c0dec0de-c0de-c0de-c0de-badbadbadbad, POLAND, 1,  100, true,  0", // User has no offers
+        "9e61690f-28d7-45ee-a200-2aeea6c4969d, SWEDEN, 1,  100, true,  0", // Wrong country
+        "9e61690f-28d7-45ee-a200-2aeea6c4969d, POLAND, 60, 100, true,  0", // Registered too early
+        "9e61690f-28d7-45ee-a200-2aeea6c4969d, POLAND, 1,  50,  true,  0", // Below minimum deposit
+        "9e61690f-28d7-45ee-a200-2aeea6c4969d, POLAND, 1,  100, false, 0" //  Not first deposit
+    })
+    @DisplayName("Evaluate the offers read through R2DBC like the blocking service does")
+    void getEligibleOffers(
+            UUID customerUuid,
+            String country,
+            int registeredDaysAgo,
+            int depositAmount,
+            boolean isFirstDeposit,
+            int expectedOfferCount) {
+        var registrationDate = NOW.minusDays(registeredDaysAgo);
+
+        var eligibleOffers = testSubject
+                .getEligibleOffers(customerUuid, country, registrationDate, depositAmount, isFirstDeposit)
+                .collectList()
+                .block();
+
+        assertEquals(expectedOfferCount, eligibleOffers.size());
+        assertEquals(
+                campaignService.getEligibleOffers(
+                        customerUuid, country, registrationDate, depositAmount, isFirstDeposit),
+                eligibleOffers);
+    }
+
+    @Test
+    @DisplayName("Given a client requesting one offer at a time, emit offers as they are requested")
+    void getEligibleOffersWithBackpressure() {
+        StepVerifier.create(
+                        testSubject.getEligibleOffers(CUSTOMER_UUID, "POLAND", NOW.minusDays(1), 100, true), 0)
+                .expectSubscription()
+                .thenRequest(1)
+                .expectNext(new OfferDto(offer.getUuid()))
+                .thenRequest(1)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Serve eligible offers as a JSON array and as newline-delimited JSON")
+    void getEligibleOffersOverHttp() {
+        for (var mediaType : List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON)) {
+            webTestClient
+                    .get()
+                    .uri(uri -> uri.path("/campaigns/eligible-offers")
+                            .queryParam("customerUuid", CUSTOMER_UUID)
+                            .queryParam("country", "POLAND")
+                            .queryParam("registrationDate", NOW.minusDays(1))
+                            .queryParam("depositAmount", 100)
+                            .queryParam("isFirstDeposit", true)
+                            .build())
+                    .accept(mediaType)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectHeader()
+                    .contentTypeCompatibleWith(mediaType)
+                    .expectBodyList(OfferDto.class)
+                    .isEqualTo(List.of(new OfferDto(offer.getUuid())));
+        }
+    }
+
+    @Test
+    @DisplayName("Given a malformed parameter, respond with 400")
+    void rejectMalformedParameter() {
+        webTestClient
+                .get()
+                .uri(uri -> uri.path("/campaigns/eligible-offers")
+                        .queryParam("customerUuid", "not-a-uuid")
+                        .queryParam("country", "POLAND")
+                        .queryParam("registrationDate", NOW.minusDays(1))
+                        .queryParam("depositAmount", 100)
+                        .queryParam("isFirstDeposit", true)
+                        .build())
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+}
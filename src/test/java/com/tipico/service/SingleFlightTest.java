@@ -0,0 +1,137 @@
+package com.tipico.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private static final String KEY = "customer";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final EligibilityMetrics metrics = new EligibilityMetrics(meterRegistry);
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        var singleFlight = new SingleFlight(true, Duration.ofSeconds(10), metrics);
+        var loads = new AtomicInteger();
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var leader = executor.submit(() -> singleFlight.load(KEY, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "offers";
+            }));
+            awaitUntil(() -> loads.get() == 1);
+            var followers = new ArrayList<CompletableFuture<String>>();
+            for (int i = 0; i < 5; i++) {
+                followers.add(CompletableFuture.supplyAsync(
+                        () -> singleFlight.load(KEY, () -> {
+                            loads.incrementAndGet();
+                            return "own load";
+                        }),
+                        executor));
+            }
+            // Followers join while the leader is blocked; release it once all of them wait for its result
+            awaitUntil(() -> singleFlight.waiting(KEY) == 5);
+            release.countDown();
+
+            assertEquals("offers", leader.get(5, TimeUnit.SECONDS));
+            for (var follower : followers) {
+                assertEquals("offers", follower.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, loads.get());
+        assertEquals(5, coalesced("shared"));
+    }
+
+    @Test
+    void followerLoadsOnItsOwnAfterMaxWait() throws Exception {
+        var singleFlight = new SingleFlight(true, Duration.ofMillis(10), metrics);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var leader = executor.submit(() -> singleFlight.load(KEY, () -> {
+                started.countDown();
+                await(release);
+                return "slow";
+            }));
+            await(started);
+
+            assertEquals("own load", singleFlight.load(KEY, () -> "own load"));
+
+            release.countDown();
+            assertEquals("slow", leader.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, coalesced("timeout"));
+    }
+
+    @Test
+    void followerLoadsOnItsOwnWhenLeaderFails() throws Exception {
+        var singleFlight = new SingleFlight(true, Duration.ofSeconds(10), metrics);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var leader = executor.submit(() -> singleFlight.load(KEY, () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("database unavailable");
+            }));
+            await(started);
+            var follower = executor.submit(() -> singleFlight.load(KEY, () -> "own load"));
+            awaitUntil(() -> singleFlight.waiting(KEY) == 1);
+            release.countDown();
+
+            assertEquals("own load", follower.get(5, TimeUnit.SECONDS));
+            var failure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertEquals(IllegalStateException.class, failure.getCause().getClass());
+        }
+        assertEquals(1, coalesced("leader_failed"));
+    }
+
+    @Test
+    void sequentialCallsDoNotShareResults() {
+        var singleFlight = new SingleFlight(true, Duration.ofSeconds(10), metrics);
+
+        assertEquals("first", singleFlight.load(KEY, () -> "first"));
+        assertEquals("second", singleFlight.load(KEY, () -> "second"));
+        assertEquals(0, coalesced("shared"));
+    }
+
+    private double coalesced(String outcome) {
+        return meterRegistry
+                .get("eligibility.coalesced")
+                .tag("outcome", outcome)
+                .counter()
+                .count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.tipico.service.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tipico.model.Campaign;
+import com.tipico.model.condition.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CompiledCatalogTest {
+
+    private static final LocalDateTime PAST_DATE =
+            LocalDate.of(2020, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime FUTURE_DATE =
+            LocalDate.of(2022, Month.JANUARY, 1).atStartOfDay();
+
+    @Test
+    @DisplayName("Given campaigns with different conditions, report the first failing condition per campaign")
+    void firstFailingCondition() {
+        var catalog = CompiledCatalog.compile(
+                List.of(
+                        campaign(3L, new CountryCondition("poland"), new MinimumDepositAmountCondition(100)),
+                        campaign(1L),
+                        campaign(2L, new RegistrationDateCondition(CURRENT_DATE), new IsFirstDepositCondition(true))),
+                0,
+                0,
+                CURRENT_DATE);
+
+        var query = catalog.prepare("POLAND", PAST_DATE, 50, false);
+
+        assertNull(catalog.firstFailingCondition(catalog.indexOf(1L), query));
+        assertEquals(
+                ConditionType.REGISTRATION_DATE, catalog.firstFailingCondition(catalog.indexOf(2L), query));
+        assertEquals(
+                ConditionType.MINIMUM_DEPOSIT_AMOUNT, catalog.firstFailingCondition(catalog.indexOf(3L), query));
+        assertTrue(catalog.indexOf(4L) < 0);
+    }
+
+    @Test
+    @DisplayName("Given conflicting or impossible conditions, the campaign is never eligible")
+    void unsatisfiableConditions() {
+        var catalog = CompiledCatalog.compile(
+                List.of(
+                        campaign(1L, new CountryCondition("POLAND"), new CountryCondition("SWEDEN")),
+                        campaign(2L, new IsFirstDepositCondition(false))),
+                0,
+                0,
+                CURRENT_DATE);
+
+        var query = catalog.prepare("POLAND", CURRENT_DATE, 100, true);
+
+        assertEquals(ConditionType.COUNTRY, catalog.firstFailingCondition(catalog.indexOf(1L), query));
+        assertEquals(ConditionType.IS_FIRST_DEPOSIT, catalog.firstFailingCondition(catalog.indexOf(2L), query));
+    }
+
+    @Test
+    @DisplayName("Given campaigns starting and ending later, track the running campaigns until the next change")
+    void runningCampaigns() {
+        var running = campaign(1L);
+        var upcoming = campaign(2L);
+        upcoming.setStartDate(FUTURE_DATE);
+        upcoming.setEndDate(FUTURE_DATE.plusYears(1));
+        var ended = campaign(3L);
+        ended.setEndDate(PAST_DATE);
+
+        var catalog = CompiledCatalog.compile(List.of(running, upcoming, ended), 0, 4L, CURRENT_DATE);
+
+        assertTrue(catalog.isActive(catalog.indexOf(1L)));
+        assertFalse(catalog.isActive(catalog.indexOf(2L)));
+        assertFalse(catalog.isActive(catalog.indexOf(3L)));
+        assertEquals(FUTURE_DATE, catalog.activeUntil());
+        assertTrue(catalog.isCurrentAt(FUTURE_DATE.minusNanos(1)));
+        assertFalse(catalog.isCurrentAt(FUTURE_DATE));
+
+        var later = catalog.activeAt(FUTURE_DATE);
+
+        assertTrue(later.isActive(later.indexOf(1L)));
+        assertTrue(later.isActive(later.indexOf(2L)));
+        assertEquals(FUTURE_DATE.plusNanos(1), later.activeUntil());
+        assertFalse(catalog.isUnknown(4L));
+        assertTrue(catalog.isUnknown(5L));
+    }
+
+    private static Campaign campaign(long id, Condition... conditions) {
+        var campaign = new Campaign();
+        campaign.setId(id);
+        campaign.setStartDate(PAST_DATE);
+        campaign.setEndDate(FUTURE_DATE);
+        campaign.setConditions(List.of(conditions));
+        return campaign;
+    }
+}
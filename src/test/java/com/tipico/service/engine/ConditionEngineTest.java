@@ -0,0 +1,111 @@
+package com.tipico.service.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.tipico.MutableClock;
+import com.tipico.event.CatalogChangedEvent;
+import com.tipico.model.Campaign;
+import com.tipico.repository.CampaignRepository;
+import java.time.*;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ConditionEngineTest {
+    @Mock
+    private CampaignRepository campaignRepository;
+
+    private ConditionEngine testSubject;
+
+    private final MutableClock clock = new MutableClock();
+
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final LocalDateTime START_DATE =
+            LocalDate.of(2021, Month.FEBRUARY, 1).atStartOfDay();
+    private static final LocalDateTime END_DATE =
+            LocalDate.of(2021, Month.MARCH, 1).atStartOfDay();
+
+    @BeforeEach
+    void setUp() {
+        var campaign = new Campaign();
+        campaign.setId(1L);
+        campaign.setStartDate(START_DATE);
+        campaign.setEndDate(END_DATE);
+        campaign.setConditions(List.of());
+        given(campaignRepository.findAllNotEndedWithConditions(any())).willReturn(List.of(campaign));
+
+        setTime(CURRENT_DATE);
+        testSubject = new ConditionEngine(campaignRepository, clock, List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        testSubject.destroy();
+    }
+
+    @Test
+    @DisplayName("Given a fixed clock moved past the start and end dates, swap the campaign in and out without reloading")
+    void swapsCampaignAtStartAndEndDate() {
+        assertFalse(testSubject.catalog().isActive(0));
+
+        setTime(START_DATE);
+        assertTrue(testSubject.catalog().isActive(0));
+
+        setTime(END_DATE);
+        assertTrue(testSubject.catalog().isActive(0));
+
+        setTime(END_DATE.plusNanos(1));
+        assertFalse(testSubject.catalog().isActive(0));
+
+        verify(campaignRepository, times(1)).findAllNotEndedWithConditions(any());
+    }
+
+    @Test
+    @DisplayName("Given a committed catalog change, recompile on the next read")
+    void recompilesAfterChange() {
+        var compiled = testSubject.catalog();
+        assertSame(compiled, testSubject.catalog());
+
+        testSubject.onCatalogChanged(new CatalogChangedEvent(1L));
+        testSubject.catalog();
+
+        verify(campaignRepository, times(2)).findAllNotEndedWithConditions(any());
+    }
+
+    @Test
+    @DisplayName("Report the campaigns changed between two catalog versions, unless any campaign may have changed")
+    void changedCampaigns() {
+        var version = testSubject.catalog().version();
+
+        testSubject.onCatalogChanged(new CatalogChangedEvent(1L));
+        testSubject.onCatalogChanged(new CatalogChangedEvent(2L));
+        var changed = testSubject.catalog().version();
+
+        assertEquals(Set.of(1L, 2L), testSubject.changedCampaigns(version, changed));
+        assertEquals(Set.of(2L), testSubject.changedCampaigns(version + 1, changed));
+        assertEquals(Set.of(), testSubject.changedCampaigns(changed, changed));
+
+        testSubject.onCatalogChanged(new CatalogChangedEvent(null));
+        assertNull(testSubject.changedCampaigns(version, testSubject.catalog().version()));
+    }
+
+    private void setTime(LocalDateTime time) {
+        clock.setTime(time);
+    }
+}
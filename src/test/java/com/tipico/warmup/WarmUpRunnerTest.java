@@ -0,0 +1,174 @@
+package com.tipico.warmup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.tipico.audit.AuditLog;
+import com.tipico.config.TestCampaignProperties;
+import com.tipico.identity.UuidGenerator;
+import com.tipico.service.CampaignService;
+import com.tipico.service.EligibilityMetrics;
+import com.tipico.service.EligibilityProfileCache;
+import com.tipico.service.ReactiveCampaignService;
+import com.tipico.service.engine.CompiledCatalog;
+import com.tipico.service.engine.ConditionEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class WarmUpRunnerTest {
+
+    private static final LocalDateTime CURRENT_DATE =
+            LocalDate.of(2021, Month.JANUARY, 1).atStartOfDay();
+    private static final Clock CLOCK = Clock.fixed(CURRENT_DATE.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    private static final UUID CUSTOMER_UUID = UUID.fromString("9e61690f-28d7-45ee-a200-2aeea6c4969d");
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ConditionEngine conditionEngine;
+
+    @Mock
+    private CampaignService campaignService;
+
+    @Mock
+    private ObjectProvider<ReactiveCampaignService> reactiveCampaignService;
+
+    @Mock
+    private EligibilityProfileCache eligibilityProfileCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final EligibilityMetrics metrics = new EligibilityMetrics(meterRegistry);
+
+    private WarmUpRunner testSubject;
+
+    @BeforeEach
+    void setUp() {
+        var properties = TestCampaignProperties.of(Map.of(
+                "campaign.warm-up.connections", "3",
+                "campaign.warm-up.requests-per-round", "50",
+                "campaign.warm-up.target-latency", "1s"));
+        testSubject = new WarmUpRunner(
+                dataSource,
+                jdbcTemplate,
+                conditionEngine,
+                campaignService,
+                reactiveCampaignService,
+                new AuditLog(properties, new SimpleMeterRegistry()),
+                metrics,
+                eligibilityProfileCache,
+                properties,
+                CLOCK);
+    }
+
+    @Test
+    @DisplayName("Given the latency target is met, stop after one round of synthetic requests")
+    void stopsOnceTargetIsMet() throws SQLException {
+        given(dataSource.getConnection()).willReturn(connection);
+        given(conditionEngine.catalog()).willReturn(CompiledCatalog.compile(List.of(), 0, 0, CURRENT_DATE));
+        given(jdbcTemplate.queryForList(anyString(), eq(byte[].class), any(), any()))
+                .willReturn(List.of(UuidGenerator.toBytes(CUSTOMER_UUID)));
+
+        testSubject.run(new DefaultApplicationArguments());
+
+        verify(dataSource, times(3)).getConnection();
+        verify(connection, times(3)).close();
+        verify(campaignService, times(50))
+                .getEligibleOffers(eq(CUSTOMER_UUID), anyString(), any(), anyInt(), anyBoolean());
+        verify(jdbcTemplate).queryForList(contains("customer_uuid is not null"), eq(byte[].class), any(), any());
+        verify(eligibilityProfileCache).invalidateAll();
+    }
+
+    @Test
+    @DisplayName("Given sampling customers fails, start without synthetic requests")
+    void startsWhenSamplingFails() throws SQLException {
+        given(dataSource.getConnection()).willReturn(connection);
+        given(conditionEngine.catalog()).willReturn(CompiledCatalog.compile(List.of(), 0, 0, CURRENT_DATE));
+        given(jdbcTemplate.queryForList(anyString(), eq(byte[].class), any(), any()))
+                .willThrow(new DataRetrievalFailureException("offer table unavailable"));
+
+        testSubject.run(new DefaultApplicationArguments());
+
+        verify(campaignService, never()).getEligibleOffers(any(), any(), any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Synthetic requests are not recorded in the eligibility metrics")
+    void doesNotRecordMetrics() {
+        willAnswer(invocation -> {
+                    metrics.recordEvaluationTime(1);
+                    return List.of();
+                })
+                .given(campaignService)
+                .getEligibleOffers(any(), any(), any(), anyInt(), anyBoolean());
+
+        testSubject.round(List.of(CUSTOMER_UUID), new SplittableRandom(1));
+
+        var evaluationTimer = meterRegistry
+                .get("eligibility.latency")
+                .tag("phase", "evaluation")
+                .timer();
+        assertEquals(0, evaluationTimer.count());
+    }
+
+    @Test
+    @DisplayName("Given no customer has offers, skip the synthetic requests")
+    void skipsRequestsWithoutCustomers() throws SQLException {
+        given(dataSource.getConnection()).willReturn(connection);
+        given(conditionEngine.catalog()).willReturn(CompiledCatalog.compile(List.of(), 0, 0, CURRENT_DATE));
+        given(jdbcTemplate.queryForList(anyString(), eq(byte[].class), any(), any()))
+                .willReturn(List.of());
+
+        testSubject.run(new DefaultApplicationArguments());
+
+        verify(campaignService, never()).getEligibleOffers(any(), any(), any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Report the median and 99th percentile latency of a round")
+    void measuresRound() {
+        var round = testSubject.round(List.of(CUSTOMER_UUID), new SplittableRandom(1));
+
+        assertTrue(round.p50() <= round.p99());
+    }
+}